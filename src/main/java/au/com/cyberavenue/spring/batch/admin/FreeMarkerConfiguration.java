@@ -177,4 +177,14 @@ public class FreeMarkerConfiguration {
         attributes.put("titleText", "Spring Batch Admin: Step Execution Progress");
         return fmv;
     }
+
+    @Bean("jobs/executions/step/partitions")
+    public FreeMarkerView jobExecutionsStepPartitionsView() {
+        FreeMarkerView fmv = standard();
+        Map<String, Object> attributes = fmv.getAttributesMap();
+        attributes.put("body", "/manager/steps/html/partitions.ftl");
+        attributes.put("titleCode", "step.partitions.title");
+        attributes.put("titleText", "Spring Batch Admin: Step Partitions");
+        return fmv;
+    }
 }
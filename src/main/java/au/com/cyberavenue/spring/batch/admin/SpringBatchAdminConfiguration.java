@@ -1,8 +1,19 @@
 package au.com.cyberavenue.spring.batch.admin;
 
+import java.util.HashMap;
+import java.util.Map;
 import javax.sql.DataSource;
 
+import org.springframework.batch.admin.service.CachedCountStrategy;
+import org.springframework.batch.admin.service.CountStrategy;
+import org.springframework.batch.admin.service.EstimatedCountStrategy;
+import org.springframework.batch.admin.service.ExactCountStrategy;
+import org.springframework.batch.admin.service.JobExecutionWatcher;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.service.LaunchQueue;
 import org.springframework.batch.admin.service.SimpleJobServiceFactoryBean;
+import org.springframework.batch.admin.service.UnknownCountStrategy;
+import org.springframework.batch.admin.service.VirtualThreadTaskExecutor;
 import org.springframework.batch.core.configuration.JobRegistry;
 import org.springframework.batch.core.configuration.support.JobRegistryBeanPostProcessor;
 import org.springframework.batch.core.explore.JobExplorer;
@@ -12,6 +23,7 @@ import org.springframework.batch.core.repository.ExecutionContextSerializer;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.dao.DefaultExecutionContextSerializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.batch.BatchDataSourceScriptDatabaseInitializer;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
@@ -23,6 +35,7 @@ import org.springframework.core.convert.support.ConfigurableConversionService;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
 
 @Configuration
 @Import({ FreeMarkerConfiguration.class, WebMvcConfiguration.class })
@@ -49,11 +62,100 @@ public class SpringBatchAdminConfiguration {
     @Autowired
     private ConfigurableConversionService conversionService;
 
+    /**
+     * How execution counts are computed for pagination: exact, cached,
+     * estimated or none.
+     */
+    @Value("${spring.batch.admin.count.strategy:exact}")
+    private String countStrategy;
+
+    @Value("${spring.batch.admin.count.cache-ttl-millis:30000}")
+    private long countCacheTimeToLive;
+
+    /**
+     * Keep step history snapshots in BATCH_STEP_EXECUTION_HISTORY instead of
+     * in memory.
+     */
+    @Value("${spring.batch.admin.step-history.persistent:false}")
+    private boolean persistStepExecutionHistory;
+
+    /**
+     * How long an unfinished step (not running here) may go without an update
+     * before the step history stops waiting for it, e.g. after a crash. It is
+     * still added to the history if it finishes later.
+     */
+    @Value("${spring.batch.admin.step-history.unfinished-timeout-millis:3600000}")
+    private long unfinishedStepTimeout;
+
+    /**
+     * How far behind the current time the change feed stays, so that updates
+     * whose transaction has not committed yet are not skipped.
+     */
+    @Value("${spring.batch.admin.changes.safety-lag-millis:5000}")
+    private long changeSafetyLag;
+
+    /**
+     * Bounds for the caches of finished job and step executions.
+     */
+    @Value("${spring.batch.admin.cache.max-executions:1000}")
+    private int executionCacheSize;
+
+    @Value("${spring.batch.admin.cache.max-weight:50000}")
+    private long executionCacheWeight;
+
+    /**
+     * Launch limits: jobs running at once, launches waiting for a thread, and
+     * the executions allowed per job (0 for no limit, overridden per job with
+     * e.g. <code>job1=1,job2=3</code>). Launches beyond them are rejected.
+     */
+    @Value("${spring.batch.admin.launch.max-concurrent:6}")
+    private int maxConcurrentExecutions;
+
+    @Value("${spring.batch.admin.launch.queue-depth:100}")
+    private int launchQueueDepth;
+
+    @Value("${spring.batch.admin.launch.max-concurrent-per-job:0}")
+    private int maxConcurrentExecutionsPerJob;
+
+    @Value("${spring.batch.admin.launch.job-limits:}")
+    private String jobLaunchLimits;
+
+    /**
+     * Run each job on a virtual thread (JDK 21 or later), still at most
+     * max-concurrent at once, instead of on a fixed pool.
+     */
+    @Value("${spring.batch.admin.launch.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    /**
+     * How often the shared poller behind the live execution views checks the
+     * watched executions for changes.
+     */
+    @Value("${spring.batch.admin.watch.poll-interval-millis:1000}")
+    private long watchPollInterval;
+
+    /**
+     * How many changes a live view may have waiting (e.g. a client that has
+     * stopped reading) before it is dropped.
+     */
+    @Value("${spring.batch.admin.watch.max-backlog:100}")
+    private int watchMaxBacklog;
+
+    /**
+     * Rows fetched at a time when exporting execution history.
+     */
+    @Value("${spring.batch.admin.export.fetch-size:1000}")
+    private int exportFetchSize;
+
     @Bean
     public TaskExecutor batchAdminTaskExecutor() {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("spring-batch-admin-", maxConcurrentExecutions);
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setMaxPoolSize(6);
-        executor.setCorePoolSize(6);
+        executor.setMaxPoolSize(maxConcurrentExecutions);
+        executor.setCorePoolSize(maxConcurrentExecutions);
+        executor.setQueueCapacity(launchQueueDepth);
         executor.setThreadGroupName("spring-batch-admin");
         executor.setThreadNamePrefix("spring-batch-admin");
         executor.initialize();
@@ -68,6 +170,27 @@ public class SpringBatchAdminConfiguration {
         return simpleJobLauncher;
     }
 
+    @Bean
+    public LaunchQueue batchAdminLaunchQueue() {
+        LaunchQueue launchQueue = new LaunchQueue();
+        launchQueue.setMaxConcurrentExecutions(maxConcurrentExecutions);
+        launchQueue.setMaxQueueDepth(launchQueueDepth);
+        launchQueue.setMaxConcurrentExecutionsPerJob(maxConcurrentExecutionsPerJob);
+        Map<String, Integer> limits = new HashMap<>();
+        for (String limit : StringUtils.commaDelimitedListToSet(jobLaunchLimits)) {
+            String[] pair = limit.split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid job launch limit '" + limit + "' (expected name=n)");
+            }
+            limits.put(pair[0].trim(), Integer.parseInt(pair[1].trim()));
+        }
+        launchQueue.setMaxConcurrentExecutionsByJob(limits);
+        if (batchAdminTaskExecutor() instanceof VirtualThreadTaskExecutor taskExecutor) {
+            launchQueue.setTaskExecutor(taskExecutor);
+        }
+        return launchQueue;
+    }
+
     // do not instantiate when using spring boot batch starter 3.1.x
     @Bean
     @ConditionalOnMissingClass("org.springframework.boot.autoconfigure.batch.BatchAutoConfiguration")
@@ -90,6 +213,38 @@ public class SpringBatchAdminConfiguration {
         simpleJobServiceFactory.setTransactionManager(transactionManager);
         simpleJobServiceFactory.setSerializer(executionContextSerializer);
         simpleJobServiceFactory.setConversionService(conversionService);
+        simpleJobServiceFactory.setCountStrategy(countStrategy());
+        simpleJobServiceFactory.setPersistStepExecutionHistory(persistStepExecutionHistory);
+        simpleJobServiceFactory.setUnfinishedStepTimeout(unfinishedStepTimeout);
+        simpleJobServiceFactory.setChangeSafetyLag(changeSafetyLag);
+        simpleJobServiceFactory.setExecutionCacheSize(executionCacheSize);
+        simpleJobServiceFactory.setExecutionCacheWeight(executionCacheWeight);
+        simpleJobServiceFactory.setLaunchQueue(batchAdminLaunchQueue());
+        simpleJobServiceFactory.setExportFetchSize(exportFetchSize);
         return simpleJobServiceFactory;
     }
+
+    @Bean
+    public JobExecutionWatcher batchAdminJobExecutionWatcher(JobService jobService) {
+        JobExecutionWatcher watcher = new JobExecutionWatcher(jobService);
+        watcher.setPollInterval(watchPollInterval);
+        watcher.setMaxBacklog(watchMaxBacklog);
+        return watcher;
+    }
+
+    private CountStrategy countStrategy() {
+        switch (countStrategy.trim().toLowerCase()) {
+        case "exact":
+            return new ExactCountStrategy();
+        case "cached":
+            return new CachedCountStrategy(countCacheTimeToLive);
+        case "estimated":
+            return new EstimatedCountStrategy(countCacheTimeToLive);
+        case "none":
+            return new UnknownCountStrategy();
+        default:
+            throw new IllegalArgumentException("Unknown count strategy '" + countStrategy
+                    + "' (expected exact, cached, estimated or none)");
+        }
+    }
 }
@@ -4,11 +4,14 @@ import java.util.Arrays;
 
 import org.springframework.batch.admin.web.JobController;
 import org.springframework.batch.admin.web.JobExecutionController;
+import org.springframework.batch.admin.web.JsonApiController;
+import org.springframework.batch.admin.web.QueryCountInterceptor;
 import org.springframework.batch.admin.web.StepExecutionController;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.filter.HiddenHttpMethodFilter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -31,6 +34,11 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
         return new StepExecutionController();
     }
 
+    @Bean
+    public JsonApiController jsonApiController() {
+        return new JsonApiController();
+    }
+
     @Bean
     public FilterRegistrationBean hiddenHttpMethodFilter() {
         FilterRegistrationBean filterRegBean = new FilterRegistrationBean(new HiddenHttpMethodFilter());
@@ -38,6 +46,11 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
         return filterRegBean;
     }
 
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new QueryCountInterceptor()).addPathPatterns("/jobs", "/jobs/**", "/api/**");
+    }
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addRedirectViewController("/", "/jobs/executions");
@@ -27,6 +27,27 @@ public class CumulativeHistory {
 
 	private double max;
 
+	public CumulativeHistory() {
+	}
+
+	/**
+	 * Create a history from aggregates computed elsewhere (e.g. by the
+	 * database), as if the values had been appended one by one.
+	 * 
+	 * @param count the number of values
+	 * @param sum the sum of the values
+	 * @param sumSquares the sum of the squares of the values
+	 * @param min the smallest value (ignored if count is 0)
+	 * @param max the largest value (ignored if count is 0)
+	 */
+	public CumulativeHistory(int count, double sum, double sumSquares, double min, double max) {
+		this.count = count;
+		this.sum = sum;
+		this.sumSquares = sumSquares;
+		this.min = count > 0 ? min : 0;
+		this.max = count > 0 ? max : 0;
+	}
+
 	public void append(double value) {
 		if (value > max || count == 0)
 			max = value;
@@ -37,10 +58,36 @@ public class CumulativeHistory {
 		count++;
 	}
 
+	/**
+	 * Combine with another history, as if all the values appended to either
+	 * had been appended to one. Neither history is changed.
+	 * 
+	 * @param other the history to combine with
+	 * @return a new history
+	 */
+	public CumulativeHistory combine(CumulativeHistory other) {
+		if (other.count == 0) {
+			return new CumulativeHistory(count, sum, sumSquares, min, max);
+		}
+		if (count == 0) {
+			return new CumulativeHistory(other.count, other.sum, other.sumSquares, other.min, other.max);
+		}
+		return new CumulativeHistory(count + other.count, sum + other.sum, sumSquares + other.sumSquares,
+				Math.min(min, other.min), Math.max(max, other.max));
+	}
+
 	public int getCount() {
 		return count;
 	}
 
+	public double getSum() {
+		return sum;
+	}
+
+	public double getSumSquares() {
+		return sumSquares;
+	}
+
 	public double getMean() {
 		return count > 0 ? sum / count : 0;
 	}
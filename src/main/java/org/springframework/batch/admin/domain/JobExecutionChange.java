@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import java.util.List;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * A change to a job execution seen by polling the job repository: its
+ * current state, its status before the change (null the first time it is
+ * seen) and the step executions that changed with it.
+ */
+public record JobExecutionChange(JobExecutionRecord jobExecution, BatchStatus previousStatus,
+		List<StepExecutionDelta> stepExecutions) {
+
+	/**
+	 * @return true if the status is different from before (always true the
+	 * first time)
+	 */
+	public boolean isStatusChanged() {
+		return previousStatus != jobExecution.status();
+	}
+
+	/**
+	 * @return true if the job execution will not change again
+	 */
+	public boolean isFinished() {
+		return jobExecution.endTime() != null && !jobExecution.status().isRunning();
+	}
+
+}
@@ -73,12 +73,22 @@ public class JobExecutionInfo {
 	private final TimeZone timeZone;
 
 	public JobExecutionInfo(JobExecution jobExecution, TimeZone timeZone) {
+		this(jobExecution, jobExecution.getStepExecutions().size(), timeZone);
+	}
+
+	/**
+	 * @param jobExecution the job execution (possibly without its step
+	 * executions)
+	 * @param stepExecutionCount the number of step executions it has
+	 * @param timeZone the time zone for the dates
+	 */
+	public JobExecutionInfo(JobExecution jobExecution, int stepExecutionCount, TimeZone timeZone) {
 
 		this.jobExecution = jobExecution;
 		this.timeZone = timeZone;
 		this.id = jobExecution.getId();
 		this.jobId = jobExecution.getJobId();
-		this.stepExecutionCount = jobExecution.getStepExecutions().size();
+		this.stepExecutionCount = stepExecutionCount;
 		this.jobParameters = converter.getProperties(jobExecution.getJobParameters());
 		this.jobParametersString = new JobParametersExtractor().fromJobParameters(jobExecution.getJobParameters());
 
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import java.time.LocalDateTime;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * A flat projection of one job execution row, mapped straight from the job
+ * repository without the instance, parameters, steps or context.
+ */
+public record JobExecutionRecord(long id, long jobInstanceId, String jobName, BatchStatus status, String exitCode,
+		LocalDateTime createTime, LocalDateTime startTime, LocalDateTime endTime, LocalDateTime lastUpdated,
+		int version) {
+}
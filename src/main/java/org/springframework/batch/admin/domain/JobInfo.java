@@ -18,6 +18,12 @@
  */
 package org.springframework.batch.admin.domain;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.TimeZone;
+
+import org.springframework.batch.core.BatchStatus;
+
 public class JobInfo {
 	private final String name;
 
@@ -29,6 +35,12 @@ public class JobInfo {
 
 	private final Long jobInstanceId;
 
+	private BatchStatus lastExecutionStatus;
+
+	private LocalDateTime lastExecutionStartTime;
+
+	private TimeZone timeZone = TimeZone.getDefault();
+
 	public JobInfo(String name, int executionCount) {
 		this(name, executionCount, false);
 	}
@@ -50,6 +62,26 @@ public class JobInfo {
 		this.incrementable = incrementable;
 	}
 
+	public JobInfo(String name, int executionCount, boolean launchable, boolean incrementable,
+			BatchStatus lastExecutionStatus, LocalDateTime lastExecutionStartTime) {
+		this(name, executionCount, null, launchable, incrementable);
+		this.lastExecutionStatus = lastExecutionStatus;
+		this.lastExecutionStartTime = lastExecutionStartTime;
+	}
+
+	/**
+	 * @param jobInfo the job summary to copy
+	 * @param timeZone the time zone for the dates
+	 */
+	public JobInfo(JobInfo jobInfo, TimeZone timeZone) {
+		this(jobInfo.name, jobInfo.executionCount, jobInfo.jobInstanceId, jobInfo.launchable, jobInfo.incrementable);
+		this.lastExecutionStatus = jobInfo.lastExecutionStatus;
+		this.lastExecutionStartTime = jobInfo.lastExecutionStartTime;
+		if (timeZone != null) {
+			this.timeZone = timeZone;
+		}
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -69,6 +101,28 @@ public class JobInfo {
 	public boolean isIncrementable() {
 		return incrementable;
 	}
+
+	public BatchStatus getLastExecutionStatus() {
+		return lastExecutionStatus;
+	}
+
+	public LocalDateTime getLastExecutionStartTime() {
+		return lastExecutionStartTime;
+	}
+
+	public TimeZone getTimeZone() {
+		return timeZone;
+	}
+
+	/**
+	 * @return the start time of the last execution as stored, formatted like
+	 * the start of a {@link JobExecutionInfo}, or an empty string if there is
+	 * none
+	 */
+	public String getLastExecutionStart() {
+		return lastExecutionStartTime == null ? ""
+				: DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").format(lastExecutionStartTime);
+	}
 	
 	@Override
 	public String toString() {
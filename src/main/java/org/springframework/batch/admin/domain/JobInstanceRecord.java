@@ -0,0 +1,26 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * A flat projection of one job instance with the number of its executions
+ * and the id and status of the latest one (null if it has none).
+ */
+public record JobInstanceRecord(long id, String jobName, int executionCount, Long lastExecutionId,
+		BatchStatus lastExecutionStatus) {
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.StepExecution;
+
+/**
+ * Aggregates over the partitions of one partitioned step in one job
+ * execution, for spotting skew between partitions without loading them all.
+ * Durations are in milliseconds and only cover finished partitions.
+ */
+public class PartitionRollup {
+
+	private final String stepName;
+
+	private final int partitionCount;
+
+	private final int finishedCount;
+
+	private final long readCount;
+
+	private final long writeCount;
+
+	private final long skipCount;
+
+	private final long minDuration;
+
+	private final long maxDuration;
+
+	private final double meanDuration;
+
+	private final long p95Duration;
+
+	private final Map<BatchStatus, Integer> statusCounts;
+
+	private final List<StepExecution> slowest;
+
+	/**
+	 * @param stepName the name of the partitioned (manager) step
+	 * @param partitionCount the number of partitions
+	 * @param finishedCount the number of partitions that have finished
+	 * @param readCount the total read count
+	 * @param writeCount the total write count
+	 * @param skipCount the total read, process and write skip count
+	 * @param minDuration the shortest duration
+	 * @param maxDuration the longest duration
+	 * @param meanDuration the mean duration
+	 * @param p95Duration the 95th percentile duration (nearest rank)
+	 * @param statusCounts the number of partitions in each status
+	 * @param slowest the slowest partitions, slowest first
+	 */
+	public PartitionRollup(String stepName, int partitionCount, int finishedCount, long readCount, long writeCount,
+			long skipCount, long minDuration, long maxDuration, double meanDuration, long p95Duration,
+			Map<BatchStatus, Integer> statusCounts, List<StepExecution> slowest) {
+		this.stepName = stepName;
+		this.partitionCount = partitionCount;
+		this.finishedCount = finishedCount;
+		this.readCount = readCount;
+		this.writeCount = writeCount;
+		this.skipCount = skipCount;
+		this.minDuration = minDuration;
+		this.maxDuration = maxDuration;
+		this.meanDuration = meanDuration;
+		this.p95Duration = p95Duration;
+		this.statusCounts = Collections.unmodifiableMap(statusCounts);
+		this.slowest = Collections.unmodifiableList(slowest);
+	}
+
+	public String getStepName() {
+		return stepName;
+	}
+
+	public int getPartitionCount() {
+		return partitionCount;
+	}
+
+	public int getFinishedCount() {
+		return finishedCount;
+	}
+
+	public long getReadCount() {
+		return readCount;
+	}
+
+	public long getWriteCount() {
+		return writeCount;
+	}
+
+	public long getSkipCount() {
+		return skipCount;
+	}
+
+	public double getMeanReadCount() {
+		return partitionCount == 0 ? 0 : (double) readCount / partitionCount;
+	}
+
+	public double getMeanWriteCount() {
+		return partitionCount == 0 ? 0 : (double) writeCount / partitionCount;
+	}
+
+	public double getMeanSkipCount() {
+		return partitionCount == 0 ? 0 : (double) skipCount / partitionCount;
+	}
+
+	public long getMinDuration() {
+		return minDuration;
+	}
+
+	public long getMaxDuration() {
+		return maxDuration;
+	}
+
+	public double getMeanDuration() {
+		return meanDuration;
+	}
+
+	public long getP95Duration() {
+		return p95Duration;
+	}
+
+	public Map<BatchStatus, Integer> getStatusCounts() {
+		return statusCounts;
+	}
+
+	public List<StepExecution> getSlowest() {
+		return slowest;
+	}
+
+	/**
+	 * @param count the number of partitions that finished
+	 * @return how many of the longest durations, in descending order, reach
+	 * down to the 95th percentile by the nearest rank method
+	 */
+	public static int getP95Rank(int count) {
+		return count == 0 ? 0 : count - (int) Math.ceil(0.95 * count) + 1;
+	}
+
+	@Override
+	public String toString() {
+		return "PartitionRollup: stepName=" + stepName + ", partitions=" + partitionCount + ", finished="
+				+ finishedCount + ", reads=" + readCount + ", writes=" + writeCount + ", skips=" + skipCount
+				+ ", duration=[min=" + minDuration + ", max=" + maxDuration + ", mean=" + meanDuration + ", p95="
+				+ p95Duration + "], statuses=" + statusCounts;
+	}
+
+}
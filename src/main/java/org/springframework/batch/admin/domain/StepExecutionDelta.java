@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+/**
+ * A step execution that has changed, with how much each of its counters has
+ * moved since the previous change (or since it started, the first time).
+ */
+public record StepExecutionDelta(StepExecutionRecord stepExecution, long readCount, long writeCount,
+		long filterCount, long commitCount, long rollbackCount, long skipCount) {
+
+	/**
+	 * @param previous the step execution as it was before (or null)
+	 * @param current the step execution as it is now
+	 * @return the difference
+	 */
+	public static StepExecutionDelta of(StepExecutionRecord previous, StepExecutionRecord current) {
+		if (previous == null) {
+			return new StepExecutionDelta(current, current.readCount(), current.writeCount(), current.filterCount(),
+					current.commitCount(), current.rollbackCount(), skipCount(current));
+		}
+		return new StepExecutionDelta(current, current.readCount() - previous.readCount(),
+				current.writeCount() - previous.writeCount(), current.filterCount() - previous.filterCount(),
+				current.commitCount() - previous.commitCount(), current.rollbackCount() - previous.rollbackCount(),
+				skipCount(current) - skipCount(previous));
+	}
+
+	private static long skipCount(StepExecutionRecord record) {
+		return record.readSkipCount() + record.processSkipCount() + record.writeSkipCount();
+	}
+
+}
@@ -41,6 +41,42 @@ public class StepExecutionHistory {
 		this.stepName = stepName;
 	}
 
+	/**
+	 * Create a history from aggregates computed elsewhere (e.g. in a single
+	 * query), equivalent to appending every finished step execution.
+	 * 
+	 * @param stepName the step name
+	 * @param count the number of finished step executions
+	 * @param commitCount history of the commit counts
+	 * @param rollbackCount history of the rollback counts
+	 * @param readCount history of the read counts
+	 * @param writeCount history of the write counts
+	 * @param filterCount history of the filter counts
+	 * @param readSkipCount history of the read skip counts
+	 * @param writeSkipCount history of the write skip counts
+	 * @param processSkipCount history of the process skip counts
+	 * @param duration history of the durations in milliseconds
+	 * @param durationPerRead history of the durations per item read (only
+	 * executions that read something)
+	 */
+	public StepExecutionHistory(String stepName, int count, CumulativeHistory commitCount,
+			CumulativeHistory rollbackCount, CumulativeHistory readCount, CumulativeHistory writeCount,
+			CumulativeHistory filterCount, CumulativeHistory readSkipCount, CumulativeHistory writeSkipCount,
+			CumulativeHistory processSkipCount, CumulativeHistory duration, CumulativeHistory durationPerRead) {
+		this.stepName = stepName;
+		this.count = count;
+		this.commitCount = commitCount;
+		this.rollbackCount = rollbackCount;
+		this.readCount = readCount;
+		this.writeCount = writeCount;
+		this.filterCount = filterCount;
+		this.readSkipCount = readSkipCount;
+		this.writeSkipCount = writeSkipCount;
+		this.processSkipCount = processSkipCount;
+		this.duration = duration;
+		this.durationPerRead = durationPerRead;
+	}
+
 	public void append(StepExecution stepExecution) {
 		if (stepExecution.getEndTime()==null) {
 			// ignore unfinished executions
@@ -64,6 +100,22 @@ public class StepExecutionHistory {
 		processSkipCount.append(stepExecution.getProcessSkipCount());
 	}
 
+	/**
+	 * Combine with another history, e.g. a snapshot with the executions since
+	 * it was taken. Neither history is changed.
+	 * 
+	 * @param other the history to combine with
+	 * @return a new history with the step name of this one
+	 */
+	public StepExecutionHistory combine(StepExecutionHistory other) {
+		return new StepExecutionHistory(stepName, count + other.count, commitCount.combine(other.commitCount),
+				rollbackCount.combine(other.rollbackCount), readCount.combine(other.readCount),
+				writeCount.combine(other.writeCount), filterCount.combine(other.filterCount),
+				readSkipCount.combine(other.readSkipCount), writeSkipCount.combine(other.writeSkipCount),
+				processSkipCount.combine(other.processSkipCount), duration.combine(other.duration),
+				durationPerRead.combine(other.durationPerRead));
+	}
+
 	public String getStepName() {
 		return stepName;
 	}
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import java.time.LocalDateTime;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * A flat projection of one step execution row, mapped straight from the job
+ * repository without the parent job execution or the context.
+ */
+public record StepExecutionRecord(long id, long jobExecutionId, String stepName, BatchStatus status,
+		String exitCode, long readCount, long writeCount, long filterCount, long commitCount, long rollbackCount,
+		long readSkipCount, long processSkipCount, long writeSkipCount, LocalDateTime startTime,
+		LocalDateTime endTime, LocalDateTime lastUpdated, int version) {
+}
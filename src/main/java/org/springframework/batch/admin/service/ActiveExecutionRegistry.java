@@ -0,0 +1,249 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionListener;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.JobParametersValidator;
+
+/**
+ * The job executions launched from this process that are still running, keyed
+ * by id. An execution is {@link #register(JobExecution) registered} as soon as
+ * the launcher returns it, so that launches still waiting for a thread of the
+ * task executor are tracked (and stopped on shutdown) too. Jobs launched
+ * through {@link #track(Job)} remove themselves when they finish, through the
+ * {@link JobExecutionListener} callbacks, so the registry is normally up to
+ * date without any polling. {@link #reconcile(Collection)} is a fallback for
+ * executions that finished without the callback (e.g. stopped from another
+ * process). Each execution also has a completion future, so a shutdown can
+ * {@link #awaitTermination(long) wait} for exactly as long as the executions
+ * take to finish.
+ */
+public class ActiveExecutionRegistry implements JobExecutionListener {
+
+	private final Map<Long, ActiveExecution> executions = new ConcurrentHashMap<Long, ActiveExecution>();
+
+	/**
+	 * Wrap a job so that its executions are registered here while they run.
+	 * The job itself is not modified.
+	 * 
+	 * @param job the job to launch
+	 * @return a job that delegates to the one given
+	 */
+	public Job track(Job job) {
+		return new TrackedJob(job, this);
+	}
+
+	/**
+	 * Register an execution returned by the launcher, which may still be
+	 * waiting for a thread. Nothing is registered if it has already finished
+	 * (a synchronous launcher returns it then).
+	 * 
+	 * @param jobExecution the launched execution
+	 */
+	public void register(JobExecution jobExecution) {
+		if (jobExecution.getId() == null || jobExecution.getEndTime() != null) {
+			return;
+		}
+		executions.putIfAbsent(jobExecution.getId(), new ActiveExecution(jobExecution));
+		if (jobExecution.getEndTime() != null) {
+			// finished (and its afterJob ran) while it was being registered
+			remove(jobExecution.getId());
+		}
+	}
+
+	/**
+	 * Register an execution as running, unless it was registered when it was
+	 * launched.
+	 * 
+	 * @see JobExecutionListener#beforeJob(JobExecution)
+	 */
+	@Override
+	public void beforeJob(JobExecution jobExecution) {
+		if (jobExecution.getId() != null) {
+			executions.putIfAbsent(jobExecution.getId(), new ActiveExecution(jobExecution));
+		}
+	}
+
+	/**
+	 * Remove an execution because it has finished.
+	 * 
+	 * @see JobExecutionListener#afterJob(JobExecution)
+	 */
+	@Override
+	public void afterJob(JobExecution jobExecution) {
+		if (jobExecution.getId() != null) {
+			remove(jobExecution.getId());
+		}
+	}
+
+	/**
+	 * Remove the executions that have finished according to the repository,
+	 * i.e. that are not among the unfinished ones given (usually read in one
+	 * query). An execution only counts as finished once it has an end time
+	 * (or has been deleted): one that was stopped, from here or from another
+	 * process, is STOPPED before its thread is done with the current chunk,
+	 * and is still registered until then.
+	 * 
+	 * @param unfinished the ids of the registered executions that still exist
+	 * and have no end time
+	 * @return the number of executions removed
+	 */
+	public int reconcile(Collection<Long> unfinished) {
+		int removed = 0;
+		for (Long id : getIds()) {
+			if (!unfinished.contains(id) && remove(id)) {
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Wait for all the registered executions to finish, up to a deadline.
+	 * Returns as soon as the last one finishes (executions registered while
+	 * waiting are not waited for).
+	 * 
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return the executions still running at the deadline (empty if they all
+	 * finished)
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public Collection<JobExecution> awaitTermination(long timeout) throws InterruptedException {
+		CompletableFuture<?>[] completions = executions.values().stream().map(execution -> execution.completion)
+				.toArray(CompletableFuture[]::new);
+		try {
+			CompletableFuture.allOf(completions).get(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			// report the ones left below
+		}
+		catch (ExecutionException e) {
+			// cannot happen: the futures are only ever completed normally
+		}
+		return getExecutions();
+	}
+
+	/**
+	 * @return the ids of the registered executions (a copy)
+	 */
+	public Set<Long> getIds() {
+		return Set.copyOf(executions.keySet());
+	}
+
+	/**
+	 * @return the registered executions (a copy)
+	 */
+	public Collection<JobExecution> getExecutions() {
+		List<JobExecution> result = new ArrayList<JobExecution>();
+		for (ActiveExecution execution : executions.values()) {
+			result.add(execution.jobExecution);
+		}
+		return result;
+	}
+
+	public int size() {
+		return executions.size();
+	}
+
+	public boolean isEmpty() {
+		return executions.isEmpty();
+	}
+
+	private boolean remove(Long id) {
+		ActiveExecution execution = executions.remove(id);
+		if (execution == null) {
+			return false;
+		}
+		execution.completion.complete(execution.jobExecution);
+		return true;
+	}
+
+	private static class ActiveExecution {
+
+		private final JobExecution jobExecution;
+
+		private final CompletableFuture<JobExecution> completion = new CompletableFuture<JobExecution>();
+
+		public ActiveExecution(JobExecution jobExecution) {
+			this.jobExecution = jobExecution;
+		}
+
+	}
+
+	private static class TrackedJob implements Job {
+
+		private final Job delegate;
+
+		private final JobExecutionListener listener;
+
+		public TrackedJob(Job delegate, JobExecutionListener listener) {
+			this.delegate = delegate;
+			this.listener = listener;
+		}
+
+		@Override
+		public String getName() {
+			return delegate.getName();
+		}
+
+		@Override
+		public boolean isRestartable() {
+			return delegate.isRestartable();
+		}
+
+		@Override
+		public void execute(JobExecution execution) {
+			listener.beforeJob(execution);
+			try {
+				delegate.execute(execution);
+			}
+			finally {
+				listener.afterJob(execution);
+			}
+		}
+
+		@Override
+		public JobParametersIncrementer getJobParametersIncrementer() {
+			return delegate.getJobParametersIncrementer();
+		}
+
+		@Override
+		public JobParametersValidator getJobParametersValidator() {
+			return delegate.getJobParametersValidator();
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+	}
+
+}
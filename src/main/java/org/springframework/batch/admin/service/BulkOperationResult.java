@@ -0,0 +1,121 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The outcome for each job execution of a bulk stop, abandon or restart.
+ */
+public class BulkOperationResult {
+
+	/**
+	 * What happened to one job execution.
+	 */
+	public enum Outcome {
+
+		/** The status was changed (or the request passed on to a JSR-352 operator). */
+		UPDATED,
+
+		/** A new execution was launched. */
+		RESTARTED,
+
+		/** The id given does not exist. */
+		NOT_FOUND,
+
+		/** The execution is not in a state the operation applies to. */
+		NOT_ELIGIBLE,
+
+		/** The execution was changed by someone else since it was read. */
+		CONFLICT,
+
+		/** The launch queue refused the restart. */
+		REJECTED,
+
+		/** The operation failed (see the message). */
+		FAILED
+
+	}
+
+	private final Map<Long, Outcome> outcomes = new LinkedHashMap<Long, Outcome>();
+
+	private final Map<Long, String> messages = new LinkedHashMap<Long, String>();
+
+	private final Map<Long, Long> restartedAs = new LinkedHashMap<Long, Long>();
+
+	void add(Long jobExecutionId, Outcome outcome) {
+		outcomes.put(jobExecutionId, outcome);
+	}
+
+	void add(Long jobExecutionId, Outcome outcome, String message) {
+		outcomes.put(jobExecutionId, outcome);
+		messages.put(jobExecutionId, message);
+	}
+
+	void restarted(Long jobExecutionId, Long newJobExecutionId) {
+		outcomes.put(jobExecutionId, Outcome.RESTARTED);
+		restartedAs.put(jobExecutionId, newJobExecutionId);
+	}
+
+	/**
+	 * @return the outcome for each job execution, by id
+	 */
+	public Map<Long, Outcome> getOutcomes() {
+		return outcomes;
+	}
+
+	/**
+	 * @return the reason for each outcome that needs one, by id
+	 */
+	public Map<Long, String> getMessages() {
+		return messages;
+	}
+
+	/**
+	 * @return the id of the new execution for each one restarted, by the id of
+	 * the old one
+	 */
+	public Map<Long, Long> getRestartedAs() {
+		return restartedAs;
+	}
+
+	/**
+	 * @return the number of job executions with each outcome
+	 */
+	public Map<Outcome, Integer> getCounts() {
+		Map<Outcome, Integer> counts = new EnumMap<Outcome, Integer>(Outcome.class);
+		for (Outcome outcome : outcomes.values()) {
+			counts.merge(outcome, 1, Integer::sum);
+		}
+		return counts;
+	}
+
+	/**
+	 * @param outcome an outcome
+	 * @return the number of job executions with that outcome
+	 */
+	public int getCount(Outcome outcome) {
+		return getCounts().getOrDefault(outcome, 0);
+	}
+
+	@Override
+	public String toString() {
+		return "BulkOperationResult: counts=" + getCounts() + ", outcomes=" + outcomes;
+	}
+
+}
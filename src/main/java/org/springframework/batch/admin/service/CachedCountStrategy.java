@@ -0,0 +1,108 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * {@link CountStrategy} that runs the exact count and then re-uses the result
+ * for a fixed time, so the count is at most one query per time to live however
+ * often the pages are viewed. Counts may lag behind the table by up to the time
+ * to live. The keys come from requests (job and step names), so expired counts
+ * are swept out once per time to live and at most a maximum number of counts
+ * are kept: beyond that new keys are counted without being cached.
+ */
+public class CachedCountStrategy implements CountStrategy {
+
+	private final Map<String, CachedCount> counts = new ConcurrentHashMap<String, CachedCount>();
+
+	private final long timeToLive;
+
+	private volatile int maxSize = 1000;
+
+	private volatile long nextSweep;
+
+	/**
+	 * @param timeToLive how long to keep a count, in milliseconds
+	 */
+	public CachedCountStrategy(long timeToLive) {
+		this.timeToLive = timeToLive;
+		this.nextSweep = System.currentTimeMillis() + timeToLive;
+	}
+
+	/**
+	 * @param maxSize the maximum number of counts to keep (default 1000)
+	 */
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	@Override
+	public int count(String key, IntSupplier exact, IntSupplier estimate) {
+		long now = System.currentTimeMillis();
+		if (now >= nextSweep) {
+			nextSweep = now + timeToLive;
+			counts.values().removeIf(cached -> cached.expires < now);
+		}
+		CachedCount cached = counts.get(key);
+		if (cached == null || cached.expires < now) {
+			cached = new CachedCount(load(exact, estimate), now + timeToLive);
+			if (counts.containsKey(key) || counts.size() < maxSize) {
+				counts.put(key, cached);
+			}
+		}
+		return cached.value;
+	}
+
+	/**
+	 * @return the number of counts kept
+	 */
+	public int getSize() {
+		return counts.size();
+	}
+
+	/**
+	 * Compute a value to cache.
+	 * 
+	 * @param exact a callback that runs the exact count
+	 * @param estimate a callback that runs an estimate, or null
+	 * @return the value to cache
+	 */
+	protected int load(IntSupplier exact, IntSupplier estimate) {
+		return exact.getAsInt();
+	}
+
+	@Override
+	public boolean isExact() {
+		return false;
+	}
+
+	private static class CachedCount {
+
+		private final int value;
+
+		private final long expires;
+
+		public CachedCount(int value, long expires) {
+			this.value = value;
+			this.expires = expires;
+		}
+
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * The position in the change feed: the update time and id of the last job
+ * execution and of the last step execution seen. Clients only see it encoded,
+ * as an opaque string.
+ */
+final class ChangeCursor {
+
+	static final ChangeCursor START = new ChangeCursor(null, null, null, null);
+
+	final LocalDateTime jobLastUpdated;
+
+	final Long jobExecutionId;
+
+	final LocalDateTime stepLastUpdated;
+
+	final Long stepExecutionId;
+
+	ChangeCursor(LocalDateTime jobLastUpdated, Long jobExecutionId, LocalDateTime stepLastUpdated,
+			Long stepExecutionId) {
+		this.jobLastUpdated = jobLastUpdated;
+		this.jobExecutionId = jobExecutionId;
+		this.stepLastUpdated = stepLastUpdated;
+		this.stepExecutionId = stepExecutionId;
+	}
+
+	/**
+	 * @param cursor an encoded cursor, or null (or empty) for the start
+	 * @return the cursor
+	 * @throws IllegalArgumentException if the cursor was not produced by
+	 * {@link #encode()}
+	 */
+	static ChangeCursor decode(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return START;
+		}
+		try {
+			String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", -1);
+			if (parts.length != 4) {
+				throw new IllegalArgumentException("Invalid change cursor: " + cursor);
+			}
+			return new ChangeCursor(parts[0].isEmpty() ? null : LocalDateTime.parse(parts[0]),
+					parts[1].isEmpty() ? null : Long.valueOf(parts[1]),
+					parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]),
+					parts[3].isEmpty() ? null : Long.valueOf(parts[3]));
+		}
+		catch (DateTimeParseException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid change cursor: " + cursor, e);
+		}
+	}
+
+	String encode() {
+		String value = (jobLastUpdated == null ? "" : jobLastUpdated.toString()) + ","
+				+ (jobExecutionId == null ? "" : jobExecutionId) + ","
+				+ (stepLastUpdated == null ? "" : stepLastUpdated.toString()) + ","
+				+ (stepExecutionId == null ? "" : stepExecutionId);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A page of results from a keyset (seek) query, together with the token that
+ * has to be passed back to fetch the page that follows it. The token is the
+ * primary key of the last item on the page, so fetching the next page costs
+ * the same however deep into the result set it is.
+ *
+ * @param <T> the type of the items on the page
+ */
+public class ContinuationPage<T> {
+
+	private final List<T> items;
+
+	private final Long continuationToken;
+
+	public ContinuationPage(List<T> items, Long continuationToken) {
+		this.items = items == null ? Collections.<T> emptyList() : items;
+		this.continuationToken = continuationToken;
+	}
+
+	/**
+	 * Create a page from the result of a query that asked for one more item than
+	 * the page size. If the extra item is present it is dropped and the key of
+	 * the last item kept becomes the continuation token.
+	 *
+	 * @param results the items returned by the query (up to count + 1)
+	 * @param count the page size
+	 * @param key a function extracting the sort key from an item
+	 * @return a page of at most count items
+	 */
+	public static <T> ContinuationPage<T> of(List<T> results, int count, Function<T, Long> key) {
+		if (results.size() <= count) {
+			return new ContinuationPage<T>(results, null);
+		}
+		List<T> items = results.subList(0, count);
+		return new ContinuationPage<T>(items, items.isEmpty() ? null : key.apply(items.get(items.size() - 1)));
+	}
+
+	/**
+	 * @return the items on this page
+	 */
+	public List<T> getItems() {
+		return items;
+	}
+
+	/**
+	 * @return the token to pass back to fetch the next page, or null if this is
+	 * the last page
+	 */
+	public Long getContinuationToken() {
+		return continuationToken;
+	}
+
+	/**
+	 * @return true if there is another page after this one
+	 */
+	public boolean hasNext() {
+		return continuationToken != null;
+	}
+
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Strategy for answering the count queries that drive pagination. On large
+ * meta data tables an exact <code>COUNT</code> per page view can be the most
+ * expensive query on the page, so implementations may cache counts, estimate
+ * them, or not compute them at all.
+ * 
+ * @see ExactCountStrategy
+ * @see CachedCountStrategy
+ * @see EstimatedCountStrategy
+ * @see UnknownCountStrategy
+ */
+public interface CountStrategy {
+
+	/**
+	 * Value returned when the count is not known.
+	 */
+	int UNKNOWN = -1;
+
+	/**
+	 * @param key a key identifying the count (the query and its arguments)
+	 * @param exact a callback that runs the exact count
+	 * @param estimate a callback that runs a cheap estimate, or null if there is
+	 * none for this count
+	 * @return the count, an estimate of it, or {@link #UNKNOWN}
+	 */
+	int count(String key, IntSupplier exact, IntSupplier estimate);
+
+	/**
+	 * @return true if the counts returned are always exact
+	 */
+	boolean isExact();
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.function.IntSupplier;
+
+/**
+ * {@link CountStrategy} that uses a cheap estimate where the DAO has one (e.g.
+ * the spread between the lowest and highest primary key, which only needs the
+ * ends of the index), and otherwise falls back to an exact count cached like
+ * in {@link CachedCountStrategy}.
+ */
+public class EstimatedCountStrategy extends CachedCountStrategy {
+
+	/**
+	 * @param timeToLive how long to keep a count, in milliseconds
+	 */
+	public EstimatedCountStrategy(long timeToLive) {
+		super(timeToLive);
+	}
+
+	@Override
+	protected int load(IntSupplier exact, IntSupplier estimate) {
+		return estimate == null ? exact.getAsInt() : estimate.getAsInt();
+	}
+
+}
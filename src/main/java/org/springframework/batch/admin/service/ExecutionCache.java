@@ -0,0 +1,221 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * A least recently used cache of executions keyed by id, bounded both by the
+ * number of entries and by their total weight (e.g. the number of step
+ * executions and context entries they hold). It is meant for finished
+ * executions, which do not change any more, so callers should only
+ * {@link #put(Long, Object) put} those and {@link #evict(Long) evict} an entry
+ * when they change it (e.g. when it is abandoned), along with any entries
+ * that hold a copy of it. Executions are mutable, so
+ * the cache keeps its own copy of each one and hands out a new copy on every
+ * hit: no caller can change what another one sees.
+ * 
+ * @param <T> the type of execution cached
+ */
+public class ExecutionCache<T> {
+
+	private final Map<Long, Entry<T>> entries = new LinkedHashMap<Long, Entry<T>>(16, 0.75f, true);
+
+	private final int maxSize;
+
+	private final long maxWeight;
+
+	private final ToIntFunction<T> weigher;
+
+	private final UnaryOperator<T> copier;
+
+	private long weight;
+
+	private long hitCount;
+
+	private long missCount;
+
+	private long evictionCount;
+
+	/**
+	 * @param maxSize the maximum number of entries (0 disables the cache)
+	 * @param maxWeight the maximum total weight of the entries
+	 * @param weigher a function giving the weight of an entry (at least 1)
+	 * @param copier a function giving an independent copy of an entry
+	 */
+	public ExecutionCache(int maxSize, long maxWeight, ToIntFunction<T> weigher, UnaryOperator<T> copier) {
+		this.maxSize = maxSize;
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		this.copier = copier;
+	}
+
+	/**
+	 * @param status the status of an execution
+	 * @param ended true if the execution has an end time
+	 * @return true if an execution in that state will not change any more
+	 * (apart from being abandoned)
+	 */
+	public static boolean isFinished(BatchStatus status, boolean ended) {
+		return ended && status != null && status != BatchStatus.UNKNOWN && !status.isRunning();
+	}
+
+	/**
+	 * @param id an execution id
+	 * @return a copy of the cached execution, or null if there is none
+	 */
+	public T get(Long id) {
+		T value;
+		synchronized (this) {
+			Entry<T> entry = entries.get(id);
+			if (entry == null) {
+				missCount++;
+				return null;
+			}
+			hitCount++;
+			value = entry.value;
+		}
+		// the cached copy is never changed, so it can be copied outside the lock
+		return copier.apply(value);
+	}
+
+	/**
+	 * Add a copy of an execution, evicting the least recently used ones if the
+	 * cache is full. An execution heavier than the whole cache is not added.
+	 * 
+	 * @param id the execution id
+	 * @param value the execution (the caller may go on using it)
+	 */
+	public void put(Long id, T value) {
+		int valueWeight = Math.max(1, weigher.applyAsInt(value));
+		if (maxSize <= 0 || valueWeight > maxWeight) {
+			return;
+		}
+		T copy = copier.apply(value);
+		synchronized (this) {
+			Entry<T> previous = entries.put(id, new Entry<T>(copy, valueWeight));
+			if (previous != null) {
+				weight -= previous.weight;
+			}
+			weight += valueWeight;
+			for (Iterator<Entry<T>> iterator = entries.values().iterator(); iterator.hasNext()
+					&& (entries.size() > maxSize || weight > maxWeight);) {
+				weight -= iterator.next().weight;
+				iterator.remove();
+				evictionCount++;
+			}
+		}
+	}
+
+	/**
+	 * Remove an execution (because it has changed or is about to).
+	 * 
+	 * @param id the execution id
+	 */
+	public synchronized void evict(Long id) {
+		Entry<T> entry = entries.remove(id);
+		if (entry != null) {
+			weight -= entry.weight;
+		}
+	}
+
+	/**
+	 * Remove the executions that match a condition, e.g. the step executions
+	 * of a job execution that has changed (they hold a copy of it).
+	 * 
+	 * @param condition the condition on a cached execution
+	 * @return the number of executions removed
+	 */
+	public synchronized int evictIf(Predicate<T> condition) {
+		int removed = 0;
+		for (Iterator<Entry<T>> iterator = entries.values().iterator(); iterator.hasNext();) {
+			Entry<T> entry = iterator.next();
+			if (condition.test(entry.value)) {
+				weight -= entry.weight;
+				iterator.remove();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	public synchronized long getHitCount() {
+		return hitCount;
+	}
+
+	public synchronized long getMissCount() {
+		return missCount;
+	}
+
+	/**
+	 * @return the number of entries removed to make room (not counting
+	 * {@link #evict(Long) explicit evictions})
+	 */
+	public synchronized long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the size, weight and counts of the cache, with their limits
+	 */
+	public synchronized Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new HashMap<String, Object>();
+		statistics.put("size", entries.size());
+		statistics.put("maxSize", maxSize);
+		statistics.put("weight", weight);
+		statistics.put("maxWeight", maxWeight);
+		statistics.put("hits", hitCount);
+		statistics.put("misses", missCount);
+		statistics.put("evictions", evictionCount);
+		return statistics;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "[size=%d, weight=%d, hits=%d, misses=%d, evictions=%d]".formatted(entries.size(), weight, hitCount,
+				missCount, evictionCount);
+	}
+
+	private static class Entry<T> {
+
+		private final T value;
+
+		private final int weight;
+
+		public Entry(T value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+
+	}
+
+}
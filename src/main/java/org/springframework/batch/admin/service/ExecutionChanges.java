@@ -0,0 +1,78 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.List;
+
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+
+/**
+ * A page of the change feed: the job and step executions updated since a
+ * cursor (oldest change first), and the cursor to pass back for the changes
+ * after them. Changes more recent than the service's safety lag are left for
+ * a later page (see {@link JobService#getExecutionChanges(String, int)}), so
+ * an empty page does not mean that nothing has happened in that time.
+ */
+public class ExecutionChanges {
+
+	private final List<JobExecutionRecord> jobExecutions;
+
+	private final List<StepExecutionRecord> stepExecutions;
+
+	private final String cursor;
+
+	private final boolean more;
+
+	public ExecutionChanges(List<JobExecutionRecord> jobExecutions, List<StepExecutionRecord> stepExecutions,
+			String cursor, boolean more) {
+		this.jobExecutions = jobExecutions;
+		this.stepExecutions = stepExecutions;
+		this.cursor = cursor;
+		this.more = more;
+	}
+
+	/**
+	 * @return the job executions updated since the cursor, in order of update
+	 */
+	public List<JobExecutionRecord> getJobExecutions() {
+		return jobExecutions;
+	}
+
+	/**
+	 * @return the step executions updated since the cursor, in order of update
+	 */
+	public List<StepExecutionRecord> getStepExecutions() {
+		return stepExecutions;
+	}
+
+	/**
+	 * @return the cursor for the changes after these (the same cursor if there
+	 * were none)
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	/**
+	 * @return true if there were more changes than fit on this page, so the
+	 * next one can be fetched straight away
+	 */
+	public boolean isMore() {
+		return more;
+	}
+
+}
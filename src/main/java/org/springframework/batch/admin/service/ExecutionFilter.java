@@ -0,0 +1,150 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+import org.springframework.batch.core.BatchStatus;
+
+/**
+ * Selects the job executions for a bulk operation. Every criterion that is set
+ * must match; one that is not set matches everything.
+ */
+public class ExecutionFilter {
+
+	private String jobName;
+
+	private Set<BatchStatus> statuses;
+
+	private LocalDateTime createdBefore;
+
+	private boolean unfinished;
+
+	private Collection<Long> jobExecutionIds;
+
+	private boolean latestOnly;
+
+	public ExecutionFilter() {
+	}
+
+	/**
+	 * @param other a filter to copy the criteria from
+	 */
+	public ExecutionFilter(ExecutionFilter other) {
+		this.jobName = other.jobName;
+		this.statuses = other.statuses;
+		this.createdBefore = other.createdBefore;
+		this.unfinished = other.unfinished;
+		this.jobExecutionIds = other.jobExecutionIds;
+		this.latestOnly = other.latestOnly;
+	}
+
+	/**
+	 * @return a filter for all the executions that have not ended
+	 */
+	public static ExecutionFilter unfinished() {
+		ExecutionFilter filter = new ExecutionFilter();
+		filter.setUnfinished(true);
+		return filter;
+	}
+
+	/**
+	 * @param jobExecutionIds the ids of the job executions
+	 * @return a filter for the executions with the ids given
+	 */
+	public static ExecutionFilter forIds(Collection<Long> jobExecutionIds) {
+		ExecutionFilter filter = new ExecutionFilter();
+		filter.setJobExecutionIds(jobExecutionIds);
+		return filter;
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	/**
+	 * @param jobName the name of the job
+	 */
+	public void setJobName(String jobName) {
+		this.jobName = jobName;
+	}
+
+	public Set<BatchStatus> getStatuses() {
+		return statuses;
+	}
+
+	/**
+	 * @param statuses the statuses to match
+	 */
+	public void setStatuses(Collection<BatchStatus> statuses) {
+		this.statuses = statuses == null || statuses.isEmpty() ? null : EnumSet.copyOf(statuses);
+	}
+
+	public LocalDateTime getCreatedBefore() {
+		return createdBefore;
+	}
+
+	/**
+	 * @param createdBefore only executions created before this time
+	 */
+	public void setCreatedBefore(LocalDateTime createdBefore) {
+		this.createdBefore = createdBefore;
+	}
+
+	public boolean isUnfinished() {
+		return unfinished;
+	}
+
+	/**
+	 * @param unfinished true for only the executions that have not ended
+	 */
+	public void setUnfinished(boolean unfinished) {
+		this.unfinished = unfinished;
+	}
+
+	public Collection<Long> getJobExecutionIds() {
+		return jobExecutionIds;
+	}
+
+	/**
+	 * @param jobExecutionIds the ids of the executions to match
+	 */
+	public void setJobExecutionIds(Collection<Long> jobExecutionIds) {
+		this.jobExecutionIds = jobExecutionIds == null ? null : new ArrayList<Long>(jobExecutionIds);
+	}
+
+	public boolean isLatestOnly() {
+		return latestOnly;
+	}
+
+	/**
+	 * @param latestOnly true for only the latest execution of each job instance
+	 */
+	public void setLatestOnly(boolean latestOnly) {
+		this.latestOnly = latestOnly;
+	}
+
+	@Override
+	public String toString() {
+		return "ExecutionFilter: jobName=" + jobName + ", statuses=" + statuses + ", createdBefore=" + createdBefore
+				+ ", unfinished=" + unfinished + ", jobExecutionIds=" + jobExecutionIds + ", latestOnly=" + latestOnly;
+	}
+
+}
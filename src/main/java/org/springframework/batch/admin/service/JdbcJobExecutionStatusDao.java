@@ -0,0 +1,64 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+
+/**
+ * JDBC implementation of {@link JobExecutionStatusDao}: one batch of updates
+ * guarded by the VERSION column, as the job repository does for a single
+ * execution.
+ */
+public class JdbcJobExecutionStatusDao extends AbstractJdbcBatchMetadataDao implements JobExecutionStatusDao {
+
+	private static final String UPDATE_JOB_EXECUTION_STATUS = "UPDATE %PREFIX%JOB_EXECUTION set STATUS = ?, "
+			+ "END_TIME = ?, LAST_UPDATED = ?, VERSION = ? where JOB_EXECUTION_ID = ? and VERSION = ?";
+
+	/**
+	 * A driver that does not report the row counts of a batch
+	 * ({@link Statement#SUCCESS_NO_INFO}) is trusted to have updated every row.
+	 * 
+	 * @see JobExecutionStatusDao#updateJobExecutionStatuses(List)
+	 */
+	@Override
+	public boolean[] updateJobExecutionStatuses(List<JobExecution> jobExecutions) {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> args = new ArrayList<Object[]>(jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			args.add(new Object[] { jobExecution.getStatus().name(),
+					jobExecution.getEndTime() == null ? null : Timestamp.valueOf(jobExecution.getEndTime()), now,
+					jobExecution.getVersion() + 1, jobExecution.getId(), jobExecution.getVersion() });
+		}
+		int[] counts = getJdbcTemplate().batchUpdate(getQuery(UPDATE_JOB_EXECUTION_STATUS), args);
+		boolean[] updated = new boolean[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			updated[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+			if (updated[i]) {
+				jobExecutions.get(i).incrementVersion();
+				jobExecutions.get(i).setLastUpdated(now.toLocalDateTime());
+			}
+		}
+		return updated;
+	}
+
+}
@@ -15,29 +15,50 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 import javax.sql.DataSource;
 
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.JobInfo;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameter;
 import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.converter.DateToStringConverter;
+import org.springframework.batch.core.converter.LocalDateTimeToStringConverter;
+import org.springframework.batch.core.converter.LocalDateToStringConverter;
+import org.springframework.batch.core.converter.LocalTimeToStringConverter;
+import org.springframework.batch.core.converter.StringToDateConverter;
+import org.springframework.batch.core.converter.StringToLocalDateConverter;
+import org.springframework.batch.core.converter.StringToLocalDateTimeConverter;
+import org.springframework.batch.core.converter.StringToLocalTimeConverter;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.PagingQueryProvider;
 import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.core.convert.support.ConfigurableConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
 import org.springframework.util.Assert;
@@ -54,6 +75,8 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	private static final String GET_COUNT_BY_JOB_NAME = "SELECT COUNT(1) from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
 			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and I.JOB_NAME=?";
 
+	private static final String GET_ESTIMATED_COUNT = "SELECT MAX(JOB_EXECUTION_ID) - MIN(JOB_EXECUTION_ID) + 1 from %PREFIX%JOB_EXECUTION";
+
 	private static final String FIELDS = "E.JOB_EXECUTION_ID, E.START_TIME, E.END_TIME, E.STATUS, E.EXIT_CODE, E.EXIT_MESSAGE, "
 			+ "E.CREATE_TIME, E.LAST_UPDATED, E.VERSION, I.JOB_INSTANCE_ID, I.JOB_NAME";
 
@@ -61,12 +84,81 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
 			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.END_TIME is NULL";
 
+	private static final String GET_EXECUTIONS_UPDATED = "SELECT " + FIELDS
+			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
+			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.LAST_UPDATED <= ? "
+			+ "ORDER BY E.LAST_UPDATED, E.JOB_EXECUTION_ID";
+
+	private static final String GET_EXECUTIONS_UPDATED_AFTER = "SELECT " + FIELDS
+			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
+			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.LAST_UPDATED between ? and ? "
+			+ "and (E.LAST_UPDATED > ? or E.JOB_EXECUTION_ID > ?) ORDER BY E.LAST_UPDATED, E.JOB_EXECUTION_ID";
+
+	private static final String GET_JOB_SUMMARIES = "SELECT G.JOB_NAME, G.EXECUTION_COUNT, L.STATUS, L.START_TIME from "
+			+ "(SELECT I.JOB_NAME, COUNT(E.JOB_EXECUTION_ID) AS EXECUTION_COUNT, MAX(E.JOB_EXECUTION_ID) AS LAST_ID "
+			+ "from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID "
+			+ "and I.JOB_NAME in (" + SqlUtils.IDS + ") group by I.JOB_NAME) G, %PREFIX%JOB_EXECUTION L "
+			+ "where L.JOB_EXECUTION_ID=G.LAST_ID";
+
+	private static final String FIND_JOB_EXECUTIONS_BY_INSTANCE_IDS = "SELECT " + FIELDS
+			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
+			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID and E.JOB_INSTANCE_ID in (" + SqlUtils.IDS + ")";
+
+	private static final String GET_STATUSES_FROM_IDS = "SELECT JOB_EXECUTION_ID, STATUS from %PREFIX%JOB_EXECUTION "
+			+ "where JOB_EXECUTION_ID in (" + SqlUtils.IDS + ")";
+
+	private static final String GET_UNFINISHED_FROM_IDS = "SELECT JOB_EXECUTION_ID from %PREFIX%JOB_EXECUTION "
+			+ "where END_TIME is NULL and JOB_EXECUTION_ID in (" + SqlUtils.IDS + ")";
+
+	private static final String FIND_JOB_EXECUTIONS = "SELECT " + FIELDS
+			+ " from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID";
+
+	private static final String FIND_JOB_EXECUTION_STATES = "SELECT E.JOB_EXECUTION_ID, E.END_TIME, E.STATUS, "
+			+ "E.VERSION, I.JOB_INSTANCE_ID, I.JOB_NAME from %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I "
+			+ "where E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID";
+
+	private static final String LATEST_OF_INSTANCE = " and E.JOB_EXECUTION_ID = (SELECT MAX(L.JOB_EXECUTION_ID) "
+			+ "from %PREFIX%JOB_EXECUTION L where L.JOB_INSTANCE_ID = E.JOB_INSTANCE_ID)";
+
+	private static final String GET_JOB_EXECUTION_RECORD = FIND_JOB_EXECUTIONS + " and E.JOB_EXECUTION_ID = ?";
+
+	private static final String GET_JOB_EXECUTION_RECORDS = FIND_JOB_EXECUTIONS + " and E.JOB_EXECUTION_ID in ("
+			+ SqlUtils.IDS + ")";
+
+	private static final String EXPORT_JOB_EXECUTIONS_FROM = " from %PREFIX%JOB_EXECUTION E join %PREFIX%JOB_INSTANCE I "
+			+ "on E.JOB_INSTANCE_ID=I.JOB_INSTANCE_ID";
+
+	private static final String EXPORT_JOB_PARAMETERS_JOIN = " left join %PREFIX%JOB_EXECUTION_PARAMS P "
+			+ "on P.JOB_EXECUTION_ID=E.JOB_EXECUTION_ID";
+
+	private static final String FIND_PARAMS_FROM_IDS = "SELECT JOB_EXECUTION_ID, PARAMETER_NAME, PARAMETER_TYPE, PARAMETER_VALUE, IDENTIFYING "
+			+ "from %PREFIX%JOB_EXECUTION_PARAMS where JOB_EXECUTION_ID in (%IDS%)";
+
 	private PagingQueryProvider allExecutionsPagingQueryProvider;
 
 	private PagingQueryProvider byJobNamePagingQueryProvider;
 
 	private DataSource dataSource;
 
+	private ConfigurableConversionService conversionService;
+
+	private CountStrategy countStrategy = new ExactCountStrategy();
+
+	private int exportFetchSize = 1000;
+
+	public JdbcSearchableJobExecutionDao() {
+		DefaultConversionService conversionService = new DefaultConversionService();
+		conversionService.addConverter(new DateToStringConverter());
+		conversionService.addConverter(new StringToDateConverter());
+		conversionService.addConverter(new LocalDateToStringConverter());
+		conversionService.addConverter(new StringToLocalDateConverter());
+		conversionService.addConverter(new LocalTimeToStringConverter());
+		conversionService.addConverter(new StringToLocalTimeConverter());
+		conversionService.addConverter(new LocalDateTimeToStringConverter());
+		conversionService.addConverter(new StringToLocalDateTimeConverter());
+		this.conversionService = conversionService;
+	}
+
 	/**
 	 * @param dataSource the dataSource to set
 	 */
@@ -74,6 +166,43 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * The strategy used to answer the count queries. Defaults to an
+	 * {@link ExactCountStrategy}.
+	 * 
+	 * @param countStrategy the count strategy to set
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * The number of rows fetched at a time when exporting. Defaults to 1000.
+	 * 
+	 * @param exportFetchSize the fetch size to set
+	 * @see #exportJobExecutionRecords(String, boolean, BiConsumer)
+	 */
+	public void setExportFetchSize(int exportFetchSize) {
+		this.exportFetchSize = exportFetchSize;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getCountStrategy()
+	 */
+	@Override
+	public CountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
+	/**
+	 * @see JdbcJobExecutionDao#setConversionService(ConfigurableConversionService)
+	 */
+	@Override
+	public void setConversionService(ConfigurableConversionService conversionService) {
+		super.setConversionService(conversionService);
+		this.conversionService = conversionService;
+	}
+
 	/**
 	 * @see JdbcJobExecutionDao#afterPropertiesSet()
 	 */
@@ -141,7 +270,13 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 */
 	@Override
 	public int countJobExecutions() {
-		return getJdbcTemplate().queryForObject(getQuery(GET_COUNT), Integer.class);
+		return countStrategy.count(GET_COUNT,
+				() -> getJdbcTemplate().queryForObject(getQuery(GET_COUNT), Integer.class),
+				() -> {
+					// ids can pass Integer.MAX_VALUE, so read a long and clamp it
+					Long estimate = getJdbcTemplate().queryForObject(getQuery(GET_ESTIMATED_COUNT), Long.class);
+					return estimate == null ? 0 : (int) Math.min(estimate, Integer.MAX_VALUE);
+				});
 	}
 
 	/**
@@ -149,7 +284,32 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 */
 	@Override
 	public int countJobExecutions(String jobName) {
-		return getJdbcTemplate().queryForObject(getQuery(GET_COUNT_BY_JOB_NAME), Integer.class, jobName);
+		return countStrategy.count(GET_COUNT_BY_JOB_NAME + ":" + jobName,
+				() -> getJdbcTemplate().queryForObject(getQuery(GET_COUNT_BY_JOB_NAME), Integer.class, jobName), null);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobSummaries(Collection)
+	 */
+	@Override
+	public Map<String, JobInfo> getJobSummaries(Collection<String> jobNames) {
+		final Map<String, JobInfo> summaries = new HashMap<String, JobInfo>();
+		List<String> names = new ArrayList<String>(jobNames);
+		for (int i = 0; i < names.size(); i += SqlUtils.MAX_IN_CLAUSE_SIZE) {
+			List<String> chunk = names.subList(i, Math.min(i + SqlUtils.MAX_IN_CLAUSE_SIZE, names.size()));
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_JOB_SUMMARIES), chunk.size()),
+					new RowCallbackHandler() {
+						@Override
+						public void processRow(ResultSet rs) throws SQLException {
+							Timestamp startTime = rs.getTimestamp(4);
+							summaries.put(rs.getString(1),
+									new JobInfo(rs.getString(1), rs.getInt(2), false, false,
+											BatchStatus.valueOf(rs.getString(3)),
+											startTime == null ? null : startTime.toLocalDateTime()));
+						}
+					}, chunk.toArray());
+		}
+		return summaries;
 	}
 
 	/**
@@ -157,7 +317,125 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 */
 	@Override
 	public Collection<JobExecution> getRunningJobExecutions() {
-		return getJdbcTemplate().query(getQuery(GET_RUNNING_EXECUTIONS), new JobExecutionRowMapper());
+		return queryForJobExecutions(getQuery(GET_RUNNING_EXECUTIONS));
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionRecordsUpdatedAfter(LocalDateTime,
+	 * Long, LocalDateTime, int)
+	 */
+	@Override
+	public List<JobExecutionRecord> getJobExecutionRecordsUpdatedAfter(LocalDateTime lastUpdated,
+			Long jobExecutionId, LocalDateTime updatedBefore, int count) {
+		String sql = getQuery(lastUpdated == null ? GET_EXECUTIONS_UPDATED : GET_EXECUTIONS_UPDATED_AFTER);
+		return getJdbcTemplate().query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setMaxRows(count);
+			if (lastUpdated == null) {
+				statement.setTimestamp(1, Timestamp.valueOf(updatedBefore));
+			}
+			else {
+				statement.setTimestamp(1, Timestamp.valueOf(lastUpdated));
+				statement.setTimestamp(2, Timestamp.valueOf(updatedBefore));
+				statement.setTimestamp(3, Timestamp.valueOf(lastUpdated));
+				statement.setLong(4, jobExecutionId);
+			}
+			return statement;
+		}, new JobExecutionRecordRowMapper());
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionStatuses(Collection)
+	 */
+	@Override
+	public Map<Long, BatchStatus> getJobExecutionStatuses(Collection<Long> jobExecutionIds) {
+		final Map<Long, BatchStatus> statuses = new HashMap<Long, BatchStatus>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_STATUSES_FROM_IDS), ids.size()),
+					(RowCallbackHandler) rs -> statuses.put(rs.getLong(1), BatchStatus.valueOf(rs.getString(2))),
+					ids.toArray());
+		}
+		return statuses;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getUnfinishedJobExecutionIds(Collection)
+	 */
+	@Override
+	public Set<Long> getUnfinishedJobExecutionIds(Collection<Long> jobExecutionIds) {
+		final Set<Long> unfinished = new HashSet<Long>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_UNFINISHED_FROM_IDS), ids.size()),
+					(RowCallbackHandler) rs -> unfinished.add(rs.getLong(1)), ids.toArray());
+		}
+		return unfinished;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#findJobExecutions(ExecutionFilter)
+	 */
+	@Override
+	public List<JobExecution> findJobExecutions(ExecutionFilter filter) {
+		StringBuilder sql = new StringBuilder(getQuery(FIND_JOB_EXECUTION_STATES));
+		List<Object> args = new ArrayList<Object>();
+		if (filter.getJobName() != null) {
+			sql.append(" and I.JOB_NAME = ?");
+			args.add(filter.getJobName());
+		}
+		if (filter.getStatuses() != null) {
+			sql.append(" and E.STATUS in (").append(SqlUtils.inClause(SqlUtils.IDS, filter.getStatuses().size()))
+					.append(")");
+			for (BatchStatus status : filter.getStatuses()) {
+				args.add(status.name());
+			}
+		}
+		if (filter.getCreatedBefore() != null) {
+			sql.append(" and E.CREATE_TIME < ?");
+			args.add(Timestamp.valueOf(filter.getCreatedBefore()));
+		}
+		if (filter.isUnfinished()) {
+			sql.append(" and E.END_TIME is NULL");
+		}
+		if (filter.isLatestOnly()) {
+			sql.append(getQuery(LATEST_OF_INSTANCE));
+		}
+		RowMapper<JobExecution> rowMapper = (rs, rowNum) -> {
+			JobExecution jobExecution = new JobExecution(new JobInstance(rs.getLong(5), rs.getString(6)),
+					new JobParameters());
+			jobExecution.setId(rs.getLong(1));
+			Timestamp endTime = rs.getTimestamp(2);
+			jobExecution.setEndTime(endTime == null ? null : endTime.toLocalDateTime());
+			jobExecution.setStatus(BatchStatus.valueOf(rs.getString(3)));
+			jobExecution.setVersion(rs.getInt(4));
+			return jobExecution;
+		};
+		if (filter.getJobExecutionIds() == null) {
+			return getJdbcTemplate().query(sql + " order by E.JOB_EXECUTION_ID", rowMapper, args.toArray());
+		}
+		sql.append(" and E.JOB_EXECUTION_ID in (").append(SqlUtils.IDS).append(")");
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		for (List<Long> ids : SqlUtils.partition(filter.getJobExecutionIds())) {
+			List<Object> chunkArgs = new ArrayList<Object>(args);
+			chunkArgs.addAll(ids);
+			jobExecutions.addAll(getJdbcTemplate().query(SqlUtils.inClause(sql.toString(), ids.size()), rowMapper,
+					chunkArgs.toArray()));
+		}
+		jobExecutions.sort(Comparator.comparing(JobExecution::getId));
+		return jobExecutions;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#findJobExecutions(Collection)
+	 */
+	@Override
+	public List<JobExecution> findJobExecutions(Collection<Long> jobInstanceIds) {
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		for (List<Long> ids : SqlUtils.partition(jobInstanceIds)) {
+			jobExecutions.addAll(queryForJobExecutions(
+					SqlUtils.inClause(getQuery(FIND_JOB_EXECUTIONS_BY_INSTANCE_IDS), ids.size()), ids.toArray()));
+		}
+		jobExecutions.sort(Comparator.comparing(JobExecution::getId).reversed());
+		return jobExecutions;
 	}
 
 	/**
@@ -166,19 +444,17 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	@Override
 	public List<JobExecution> getJobExecutions(String jobName, int start, int count) {
 		if (start <= 0) {
-			return getJdbcTemplate().query(byJobNamePagingQueryProvider.generateFirstPageQuery(count),
-					new JobExecutionRowMapper(), jobName);
+			return queryForJobExecutions(byJobNamePagingQueryProvider.generateFirstPageQuery(count), jobName);
 		}
 		try {
-			Long startAfterValue = getJdbcTemplate().query(byJobNamePagingQueryProvider.generateFirstPageQuery(start + count),
-							new JobExecutionRowMapper(), jobName)
+			Long startAfterValue = getJdbcTemplate().query(byJobNamePagingQueryProvider.generateFirstPageQuery(start),
+							new JobExecutionIdRowMapper(), jobName)
 					.stream()
 					.skip(Math.max(0, start - 1))
-					.map(entry -> entry.getJobId())
 					.findFirst().orElse(0L);
 
-			return getJdbcTemplate().query(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count),
-					new JobExecutionRowMapper(), jobName, startAfterValue);
+			return queryForJobExecutions(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count), jobName,
+					startAfterValue);
 		}
 		catch (IncorrectResultSizeDataAccessException e) {
 			return Collections.emptyList();
@@ -191,26 +467,191 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	@Override
 	public List<JobExecution> getJobExecutions(int start, int count) {
 		if (start <= 0) {
-			return getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateFirstPageQuery(count),
-					new JobExecutionRowMapper());
+			return queryForJobExecutions(allExecutionsPagingQueryProvider.generateFirstPageQuery(count));
 		}
 		try {
 //			Long startAfterValue = getJdbcTemplate().queryForObject(
 //					allExecutionsPagingQueryProvider.generateJumpToItemQuery(start, count), Long.class);
-			Long startAfterValue = getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateFirstPageQuery(start + count),
-					new JobExecutionRowMapper()).stream()
+			Long startAfterValue = getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateFirstPageQuery(start),
+					new JobExecutionIdRowMapper()).stream()
 					.skip(Math.max(0, start - 1))
-					.map(entry -> entry.getId())
 					.findFirst().orElse(0L);
-			return getJdbcTemplate().query(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
-					new JobExecutionRowMapper(), startAfterValue);
-					//.subList(start, start + count);
+			return queryForJobExecutions(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
+					startAfterValue);
 		}
 		catch (IncorrectResultSizeDataAccessException e) {
 			return Collections.emptyList();
 		}
 	}
 
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionsAfter(String, Long, int)
+	 */
+	@Override
+	public List<JobExecution> getJobExecutionsAfter(String jobName, Long afterJobExecutionId, int count) {
+		if (afterJobExecutionId == null) {
+			return queryForJobExecutions(byJobNamePagingQueryProvider.generateFirstPageQuery(count), jobName);
+		}
+		return queryForJobExecutions(byJobNamePagingQueryProvider.generateRemainingPagesQuery(count), jobName,
+				afterJobExecutionId);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionsAfter(Long, int)
+	 */
+	@Override
+	public List<JobExecution> getJobExecutionsAfter(Long afterJobExecutionId, int count) {
+		if (afterJobExecutionId == null) {
+			return queryForJobExecutions(allExecutionsPagingQueryProvider.generateFirstPageQuery(count));
+		}
+		return queryForJobExecutions(allExecutionsPagingQueryProvider.generateRemainingPagesQuery(count),
+				afterJobExecutionId);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionRecordsAfter(String, Long,
+	 * int)
+	 */
+	@Override
+	public List<JobExecutionRecord> getJobExecutionRecordsAfter(String jobName, Long afterJobExecutionId, int count) {
+		PagingQueryProvider provider = jobName == null ? allExecutionsPagingQueryProvider
+				: byJobNamePagingQueryProvider;
+		List<Object> args = new ArrayList<Object>();
+		if (jobName != null) {
+			args.add(jobName);
+		}
+		if (afterJobExecutionId != null) {
+			args.add(afterJobExecutionId);
+		}
+		String sql = afterJobExecutionId == null ? provider.generateFirstPageQuery(count)
+				: provider.generateRemainingPagesQuery(count);
+		return getJdbcTemplate().query(sql, new JobExecutionRecordRowMapper(), args.toArray());
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionRecord(Long)
+	 */
+	@Override
+	public JobExecutionRecord getJobExecutionRecord(Long jobExecutionId) {
+		List<JobExecutionRecord> records = getJdbcTemplate().query(getQuery(GET_JOB_EXECUTION_RECORD),
+				new JobExecutionRecordRowMapper(), jobExecutionId);
+		return records.isEmpty() ? null : records.get(0);
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#getJobExecutionRecords(Collection)
+	 */
+	@Override
+	public List<JobExecutionRecord> getJobExecutionRecords(Collection<Long> jobExecutionIds) {
+		List<JobExecutionRecord> records = new ArrayList<JobExecutionRecord>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			records.addAll(getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_JOB_EXECUTION_RECORDS), ids.size()),
+					new JobExecutionRecordRowMapper(), ids.toArray()));
+		}
+		return records;
+	}
+
+	/**
+	 * @see SearchableJobExecutionDao#exportJobExecutionRecords(String, boolean,
+	 * BiConsumer)
+	 */
+	@Override
+	public void exportJobExecutionRecords(String jobName, boolean withParameters,
+			BiConsumer<JobExecutionRecord, Map<String, String>> handler) {
+		String sql = "SELECT " + FIELDS + (withParameters ? ", P.PARAMETER_NAME, P.PARAMETER_VALUE" : "")
+				+ EXPORT_JOB_EXECUTIONS_FROM + (withParameters ? EXPORT_JOB_PARAMETERS_JOIN : "")
+				+ (jobName == null ? "" : " where I.JOB_NAME = ?") + " ORDER BY E.JOB_EXECUTION_ID";
+		Object[] args = jobName == null ? new Object[0] : new Object[] { jobName };
+		JobExecutionRecordRowMapper mapper = new JobExecutionRecordRowMapper();
+		if (!withParameters) {
+			SqlUtils.queryForward(getJdbcTemplate(), getQuery(sql), exportFetchSize,
+					rs -> handler.accept(mapper.mapRow(rs, 0), null), args);
+			return;
+		}
+		// One row per parameter, so collect the rows of each execution until
+		// the next one starts
+		ParameterGroupingHandler grouping = new ParameterGroupingHandler(mapper, handler);
+		SqlUtils.queryForward(getJdbcTemplate(), getQuery(sql), exportFetchSize, grouping, args);
+		grouping.flush();
+	}
+
+	/**
+	 * Run a query for job executions and attach their {@link JobParameters}.
+	 * The parameters for the whole result are loaded in one set-based query
+	 * (or a few for very large results) instead of one query per row.
+	 * 
+	 * @param sql the query, selecting {@link #FIELDS}
+	 * @param args the query arguments
+	 * @return the job executions with their parameters
+	 */
+	protected List<JobExecution> queryForJobExecutions(String sql, Object... args) {
+		List<JobExecution> jobExecutions = getJdbcTemplate().query(sql, new JobExecutionRowMapper(false), args);
+		if (jobExecutions.isEmpty()) {
+			return jobExecutions;
+		}
+		List<Long> ids = new ArrayList<Long>(jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			ids.add(jobExecution.getId());
+		}
+		Map<Long, Map<String, JobParameter<?>>> parameters = getJobParameters(ids);
+		List<JobExecution> result = new ArrayList<JobExecution>(jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			Map<String, JobParameter<?>> map = parameters.get(jobExecution.getId());
+			result.add(copyWithParameters(jobExecution,
+					map == null ? new JobParameters() : new JobParameters(map)));
+		}
+		return result;
+	}
+
+	/**
+	 * Load the job parameters for a collection of job executions.
+	 * 
+	 * @param jobExecutionIds the ids of the job executions
+	 * @return a map from job execution id to its parameters (executions without
+	 * parameters are absent)
+	 */
+	protected Map<Long, Map<String, JobParameter<?>>> getJobParameters(Collection<Long> jobExecutionIds) {
+		final Map<Long, Map<String, JobParameter<?>>> parameters = new HashMap<Long, Map<String, JobParameter<?>>>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			String sql = SqlUtils.inClause(getQuery(FIND_PARAMS_FROM_IDS), ids.size());
+			getJdbcTemplate().query(sql, new RowCallbackHandler() {
+				@Override
+				public void processRow(ResultSet rs) throws SQLException {
+					Long id = rs.getLong(1);
+					Class<?> type;
+					try {
+						type = Class.forName(rs.getString(3));
+					}
+					catch (ClassNotFoundException e) {
+						throw new IllegalStateException("Unknown job parameter type for job execution " + id, e);
+					}
+					Object value = conversionService.convert(rs.getString(4), type);
+					@SuppressWarnings({ "rawtypes", "unchecked" })
+					JobParameter<?> parameter = new JobParameter(value, type, "Y".equalsIgnoreCase(rs.getString(5)));
+					Map<String, JobParameter<?>> map = parameters.get(id);
+					if (map == null) {
+						map = new LinkedHashMap<String, JobParameter<?>>();
+						parameters.put(id, map);
+					}
+					map.put(rs.getString(2), parameter);
+				}
+			}, ids.toArray());
+		}
+		return parameters;
+	}
+
+	private static JobExecution copyWithParameters(JobExecution source, JobParameters jobParameters) {
+		JobExecution jobExecution = new JobExecution(source.getJobInstance(), source.getId(), jobParameters);
+		jobExecution.setStartTime(source.getStartTime());
+		jobExecution.setEndTime(source.getEndTime());
+		jobExecution.setStatus(source.getStatus());
+		jobExecution.setExitStatus(source.getExitStatus());
+		jobExecution.setCreateTime(source.getCreateTime());
+		jobExecution.setLastUpdated(source.getLastUpdated());
+		jobExecution.setVersion(source.getVersion());
+		return jobExecution;
+	}
+
 	@Override
 	public void saveJobExecution(JobExecution jobExecution) {
 		throw new UnsupportedOperationException("SearchableJobExecutionDao is read only");
@@ -234,7 +675,18 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 	 */
 	protected class JobExecutionRowMapper implements RowMapper<JobExecution> {
 
+		private final boolean loadJobParameters;
+
 		public JobExecutionRowMapper() {
+			this(true);
+		}
+
+		/**
+		 * @param loadJobParameters false to leave the parameters empty, so that
+		 * they can be loaded for all the rows at once afterwards
+		 */
+		public JobExecutionRowMapper(boolean loadJobParameters) {
+			this.loadJobParameters = loadJobParameters;
 		}
 
 		@Override
@@ -242,7 +694,7 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 			Long id = rs.getLong(1);
 			JobExecution jobExecution;
 			
-			JobParameters jobParameters = getJobParameters(id);
+			JobParameters jobParameters = loadJobParameters ? getJobParameters(id) : new JobParameters();
 
 			JobInstance jobInstance = new JobInstance(rs.getLong(10), rs.getString(11));
 			jobExecution = new JobExecution(jobInstance, jobParameters);
@@ -264,4 +716,80 @@ public class JdbcSearchableJobExecutionDao extends JdbcJobExecutionDao implement
 		}
 
 	}
+
+	/**
+	 * Mapper for the flat projection of a job execution, from a query that
+	 * selects {@link #FIELDS}.
+	 */
+	private static class JobExecutionRecordRowMapper implements RowMapper<JobExecutionRecord> {
+
+		@Override
+		public JobExecutionRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+			return new JobExecutionRecord(rs.getLong(1), rs.getLong(10), rs.getString(11),
+					BatchStatus.valueOf(rs.getString(4)), rs.getString(5), tsToLocalDateTime(rs.getTimestamp(7)),
+					tsToLocalDateTime(rs.getTimestamp(2)), tsToLocalDateTime(rs.getTimestamp(3)),
+					tsToLocalDateTime(rs.getTimestamp(8)), rs.getInt(9));
+		}
+
+		private static LocalDateTime tsToLocalDateTime(Timestamp ts) {
+			return ts == null ? null : ts.toLocalDateTime();
+		}
+
+	}
+
+	/**
+	 * Row handler for the export with parameters, whose rows (ordered by job
+	 * execution id) repeat the execution for each of its parameters. Only the
+	 * execution in progress is held.
+	 */
+	private static class ParameterGroupingHandler implements RowCallbackHandler {
+
+		private final JobExecutionRecordRowMapper mapper;
+
+		private final BiConsumer<JobExecutionRecord, Map<String, String>> handler;
+
+		private JobExecutionRecord current;
+
+		private Map<String, String> parameters;
+
+		ParameterGroupingHandler(JobExecutionRecordRowMapper mapper,
+				BiConsumer<JobExecutionRecord, Map<String, String>> handler) {
+			this.mapper = mapper;
+			this.handler = handler;
+		}
+
+		@Override
+		public void processRow(ResultSet rs) throws SQLException {
+			if (current == null || current.id() != rs.getLong(1)) {
+				flush();
+				current = mapper.mapRow(rs, 0);
+				parameters = new LinkedHashMap<String, String>();
+			}
+			String name = rs.getString(12);
+			if (name != null) {
+				parameters.put(name, rs.getString(13));
+			}
+		}
+
+		void flush() {
+			if (current != null) {
+				handler.accept(current, parameters);
+				current = null;
+			}
+		}
+
+	}
+
+	/**
+	 * Mapper for just the id of a job execution, used to find the start of a
+	 * page without mapping (and loading the parameters of) every row before it.
+	 */
+	private static class JobExecutionIdRowMapper implements RowMapper<Long> {
+
+		@Override
+		public Long mapRow(ResultSet rs, int rowNum) throws SQLException {
+			return rs.getLong(1);
+		}
+
+	}
 }
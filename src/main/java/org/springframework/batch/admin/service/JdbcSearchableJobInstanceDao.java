@@ -15,8 +15,17 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.admin.domain.JobInstanceRecord;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.core.repository.dao.JdbcJobInstanceDao;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
 
 /**
@@ -28,6 +37,11 @@ public class JdbcSearchableJobInstanceDao extends JdbcJobInstanceDao implements
 	private static final String GET_COUNT_BY_JOB_NAME = "SELECT COUNT(1) from %PREFIX%JOB_INSTANCE "
 			+ "where JOB_NAME=?";
 
+	private static final String GET_EXECUTION_SUMMARIES = "SELECT G.JOB_INSTANCE_ID, G.EXECUTION_COUNT, L.JOB_EXECUTION_ID, L.STATUS from "
+			+ "(SELECT JOB_INSTANCE_ID, COUNT(JOB_EXECUTION_ID) AS EXECUTION_COUNT, MAX(JOB_EXECUTION_ID) AS LAST_ID "
+			+ "from %PREFIX%JOB_EXECUTION where JOB_INSTANCE_ID in (" + SqlUtils.IDS + ") group by JOB_INSTANCE_ID) G, "
+			+ "%PREFIX%JOB_EXECUTION L where L.JOB_EXECUTION_ID=G.LAST_ID";
+
 	/**
 	 * @see JdbcJobExecutionDao#afterPropertiesSet()
 	 */
@@ -52,4 +66,30 @@ public class JdbcSearchableJobInstanceDao extends JdbcJobInstanceDao implements
 	public int countJobInstances(String name) {
 		return getJdbcTemplate().queryForObject(getQuery(GET_COUNT_BY_JOB_NAME), Integer.class, name);
 	}
+
+	/**
+	 * @see SearchableJobInstanceDao#getJobInstanceRecords(String, int, int)
+	 */
+	@Override
+	public List<JobInstanceRecord> getJobInstanceRecords(String name, int start, int count) {
+		List<JobInstance> jobInstances = getJobInstances(name, start, count);
+		Map<Long, JobInstanceRecord> records = new HashMap<Long, JobInstanceRecord>();
+		List<Long> ids = new ArrayList<Long>(jobInstances.size());
+		for (JobInstance jobInstance : jobInstances) {
+			ids.add(jobInstance.getInstanceId());
+		}
+		for (List<Long> chunk : SqlUtils.partition(ids)) {
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_EXECUTION_SUMMARIES), chunk.size()),
+					(RowCallbackHandler) rs -> records.put(rs.getLong(1), new JobInstanceRecord(rs.getLong(1), name,
+							rs.getInt(2), rs.getLong(3), BatchStatus.valueOf(rs.getString(4)))),
+					chunk.toArray());
+		}
+		List<JobInstanceRecord> result = new ArrayList<JobInstanceRecord>(jobInstances.size());
+		for (JobInstance jobInstance : jobInstances) {
+			JobInstanceRecord record = records.get(jobInstance.getInstanceId());
+			result.add(record != null ? record
+					: new JobInstanceRecord(jobInstance.getInstanceId(), name, 0, null, null));
+		}
+		return result;
+	}
 }
@@ -15,32 +15,50 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import javax.sql.DataSource;
 
+import org.springframework.batch.admin.domain.CumulativeHistory;
+import org.springframework.batch.admin.domain.PartitionRollup;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.dao.JdbcJobExecutionDao;
 import org.springframework.batch.core.repository.dao.JdbcStepExecutionDao;
 import org.springframework.batch.item.database.Order;
 import org.springframework.batch.item.database.PagingQueryProvider;
 import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+import org.springframework.batch.support.DatabaseType;
 import org.springframework.batch.support.PatternMatcher;
 import org.springframework.dao.IncorrectResultSizeDataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.incrementer.AbstractDataFieldMaxValueIncrementer;
 import org.springframework.util.Assert;
@@ -65,8 +83,101 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 			+ " S.READ_COUNT, S.FILTER_COUNT, S.WRITE_COUNT, S.EXIT_CODE, S.EXIT_MESSAGE, S.READ_SKIP_COUNT, S.WRITE_SKIP_COUNT,"
 			+ " S.PROCESS_SKIP_COUNT, S.ROLLBACK_COUNT, S.LAST_UPDATED, S.VERSION";
 
+	private static final String GET_STEP_EXECUTIONS_FOR_JOB_EXECUTIONS = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID, S.CREATE_TIME from %PREFIX%STEP_EXECUTION S where S.JOB_EXECUTION_ID in ("
+			+ SqlUtils.IDS + ") ORDER BY S.STEP_EXECUTION_ID";
+
+	private static final String GET_STEP_EXECUTIONS_FOR_JOB_EXECUTION = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID, S.CREATE_TIME from %PREFIX%STEP_EXECUTION S where S.JOB_EXECUTION_ID = ?";
+
+	private static final String GET_STEP_EXECUTIONS_FOR_JOB_EXECUTIONS_UPDATED = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID, S.CREATE_TIME from %PREFIX%STEP_EXECUTION S where S.JOB_EXECUTION_ID in ("
+			+ SqlUtils.IDS + ") AND S.LAST_UPDATED > ? ORDER BY S.STEP_EXECUTION_ID";
+
+	private static final String GET_STEP_EXECUTIONS_UPDATED = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID from %PREFIX%STEP_EXECUTION S where S.LAST_UPDATED <= ? "
+			+ "ORDER BY S.LAST_UPDATED, S.STEP_EXECUTION_ID";
+
+	private static final String GET_STEP_EXECUTIONS_UPDATED_AFTER = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID from %PREFIX%STEP_EXECUTION S where S.LAST_UPDATED between ? and ? "
+			+ "and (S.LAST_UPDATED > ? or S.STEP_EXECUTION_ID > ?) ORDER BY S.LAST_UPDATED, S.STEP_EXECUTION_ID";
+
+	private static final String EXPORT_STEP_EXECUTIONS = "SELECT " + FIELDS
+			+ ", S.JOB_EXECUTION_ID from %PREFIX%STEP_EXECUTION S ORDER BY S.STEP_EXECUTION_ID";
+
+	private static final String COUNT_STEP_EXECUTIONS_BY_STATUS = "SELECT STATUS, COUNT(1) from %PREFIX%STEP_EXECUTION "
+			+ "where JOB_EXECUTION_ID = ? group by STATUS";
+
+	private static final String GET_STATUSES_FROM_IDS = "SELECT STEP_EXECUTION_ID, STATUS from %PREFIX%STEP_EXECUTION "
+			+ "where JOB_EXECUTION_ID = ? and STEP_EXECUTION_ID in (" + SqlUtils.IDS + ")";
+
+	private static final String PARTITIONS_FROM = " from %PREFIX%STEP_EXECUTION S where S.JOB_EXECUTION_ID = ? AND S.STEP_NAME like ?";
+
+	private static final Map<String, List<String>> SORT_KEYS = Map.of("id", List.of("STEP_EXECUTION_ID"), "name",
+			List.of("STEP_NAME", "STEP_EXECUTION_ID"), "status", List.of("STATUS", "STEP_EXECUTION_ID"), "startTime",
+			List.of("START_PENDING", "START_ORDER", "STEP_EXECUTION_ID"), "endTime",
+			List.of("END_PENDING", "END_ORDER", "STEP_EXECUTION_ID"), "readCount",
+			List.of("READ_COUNT", "STEP_EXECUTION_ID"), "writeCount", List.of("WRITE_COUNT", "STEP_EXECUTION_ID"),
+			"commitCount", List.of("COMMIT_COUNT", "STEP_EXECUTION_ID"), "rollbackCount",
+			List.of("ROLLBACK_COUNT", "STEP_EXECUTION_ID"));
+
+	private static final List<String> TIME_SORT_KEYS = List.of("START_PENDING", "START_ORDER", "END_PENDING",
+			"END_ORDER");
+
+	/**
+	 * The step executions with non null sort keys for the start and end times,
+	 * which a keyset condition cannot compare when they are null: the
+	 * executions not started (ended) yet come after the others, in order of
+	 * creation.
+	 */
+	private static final String STEP_EXECUTIONS_WITH_TIME_SORT_KEYS = "(SELECT T.*, "
+			+ "CASE WHEN T.START_TIME is NULL THEN 1 ELSE 0 END START_PENDING, COALESCE(T.START_TIME, T.CREATE_TIME) START_ORDER, "
+			+ "CASE WHEN T.END_TIME is NULL THEN 1 ELSE 0 END END_PENDING, COALESCE(T.END_TIME, T.CREATE_TIME) END_ORDER "
+			+ "from %PREFIX%STEP_EXECUTION T) S";
+
+	private static final String STEP_EXECUTIONS_FOR_STEP_FROM = " from %PREFIX%STEP_EXECUTION S, %PREFIX%JOB_EXECUTION E, %PREFIX%JOB_INSTANCE I"
+			+ " where S.JOB_EXECUTION_ID = E.JOB_EXECUTION_ID AND E.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID AND ";
+
+	private static final String STEP_EXECUTION_HISTORY_FROM = STEP_EXECUTIONS_FOR_STEP_FROM
+			+ "S.START_TIME is not NULL AND S.END_TIME is not NULL AND S.STEP_EXECUTION_ID > ? AND S.STEP_EXECUTION_ID <= ? AND ";
+
+	private static final String FINISHED_STEP_EXECUTIONS_FROM = " from %PREFIX%STEP_EXECUTION S"
+			+ " where S.START_TIME is not NULL AND S.END_TIME is not NULL AND S.STEP_EXECUTION_ID in (" + SqlUtils.IDS
+			+ ")";
+
+	private static final String UNFINISHED = "S.END_TIME is NULL AND S.STATUS in ('STARTING', 'STARTED', 'STOPPING')";
+
+	private static final String GET_UNFINISHED_STEP_EXECUTION_IDS = "SELECT S.STEP_EXECUTION_ID"
+			+ STEP_EXECUTIONS_FOR_STEP_FROM + UNFINISHED + " AND S.STEP_EXECUTION_ID > ? AND S.STEP_EXECUTION_ID <= ? AND ";
+
+	private static final String GET_UNFINISHED_STEP_EXECUTION_IDS_IN = "SELECT S.STEP_EXECUTION_ID from %PREFIX%STEP_EXECUTION S"
+			+ " where " + UNFINISHED + " AND S.STEP_EXECUTION_ID in (" + SqlUtils.IDS + ")";
+
+	private static final String GET_STEP_EXECUTION_HISTORY_WATERMARK = "SELECT MAX(S.STEP_EXECUTION_ID), "
+			+ "MIN(CASE WHEN " + UNFINISHED + " AND (S.LAST_UPDATED > ?%ACTIVE%) THEN S.STEP_EXECUTION_ID END)"
+			+ STEP_EXECUTIONS_FOR_STEP_FROM + "S.STEP_EXECUTION_ID > ? AND ";
+
+	private static final String[] HISTORY_COLUMNS = { "S.COMMIT_COUNT", "S.ROLLBACK_COUNT", "S.READ_COUNT",
+			"S.WRITE_COUNT", "S.FILTER_COUNT", "S.READ_SKIP_COUNT", "S.WRITE_SKIP_COUNT", "S.PROCESS_SKIP_COUNT" };
+
 	private DataSource dataSource;
 
+	private DatabaseType databaseType;
+
+	private PagingQueryProvider byNamePagingQueryProvider;
+
+	private PagingQueryProvider byJobPatternPagingQueryProvider;
+
+	private PagingQueryProvider byStepPatternPagingQueryProvider;
+
+	private PagingQueryProvider byJobAndStepPatternPagingQueryProvider;
+
+	private final Map<String, PagingQueryProvider> jobExecutionPagingQueryProviders = new ConcurrentHashMap<String, PagingQueryProvider>();
+
+	private CountStrategy countStrategy = new ExactCountStrategy();
+
+	private int exportFetchSize = 1000;
+
 	/**
 	 * @param dataSource the dataSource to set
 	 */
@@ -74,6 +185,45 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * The database type, used to pick the SQL for the duration of a step
+	 * execution. If not set it is determined from the data source.
+	 * 
+	 * @param databaseType the database type to set (a {@link DatabaseType}
+	 * name)
+	 */
+	public void setDatabaseType(String databaseType) {
+		this.databaseType = databaseType == null ? null : DatabaseType.valueOf(databaseType.toUpperCase());
+	}
+
+	/**
+	 * The strategy used to answer the count queries. Defaults to an
+	 * {@link ExactCountStrategy}.
+	 * 
+	 * @param countStrategy the count strategy to set
+	 */
+	public void setCountStrategy(CountStrategy countStrategy) {
+		this.countStrategy = countStrategy;
+	}
+
+	/**
+	 * The number of rows fetched at a time when exporting. Defaults to 1000.
+	 * 
+	 * @param exportFetchSize the fetch size to set
+	 * @see #exportStepExecutionRecords(String, Consumer)
+	 */
+	public void setExportFetchSize(int exportFetchSize) {
+		this.exportFetchSize = exportFetchSize;
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getCountStrategy()
+	 */
+	@Override
+	public CountStrategy getCountStrategy() {
+		return countStrategy;
+	}
+
 	/**
 	 * @see JdbcJobExecutionDao#afterPropertiesSet()
 	 */
@@ -85,6 +235,9 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 		if (getJdbcTemplate() == null) {
 			setJdbcTemplate(new JdbcTemplate(dataSource));
 		}
+		if (databaseType == null) {
+			databaseType = DatabaseType.fromMetaData(dataSource);
+		}
 		setStepExecutionIncrementer(new AbstractDataFieldMaxValueIncrementer() {
 			@Override
 			protected long getNextKey() {
@@ -94,6 +247,11 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 
 		super.afterPropertiesSet();
 
+		byNamePagingQueryProvider = getPagingQueryProvider("JOB_NAME = ? AND STEP_NAME = ?");
+		byJobPatternPagingQueryProvider = getPagingQueryProvider("JOB_NAME like ? AND STEP_NAME = ?");
+		byStepPatternPagingQueryProvider = getPagingQueryProvider("JOB_NAME = ? AND STEP_NAME like ?");
+		byJobAndStepPatternPagingQueryProvider = getPagingQueryProvider("JOB_NAME like ? AND STEP_NAME like ?");
+
 	}
 
 	public Collection<String> findStepNamesForJobExecution(String jobName, String excludesPattern) {
@@ -118,25 +276,17 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 
 	public Collection<StepExecution> findStepExecutions(String jobName, String stepName, int start, int count) {
 
-		String whereClause;
+		PagingQueryProvider queryProvider;
 
 		if (jobName.contains("*")) {
-			whereClause = "JOB_NAME like ?";
+			queryProvider = stepName.contains("*") ? byJobAndStepPatternPagingQueryProvider
+					: byJobPatternPagingQueryProvider;
 			jobName = jobName.replace("*", "%");
 		}
 		else {
-			whereClause = "JOB_NAME = ?";
+			queryProvider = stepName.contains("*") ? byStepPatternPagingQueryProvider : byNamePagingQueryProvider;
 		}
-
-		if (stepName.contains("*")) {
-			whereClause = whereClause + " AND STEP_NAME like ?";
-			stepName = stepName.replace("*", "%");
-		}
-		else {
-			whereClause = whereClause + " AND STEP_NAME = ?";
-		}
-
-		PagingQueryProvider queryProvider = getPagingQueryProvider(whereClause);
+		stepName = stepName.replace("*", "%");
 
 		List<StepExecution> stepExecutions;
 		if (start <= 0) {
@@ -164,29 +314,572 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 	}
 
 	public int countStepExecutions(String jobName, String stepName) {
-		if (stepName.contains("*")) {
-			return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP_PATTERN), Integer.class, jobName,
-					stepName.replace("*", "%"));
+		return countStrategy.count(jobName + "." + stepName, () -> {
+			if (stepName.contains("*")) {
+				return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP_PATTERN), Integer.class,
+						jobName, stepName.replace("*", "%"));
+			}
+			return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP), Integer.class, jobName,
+					stepName);
+		}, null);
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionHistory(String, String)
+	 */
+	@Override
+	public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName) {
+		return getStepExecutionHistory(jobName, stepName, -1L, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionHistory(String, String, long, long)
+	 */
+	@Override
+	public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName,
+			long afterStepExecutionId, long maxStepExecutionId) {
+		return getStepExecutionHistory(jobName, stepName, afterStepExecutionId, maxStepExecutionId,
+				Collections.<Long>emptyList());
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionHistory(String, String,
+	 * long, long, Collection)
+	 */
+	@Override
+	public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName,
+			long afterStepExecutionId, long maxStepExecutionId, Collection<Long> excludedStepExecutionIds) {
+		List<Object> args = new ArrayList<Object>();
+		args.add(afterStepExecutionId);
+		args.add(maxStepExecutionId);
+		args.add(jobName.replace("*", "%"));
+		args.add(stepName.replace("*", "%"));
+		StringBuilder where = new StringBuilder(getStepNameWhereClause(jobName, stepName));
+		for (List<Long> ids : SqlUtils.partition(excludedStepExecutionIds)) {
+			where.append(SqlUtils.inClause(" AND S.STEP_EXECUTION_ID not in (" + SqlUtils.IDS + ")", ids.size()));
+			args.addAll(ids);
+		}
+		return getStepExecutionHistory(stepName, STEP_EXECUTION_HISTORY_FROM + where, args.toArray());
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionHistory(String,
+	 * Collection)
+	 */
+	@Override
+	public StepExecutionHistory getStepExecutionHistory(String stepName, Collection<Long> stepExecutionIds) {
+		StepExecutionHistory history = new StepExecutionHistory(stepName);
+		for (List<Long> ids : SqlUtils.partition(stepExecutionIds)) {
+			history = history.combine(getStepExecutionHistory(stepName,
+					SqlUtils.inClause(FINISHED_STEP_EXECUTIONS_FROM, ids.size()), ids.toArray()));
+		}
+		return history;
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getUnfinishedStepExecutionIds(String,
+	 * String, long, long)
+	 */
+	@Override
+	public Set<Long> getUnfinishedStepExecutionIds(String jobName, String stepName, long afterStepExecutionId,
+			long maxStepExecutionId) {
+		return new TreeSet<Long>(getJdbcTemplate().queryForList(
+				getQuery(GET_UNFINISHED_STEP_EXECUTION_IDS + getStepNameWhereClause(jobName, stepName)), Long.class,
+				afterStepExecutionId, maxStepExecutionId, jobName.replace("*", "%"), stepName.replace("*", "%")));
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getUnfinishedStepExecutionIds(Collection)
+	 */
+	@Override
+	public Set<Long> getUnfinishedStepExecutionIds(Collection<Long> stepExecutionIds) {
+		Set<Long> unfinished = new TreeSet<Long>();
+		for (List<Long> ids : SqlUtils.partition(stepExecutionIds)) {
+			unfinished.addAll(getJdbcTemplate().queryForList(
+					getQuery(SqlUtils.inClause(GET_UNFINISHED_STEP_EXECUTION_IDS_IN, ids.size())), Long.class,
+					ids.toArray()));
+		}
+		return unfinished;
+	}
+
+	/**
+	 * @param stepName the step name of the history
+	 * @param from the from and where clauses selecting the finished step
+	 * executions (aliased S)
+	 * @param args the arguments of the where clause
+	 * @return the history of the selected step executions
+	 */
+	private StepExecutionHistory getStepExecutionHistory(String stepName, String from, Object[] args) {
+
+		String duration = getDurationExpression();
+		if (duration == null) {
+			// No portable way to subtract timestamps so stream the rows instead
+			// (still one query, and nothing is held in memory)
+			StepExecutionHistory history = new StepExecutionHistory(stepName);
+			StepExecutionRowMapper mapper = new StepExecutionRowMapper();
+			getJdbcTemplate().query(getQuery("SELECT " + FIELDS + from),
+					(RowCallbackHandler) rs -> history.append(mapper.mapRow(rs, 0)), args);
+			return history;
 		}
-		return getJdbcTemplate().queryForObject(getQuery(COUNT_STEP_EXECUTIONS_FOR_STEP), Integer.class, jobName, stepName);
+
+		StringBuilder select = new StringBuilder("SELECT COUNT(1)");
+		for (String column : HISTORY_COLUMNS) {
+			appendAggregates(select, column);
+		}
+		appendAggregates(select, duration);
+		appendAggregates(select, "CASE WHEN S.READ_COUNT > 0 THEN FLOOR(" + duration + " / S.READ_COUNT) END");
+
+		return getJdbcTemplate().queryForObject(getQuery(select + from),
+				(rs, rowNum) -> {
+					CumulativeHistory[] histories = new CumulativeHistory[HISTORY_COLUMNS.length + 2];
+					for (int i = 0; i < histories.length; i++) {
+						int column = 2 + 5 * i;
+						histories[i] = new CumulativeHistory(rs.getInt(column), rs.getDouble(column + 1),
+								rs.getDouble(column + 2), rs.getDouble(column + 3), rs.getDouble(column + 4));
+					}
+					return new StepExecutionHistory(stepName, rs.getInt(1), histories[0], histories[1], histories[2],
+							histories[3], histories[4], histories[5], histories[6], histories[7], histories[8],
+							histories[9]);
+				}, args);
+
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionHistoryWatermark(String,
+	 * String, long, LocalDateTime, Collection)
+	 */
+	@Override
+	public long getStepExecutionHistoryWatermark(String jobName, String stepName, long afterStepExecutionId,
+			LocalDateTime staleBefore, Collection<Long> activeJobExecutionIds) {
+		List<Object> args = new ArrayList<Object>();
+		args.add(Timestamp.valueOf(staleBefore));
+		StringBuilder active = new StringBuilder();
+		for (List<Long> ids : SqlUtils.partition(activeJobExecutionIds)) {
+			active.append(SqlUtils.inClause(" OR S.JOB_EXECUTION_ID in (" + SqlUtils.IDS + ")", ids.size()));
+			args.addAll(ids);
+		}
+		args.add(afterStepExecutionId);
+		args.add(jobName.replace("*", "%"));
+		args.add(stepName.replace("*", "%"));
+		String sql = GET_STEP_EXECUTION_HISTORY_WATERMARK.replace("%ACTIVE%", active)
+				+ getStepNameWhereClause(jobName, stepName);
+		return getJdbcTemplate().queryForObject(getQuery(sql),
+				(rs, rowNum) -> {
+					long firstRunning = rs.getLong(2);
+					if (!rs.wasNull()) {
+						return firstRunning - 1;
+					}
+					long last = rs.getLong(1);
+					return rs.wasNull() ? afterStepExecutionId : last;
+				}, args.toArray());
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionStatuses(Long,
+	 * Collection)
+	 */
+	@Override
+	public Map<Long, BatchStatus> getStepExecutionStatuses(Long jobExecutionId, Collection<Long> stepExecutionIds) {
+		Map<Long, BatchStatus> statuses = new HashMap<Long, BatchStatus>();
+		for (List<Long> ids : SqlUtils.partition(stepExecutionIds)) {
+			List<Object> args = new ArrayList<Object>();
+			args.add(jobExecutionId);
+			args.addAll(ids);
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_STATUSES_FROM_IDS), ids.size()),
+					(RowCallbackHandler) rs -> statuses.put(rs.getLong(1), BatchStatus.valueOf(rs.getString(2))),
+					args.toArray());
+		}
+		return statuses;
+	}
+
+	/**
+	 * The totals, the duration range and the status counts are computed with
+	 * aggregate queries. The slowest partitions and the 95th percentile come
+	 * from one query sorted by duration, cut with
+	 * {@link PreparedStatement#setMaxRows(int)} at the 5% tail (or the number
+	 * of slowest partitions, if more), so that only that many rows are read.
+	 * Without a duration expression for the database the partitions are
+	 * streamed instead, keeping only their durations.
+	 * 
+	 * @see SearchableStepExecutionDao#getPartitionRollup(Long, String, int)
+	 */
+	@Override
+	public PartitionRollup getPartitionRollup(Long jobExecutionId, String stepName, int slowest) {
+
+		Object[] args = new Object[] { jobExecutionId, stepName + ":%" };
+
+		Map<BatchStatus, Integer> statusCounts = new EnumMap<BatchStatus, Integer>(BatchStatus.class);
+		getJdbcTemplate().query(getQuery("SELECT S.STATUS, COUNT(1)" + PARTITIONS_FROM + " group by S.STATUS"),
+				(RowCallbackHandler) rs -> statusCounts.put(BatchStatus.valueOf(rs.getString(1)), rs.getInt(2)), args);
+
+		String duration = getDurationExpression();
+		if (duration == null) {
+			return getPartitionRollupFromRows(stepName, getQuery("SELECT " + FIELDS + PARTITIONS_FROM), args,
+					statusCounts, slowest);
+		}
+
+		long[] totals = getJdbcTemplate().queryForObject(getQuery("SELECT COUNT(1), SUM(S.READ_COUNT), "
+				+ "SUM(S.WRITE_COUNT), SUM(S.READ_SKIP_COUNT + S.WRITE_SKIP_COUNT + S.PROCESS_SKIP_COUNT), COUNT("
+				+ duration + "), MIN(" + duration + "), MAX(" + duration + "), SUM(" + duration + ")" + PARTITIONS_FROM),
+				(rs, rowNum) -> new long[] { rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+						rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8) },
+				args);
+		int finished = (int) totals[4];
+
+		int p95Rank = PartitionRollup.getP95Rank(finished);
+		long[] p95 = new long[1];
+		int[] row = new int[1];
+		List<StepExecution> slowestPartitions = new ArrayList<StepExecution>();
+		int rows = Math.max(slowest, p95Rank);
+		if (rows > 0 && finished > 0) {
+			String sql = getQuery("SELECT " + FIELDS + ", " + duration + PARTITIONS_FROM
+					+ " AND S.END_TIME is not NULL ORDER BY " + duration + " DESC, S.STEP_EXECUTION_ID");
+			StepExecutionRowMapper mapper = new StepExecutionRowMapper();
+			getJdbcTemplate().query(connection -> {
+				PreparedStatement statement = connection.prepareStatement(sql);
+				statement.setMaxRows(rows);
+				statement.setLong(1, jobExecutionId);
+				statement.setString(2, stepName + ":%");
+				return statement;
+			}, (RowCallbackHandler) rs -> {
+				if (row[0] < slowest) {
+					slowestPartitions.add(mapper.mapRow(rs, row[0]));
+				}
+				if (++row[0] == p95Rank) {
+					p95[0] = rs.getLong(18);
+				}
+			});
+		}
+
+		return new PartitionRollup(stepName, (int) totals[0], finished, totals[1], totals[2], totals[3], totals[5],
+				totals[6], finished == 0 ? 0 : (double) totals[7] / finished, p95[0], statusCounts,
+				slowestPartitions);
+
+	}
+
+	private PartitionRollup getPartitionRollupFromRows(String stepName, String sql, Object[] args,
+			Map<BatchStatus, Integer> statusCounts, int slowest) {
+		StepExecutionRowMapper mapper = new StepExecutionRowMapper();
+		List<Long> durations = new ArrayList<Long>();
+		PriorityQueue<StepExecution> slowestPartitions = new PriorityQueue<StepExecution>(
+				Comparator.comparing(JdbcSearchableStepExecutionDao::getDuration));
+		long[] totals = new long[4];
+		getJdbcTemplate().query(sql, (RowCallbackHandler) rs -> {
+			StepExecution stepExecution = mapper.mapRow(rs, 0);
+			totals[0]++;
+			totals[1] += stepExecution.getReadCount();
+			totals[2] += stepExecution.getWriteCount();
+			totals[3] += stepExecution.getSkipCount();
+			if (stepExecution.getStartTime() != null && stepExecution.getEndTime() != null) {
+				durations.add(getDuration(stepExecution));
+				slowestPartitions.add(stepExecution);
+				if (slowestPartitions.size() > slowest) {
+					slowestPartitions.poll();
+				}
+			}
+		}, args);
+		durations.sort(Comparator.reverseOrder());
+		List<StepExecution> slowestList = new ArrayList<StepExecution>(slowestPartitions);
+		slowestList.sort(Comparator.comparing(JdbcSearchableStepExecutionDao::getDuration).reversed());
+		int finished = durations.size();
+		long sum = durations.stream().mapToLong(Long::longValue).sum();
+		return new PartitionRollup(stepName, (int) totals[0], finished, totals[1], totals[2], totals[3],
+				finished == 0 ? 0 : durations.get(finished - 1), finished == 0 ? 0 : durations.get(0),
+				finished == 0 ? 0 : (double) sum / finished,
+				finished == 0 ? 0 : durations.get(PartitionRollup.getP95Rank(finished) - 1), statusCounts,
+				slowestList);
+	}
+
+	private static long getDuration(StepExecution stepExecution) {
+		return Duration.between(stepExecution.getStartTime(), stepExecution.getEndTime()).toMillis();
+	}
+
+	private String getStepNameWhereClause(String jobName, String stepName) {
+		return (jobName.contains("*") ? "I.JOB_NAME like ?" : "I.JOB_NAME = ?")
+				+ (stepName.contains("*") ? " AND S.STEP_NAME like ?" : " AND S.STEP_NAME = ?");
+	}
+
+	private void appendAggregates(StringBuilder select, String expression) {
+		select.append(", COUNT(").append(expression).append("), SUM(").append(expression).append("), SUM(1.0 * ")
+				.append(expression).append(" * ").append(expression).append("), MIN(").append(expression)
+				.append("), MAX(").append(expression).append(")");
+	}
+
+	/**
+	 * @return an SQL expression for the duration of a step execution in
+	 * milliseconds, or null if there isn't one for this database
+	 */
+	private String getDurationExpression() {
+		if (databaseType == null) {
+			return null;
+		}
+		switch (databaseType) {
+		case H2:
+			// microseconds, so the result truncates like Duration.toMillis()
+			return "(DATEDIFF('MICROSECOND', S.START_TIME, S.END_TIME) / 1000)";
+		case HSQL:
+			return "DATEDIFF('MILLISECOND', S.START_TIME, S.END_TIME)";
+		case MYSQL:
+		case MARIADB:
+			return "(TIMESTAMPDIFF(MICROSECOND, S.START_TIME, S.END_TIME) DIV 1000)";
+		case POSTGRES:
+			return "FLOOR(EXTRACT(EPOCH FROM (S.END_TIME - S.START_TIME)) * 1000)";
+		case SQLSERVER:
+			return "(DATEDIFF_BIG(MICROSECOND, S.START_TIME, S.END_TIME) / 1000)";
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#addStepExecutions(Collection)
+	 */
+	@Override
+	public void addStepExecutions(Collection<JobExecution> jobExecutions) {
+		Map<Long, JobExecution> parents = new HashMap<Long, JobExecution>();
+		for (JobExecution jobExecution : jobExecutions) {
+			parents.put(jobExecution.getId(), jobExecution);
+		}
+		for (List<Long> ids : SqlUtils.partition(parents.keySet())) {
+			getJdbcTemplate().query(SqlUtils.inClause(getQuery(GET_STEP_EXECUTIONS_FOR_JOB_EXECUTIONS), ids.size()),
+					new StepExecutionRowMapper(parents), ids.toArray());
+		}
+	}
+
+	/**
+	 * The page after the first is found with a keyset condition on the sort
+	 * keys (the sort column and the id) of the last step execution before it,
+	 * which is read with a query selecting only the sort keys, so that only
+	 * the rows in the page are fetched in full.
+	 * 
+	 * @see SearchableStepExecutionDao#getStepExecutions(JobExecution, String,
+	 * boolean, int, int)
+	 */
+	@Override
+	public List<StepExecution> getStepExecutions(JobExecution jobExecution, String sort, boolean ascending,
+			int start, int count) {
+		List<String> sortKeys = SORT_KEYS.get(sort);
+		if (sortKeys == null) {
+			throw new IllegalArgumentException("Cannot sort step executions by " + sort + " (expected one of "
+					+ SORT_KEYS.keySet() + ")");
+		}
+		StepExecutionRowMapper mapper = new StepExecutionRowMapper(Map.of(jobExecution.getId(), jobExecution));
+		if (start <= 0) {
+			return getJdbcTemplate().query(
+					getJobExecutionPagingQueryProvider(sort, ascending, false).generateFirstPageQuery(count), mapper,
+					jobExecution.getId());
+		}
+		Object[] startAfter = getJdbcTemplate().query(
+				getJobExecutionPagingQueryProvider(sort, ascending, true).generateFirstPageQuery(start),
+				(ResultSetExtractor<Object[]>) rs -> {
+					Object[] values = new Object[sortKeys.size()];
+					int rows = 0;
+					while (rs.next()) {
+						for (int i = 0; i < values.length; i++) {
+							values[i] = rs.getObject(i + 1);
+						}
+						rows++;
+					}
+					return rows < start ? null : values;
+				}, jobExecution.getId());
+		if (startAfter == null) {
+			return Collections.emptyList();
+		}
+		// (k1 > ?) OR (k1 = ? AND k2 > ?) OR ...
+		List<Object> args = new ArrayList<Object>();
+		args.add(jobExecution.getId());
+		for (int i = 0; i < startAfter.length; i++) {
+			for (int j = 0; j <= i; j++) {
+				args.add(startAfter[j]);
+			}
+		}
+		return getJdbcTemplate().query(
+				getJobExecutionPagingQueryProvider(sort, ascending, false).generateRemainingPagesQuery(count), mapper,
+				args.toArray());
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionRecords(Long, int, int)
+	 */
+	@Override
+	public List<StepExecutionRecord> getStepExecutionRecords(Long jobExecutionId, int start, int count) {
+		String sql = getQuery(GET_STEP_EXECUTIONS_FOR_JOB_EXECUTION) + " ORDER BY S.STEP_EXECUTION_ID";
+		return getJdbcTemplate().query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setMaxRows(start + count);
+			statement.setLong(1, jobExecutionId);
+			return statement;
+		}, (ResultSetExtractor<List<StepExecutionRecord>>) rs -> {
+			List<StepExecutionRecord> records = new ArrayList<StepExecutionRecord>();
+			int row = 0;
+			while (rs.next()) {
+				if (row++ >= start) {
+					records.add(mapStepExecutionRecord(rs));
+				}
+			}
+			return records;
+		});
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionRecords(Collection)
+	 */
+	@Override
+	public List<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds) {
+		List<StepExecutionRecord> records = new ArrayList<StepExecutionRecord>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			records.addAll(getJdbcTemplate().query(
+					SqlUtils.inClause(getQuery(GET_STEP_EXECUTIONS_FOR_JOB_EXECUTIONS), ids.size()),
+					(rs, rowNum) -> mapStepExecutionRecord(rs), ids.toArray()));
+		}
+		return records;
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionRecords(Collection,
+	 * LocalDateTime)
+	 */
+	@Override
+	public List<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds,
+			LocalDateTime updatedAfter) {
+		List<StepExecutionRecord> records = new ArrayList<StepExecutionRecord>();
+		for (List<Long> ids : SqlUtils.partition(jobExecutionIds)) {
+			List<Object> args = new ArrayList<Object>(ids);
+			args.add(Timestamp.valueOf(updatedAfter));
+			records.addAll(getJdbcTemplate().query(
+					SqlUtils.inClause(getQuery(GET_STEP_EXECUTIONS_FOR_JOB_EXECUTIONS_UPDATED), ids.size()),
+					(rs, rowNum) -> mapStepExecutionRecord(rs), args.toArray()));
+		}
+		return records;
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#getStepExecutionRecordsUpdatedAfter(LocalDateTime,
+	 * Long, LocalDateTime, int)
+	 */
+	@Override
+	public List<StepExecutionRecord> getStepExecutionRecordsUpdatedAfter(LocalDateTime lastUpdated,
+			Long stepExecutionId, LocalDateTime updatedBefore, int count) {
+		String sql = getQuery(lastUpdated == null ? GET_STEP_EXECUTIONS_UPDATED : GET_STEP_EXECUTIONS_UPDATED_AFTER);
+		return getJdbcTemplate().query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(sql);
+			statement.setMaxRows(count);
+			if (lastUpdated == null) {
+				statement.setTimestamp(1, Timestamp.valueOf(updatedBefore));
+			}
+			else {
+				statement.setTimestamp(1, Timestamp.valueOf(lastUpdated));
+				statement.setTimestamp(2, Timestamp.valueOf(updatedBefore));
+				statement.setTimestamp(3, Timestamp.valueOf(lastUpdated));
+				statement.setLong(4, stepExecutionId);
+			}
+			return statement;
+		}, (rs, rowNum) -> mapStepExecutionRecord(rs));
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#exportStepExecutionRecords(String,
+	 * Consumer)
+	 */
+	@Override
+	public void exportStepExecutionRecords(String jobName, Consumer<StepExecutionRecord> handler) {
+		if (jobName == null) {
+			SqlUtils.queryForward(getJdbcTemplate(), getQuery(EXPORT_STEP_EXECUTIONS), exportFetchSize,
+					rs -> handler.accept(mapStepExecutionRecord(rs)));
+			return;
+		}
+		SqlUtils.queryForward(getJdbcTemplate(),
+				getQuery("SELECT " + FIELDS + ", S.JOB_EXECUTION_ID" + STEP_EXECUTIONS_FOR_STEP_FROM
+						+ "I.JOB_NAME = ? ORDER BY S.STEP_EXECUTION_ID"),
+				exportFetchSize, rs -> handler.accept(mapStepExecutionRecord(rs)), jobName);
+	}
+
+	/**
+	 * Map a row selecting {@link #FIELDS} followed by the job execution id.
+	 */
+	private static StepExecutionRecord mapStepExecutionRecord(ResultSet rs) throws SQLException {
+		return new StepExecutionRecord(rs.getLong(1), rs.getLong(18), rs.getString(2),
+				BatchStatus.valueOf(rs.getString(5)), rs.getString(10), rs.getLong(7), rs.getLong(9), rs.getLong(8),
+				rs.getLong(6), rs.getLong(15), rs.getLong(12), rs.getLong(14), rs.getLong(13),
+				tsToLocalDateTime(rs.getTimestamp(3)), tsToLocalDateTime(rs.getTimestamp(4)),
+				tsToLocalDateTime(rs.getTimestamp(16)), rs.getInt(17));
+	}
+
+	private static LocalDateTime tsToLocalDateTime(Timestamp ts) {
+		return ts == null ? null : ts.toLocalDateTime();
+	}
+
+	/**
+	 * @see SearchableStepExecutionDao#countStepExecutionsByStatus(Long)
+	 */
+	@Override
+	public Map<BatchStatus, Integer> countStepExecutionsByStatus(Long jobExecutionId) {
+		Map<BatchStatus, Integer> counts = new EnumMap<BatchStatus, Integer>(BatchStatus.class);
+		getJdbcTemplate().query(getQuery(COUNT_STEP_EXECUTIONS_BY_STATUS),
+				(RowCallbackHandler) rs -> counts.put(BatchStatus.valueOf(rs.getString(1)), rs.getInt(2)),
+				jobExecutionId);
+		return counts;
 	}
 
 	/**
 	 * @return a {@link PagingQueryProvider} with a where clause to narrow the
-	 * query
-	 * @throws Exception
+	 * query (built once per where clause in {@link #afterPropertiesSet()}
+	 * because creating one looks up the database type)
 	 */
 	private PagingQueryProvider getPagingQueryProvider(String whereClause) {
-		SqlPagingQueryProviderFactoryBean factory = new SqlPagingQueryProviderFactoryBean();
-		factory.setDataSource(dataSource);
-		factory.setFromClause(getQuery("%PREFIX%STEP_EXECUTION S, %PREFIX%JOB_EXECUTION J, %PREFIX%JOB_INSTANCE I"));
-		factory.setSelectClause(FIELDS);
 		Map<String, Order> sortKeys = new HashMap<String, Order>();
 		sortKeys.put("STEP_EXECUTION_ID", Order.DESCENDING);
+		return getPagingQueryProvider(FIELDS, "%PREFIX%STEP_EXECUTION S, %PREFIX%JOB_EXECUTION J, %PREFIX%JOB_INSTANCE I",
+				whereClause == null ? null
+						: whereClause
+								+ " AND S.JOB_EXECUTION_ID = J.JOB_EXECUTION_ID AND J.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID",
+				sortKeys);
+	}
+
+	/**
+	 * @param sort      the sort property (a key of {@link #SORT_KEYS})
+	 * @param ascending the sort direction
+	 * @param keysOnly  true to select only the sort keys
+	 * @return a {@link PagingQueryProvider} for the step executions of one job
+	 * execution (built once per sort on first use)
+	 */
+	private PagingQueryProvider getJobExecutionPagingQueryProvider(String sort, boolean ascending, boolean keysOnly) {
+		return jobExecutionPagingQueryProviders.computeIfAbsent(
+				sort + (ascending ? " ASC" : " DESC") + (keysOnly ? " keys" : ""),
+				key -> createJobExecutionPagingQueryProvider(SORT_KEYS.get(sort), ascending, keysOnly));
+	}
+
+	private PagingQueryProvider createJobExecutionPagingQueryProvider(List<String> keys, boolean ascending,
+			boolean keysOnly) {
+		Map<String, Order> sortKeys = new LinkedHashMap<String, Order>();
+		StringBuilder keyColumns = new StringBuilder();
+		StringBuilder timeKeyColumns = new StringBuilder();
+		for (String key : keys) {
+			sortKeys.put(key, ascending ? Order.ASCENDING : Order.DESCENDING);
+			keyColumns.append(keyColumns.length() == 0 ? "S." : ", S.").append(key);
+			if (TIME_SORT_KEYS.contains(key)) {
+				timeKeyColumns.append(", S.").append(key);
+			}
+		}
+		// the sort keys are unqualified and each selected once, so that the
+		// outer query some databases wrap the page in can refer to them
+		String selectClause = keysOnly ? keyColumns.toString()
+				: FIELDS + ", S.JOB_EXECUTION_ID, S.CREATE_TIME" + timeKeyColumns;
+		String fromClause = timeKeyColumns.length() == 0 ? "%PREFIX%STEP_EXECUTION S"
+				: STEP_EXECUTIONS_WITH_TIME_SORT_KEYS;
+		return getPagingQueryProvider(selectClause, fromClause, "S.JOB_EXECUTION_ID = ?", sortKeys);
+	}
+
+	private PagingQueryProvider getPagingQueryProvider(String selectClause, String fromClause, String whereClause,
+			Map<String, Order> sortKeys) {
+		SqlPagingQueryProviderFactoryBean factory = new SqlPagingQueryProviderFactoryBean();
+		factory.setDataSource(dataSource);
+		factory.setDatabaseType(databaseType.name());
+		factory.setFromClause(getQuery(fromClause));
+		factory.setSelectClause(selectClause);
 		factory.setSortKeys(sortKeys);
 		if (whereClause != null) {
-			factory.setWhereClause(whereClause
-					+ " AND S.JOB_EXECUTION_ID = J.JOB_EXECUTION_ID AND J.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID");
+			factory.setWhereClause(whereClause);
 		}
 		try {
 			return (PagingQueryProvider) factory.getObject();
@@ -198,21 +891,44 @@ public class JdbcSearchableStepExecutionDao extends JdbcStepExecutionDao impleme
 
 	private static class StepExecutionRowMapper implements RowMapper<StepExecution> {
 
+		private final Map<Long, JobExecution> parents;
+
+		public StepExecutionRowMapper() {
+			this(null);
+		}
+
+		/**
+		 * @param parents the job executions to attach the step executions to,
+		 * keyed by id (the query must also select the job execution id and
+		 * create time after the standard fields)
+		 */
+		public StepExecutionRowMapper(Map<Long, JobExecution> parents) {
+			this.parents = parents;
+		}
+
 		public StepExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
-			StepExecution stepExecution = new StepExecution(rs.getString(2), null);
-			stepExecution.setId(rs.getLong(1));
+			StepExecution stepExecution;
+			if (parents != null) {
+				// adds itself to the parent
+				stepExecution = new StepExecution(rs.getString(2), parents.get(rs.getLong(18)), rs.getLong(1));
+				stepExecution.setCreateTime(tsToLocalDateTime(rs.getTimestamp(19)));
+			}
+			else {
+				stepExecution = new StepExecution(rs.getString(2), null);
+				stepExecution.setId(rs.getLong(1));
+			}
 			stepExecution.setStartTime(tsToLocalDateTime(rs.getTimestamp(3)));
 			stepExecution.setEndTime(tsToLocalDateTime(rs.getTimestamp(4)));
 			stepExecution.setStatus(BatchStatus.valueOf(rs.getString(5)));
-			stepExecution.setCommitCount(rs.getInt(6));
-			stepExecution.setReadCount(rs.getInt(7));
-			stepExecution.setFilterCount(rs.getInt(8));
-			stepExecution.setWriteCount(rs.getInt(9));
+			stepExecution.setCommitCount(rs.getLong(6));
+			stepExecution.setReadCount(rs.getLong(7));
+			stepExecution.setFilterCount(rs.getLong(8));
+			stepExecution.setWriteCount(rs.getLong(9));
 			stepExecution.setExitStatus(new ExitStatus(rs.getString(10), rs.getString(11)));
-			stepExecution.setReadSkipCount(rs.getInt(12));
-			stepExecution.setWriteSkipCount(rs.getInt(13));
-			stepExecution.setProcessSkipCount(rs.getInt(14));
-			stepExecution.setRollbackCount(rs.getInt(15));
+			stepExecution.setReadSkipCount(rs.getLong(12));
+			stepExecution.setWriteSkipCount(rs.getLong(13));
+			stepExecution.setProcessSkipCount(rs.getLong(14));
+			stepExecution.setRollbackCount(rs.getLong(15));
 			stepExecution.setLastUpdated(tsToLocalDateTime(rs.getTimestamp(16)));
 			stepExecution.setVersion(rs.getInt(17));
 			return stepExecution;
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.jdbc.core.ResultSetExtractor;
+
+/**
+ * JDBC implementation of {@link SerializedContextDao}. The long form of a
+ * context (SERIALIZED_CONTEXT, only set when it does not fit in SHORT_CONTEXT)
+ * is read through a character stream, so a context of several megabytes is
+ * never held in memory.
+ */
+public class JdbcSerializedContextDao extends AbstractJdbcBatchMetadataDao implements SerializedContextDao {
+
+	private static final String GET_JOB_EXECUTION_SHORT_CONTEXT = "SELECT SHORT_CONTEXT from %PREFIX%JOB_EXECUTION_CONTEXT "
+			+ "where JOB_EXECUTION_ID = ?";
+
+	private static final String GET_STEP_EXECUTION_SHORT_CONTEXT = "SELECT SHORT_CONTEXT from %PREFIX%STEP_EXECUTION_CONTEXT "
+			+ "where STEP_EXECUTION_ID = ?";
+
+	private static final String GET_JOB_EXECUTION_CONTEXT = "SELECT SHORT_CONTEXT, SERIALIZED_CONTEXT from %PREFIX%JOB_EXECUTION_CONTEXT "
+			+ "where JOB_EXECUTION_ID = ?";
+
+	private static final String GET_STEP_EXECUTION_CONTEXT = "SELECT SHORT_CONTEXT, SERIALIZED_CONTEXT from %PREFIX%STEP_EXECUTION_CONTEXT "
+			+ "where STEP_EXECUTION_ID = ?";
+
+	private static final int BUFFER_SIZE = 8192;
+
+	@Override
+	public String getJobExecutionShortContext(Long jobExecutionId) {
+		return getShortContext(GET_JOB_EXECUTION_SHORT_CONTEXT, jobExecutionId);
+	}
+
+	@Override
+	public String getStepExecutionShortContext(Long stepExecutionId) {
+		return getShortContext(GET_STEP_EXECUTION_SHORT_CONTEXT, stepExecutionId);
+	}
+
+	@Override
+	public boolean writeJobExecutionContext(Long jobExecutionId, Writer writer, int maxLength) throws IOException {
+		return writeContext(GET_JOB_EXECUTION_CONTEXT, jobExecutionId, writer, maxLength);
+	}
+
+	@Override
+	public boolean writeStepExecutionContext(Long stepExecutionId, Writer writer, int maxLength) throws IOException {
+		return writeContext(GET_STEP_EXECUTION_CONTEXT, stepExecutionId, writer, maxLength);
+	}
+
+	private String getShortContext(String sql, Long id) {
+		List<String> contexts = getJdbcTemplate().queryForList(getQuery(sql), String.class, id);
+		return contexts.isEmpty() ? null : contexts.get(0);
+	}
+
+	private boolean writeContext(String sql, Long id, Writer writer, int maxLength) throws IOException {
+		try {
+			return getJdbcTemplate().query(getQuery(sql), (ResultSetExtractor<Boolean>) rs -> {
+				if (!rs.next()) {
+					return false;
+				}
+				try (Reader reader = rs.getCharacterStream(2)) {
+					if (reader == null) {
+						String context = rs.getString(1);
+						if (context == null) {
+							return false;
+						}
+						writer.write(context, 0, Math.min(context.length(), maxLength));
+						return context.length() > maxLength;
+					}
+					return copy(reader, writer, maxLength);
+				}
+				catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}, id);
+		}
+		catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static boolean copy(Reader reader, Writer writer, int maxLength) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		int remaining = maxLength;
+		int read;
+		while (remaining > 0 && (read = reader.read(buffer, 0, Math.min(buffer.length, remaining))) != -1) {
+			writer.write(buffer, 0, read);
+			remaining -= read;
+		}
+		return remaining == 0 && reader.read() != -1;
+	}
+
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.batch.admin.domain.CumulativeHistory;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.core.repository.dao.AbstractJdbcBatchMetadataDao;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.util.StringUtils;
+
+/**
+ * {@link StepExecutionHistoryStore} that keeps the snapshots in a table next
+ * to the batch meta data, so they survive restarts and are shared between
+ * instances. The table is not part of the Spring Batch schema and has to be
+ * created separately, e.g.
+ * 
+ * <pre>
+ * CREATE TABLE BATCH_STEP_EXECUTION_HISTORY (
+ *   JOB_NAME VARCHAR(100) NOT NULL,
+ *   STEP_NAME VARCHAR(100) NOT NULL,
+ *   HIGH_WATER_MARK BIGINT NOT NULL,
+ *   HISTORY VARCHAR(2500) NOT NULL,
+ *   LAST_UPDATED TIMESTAMP,
+ *   constraint STEP_EXECUTION_HISTORY_PK primary key (JOB_NAME, STEP_NAME)
+ * );
+ * </pre>
+ * 
+ * The accumulators are stored as text in the HISTORY column (the execution
+ * count, then count, sum, sum of squares, min and max for each metric,
+ * followed by the ids of the pending step executions if there are any).
+ */
+public class JdbcStepExecutionHistoryStore extends AbstractJdbcBatchMetadataDao implements StepExecutionHistoryStore {
+
+	private static final String GET_SNAPSHOT = "SELECT HIGH_WATER_MARK, HISTORY from %PREFIX%STEP_EXECUTION_HISTORY "
+			+ "where JOB_NAME = ? and STEP_NAME = ?";
+
+	private static final String UPDATE_SNAPSHOT = "UPDATE %PREFIX%STEP_EXECUTION_HISTORY set HIGH_WATER_MARK = ?, "
+			+ "HISTORY = ?, LAST_UPDATED = ? where JOB_NAME = ? and STEP_NAME = ? and HIGH_WATER_MARK < ?";
+
+	private static final String REPLACE_SNAPSHOT = "UPDATE %PREFIX%STEP_EXECUTION_HISTORY set HISTORY = ?, "
+			+ "LAST_UPDATED = ? where JOB_NAME = ? and STEP_NAME = ? and HIGH_WATER_MARK = ? and HISTORY = ?";
+
+	private static final String INSERT_SNAPSHOT = "INSERT into %PREFIX%STEP_EXECUTION_HISTORY "
+			+ "(JOB_NAME, STEP_NAME, HIGH_WATER_MARK, HISTORY, LAST_UPDATED) values (?, ?, ?, ?, ?)";
+
+	@Override
+	public StepExecutionHistorySnapshot getSnapshot(String jobName, String stepName) {
+		List<StepExecutionHistorySnapshot> snapshots = getJdbcTemplate().query(getQuery(GET_SNAPSHOT),
+				(rs, rowNum) -> parse(jobName, stepName, rs.getLong(1), rs.getString(2)), jobName, stepName);
+		return snapshots.isEmpty() ? null : snapshots.get(0);
+	}
+
+	@Override
+	public void saveSnapshot(StepExecutionHistorySnapshot snapshot) {
+		String history = format(snapshot);
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		int updated = getJdbcTemplate().update(getQuery(UPDATE_SNAPSHOT), snapshot.getHighWaterMark(), history, now,
+				snapshot.getJobName(), snapshot.getStepName(), snapshot.getHighWaterMark());
+		if (updated > 0) {
+			return;
+		}
+		List<String> saved = getJdbcTemplate().query(getQuery(GET_SNAPSHOT), (rs, rowNum) -> {
+			StepExecutionHistorySnapshot current = parse(snapshot.getJobName(), snapshot.getStepName(),
+					rs.getLong(1), rs.getString(2));
+			return snapshot.supersedes(current) ? rs.getString(2) : null;
+		}, snapshot.getJobName(), snapshot.getStepName());
+		if (!saved.isEmpty()) {
+			if (saved.get(0) != null) {
+				// same water mark with fewer pending step executions, unless
+				// another instance changed it meanwhile
+				getJdbcTemplate().update(getQuery(REPLACE_SNAPSHOT), history, now, snapshot.getJobName(),
+						snapshot.getStepName(), snapshot.getHighWaterMark(), saved.get(0));
+			}
+			// otherwise there is already a snapshot at least as recent
+			return;
+		}
+		try {
+			getJdbcTemplate().update(getQuery(INSERT_SNAPSHOT), snapshot.getJobName(), snapshot.getStepName(),
+					snapshot.getHighWaterMark(), history, now);
+		}
+		catch (DuplicateKeyException e) {
+			// another instance saved one first, which is just as good
+		}
+	}
+
+	private static String format(StepExecutionHistorySnapshot snapshot) {
+		StepExecutionHistory history = snapshot.getHistory();
+		StringBuilder builder = new StringBuilder().append(history.getCount());
+		for (CumulativeHistory metric : getMetrics(history)) {
+			builder.append(';').append(metric.getCount()).append(',').append(metric.getSum()).append(',')
+					.append(metric.getSumSquares()).append(',').append(metric.getMin()).append(',')
+					.append(metric.getMax());
+		}
+		if (!snapshot.getPendingStepExecutionIds().isEmpty()) {
+			builder.append(';').append(StringUtils.collectionToCommaDelimitedString(
+					snapshot.getPendingStepExecutionIds()));
+		}
+		return builder.toString();
+	}
+
+	private static StepExecutionHistorySnapshot parse(String jobName, String stepName, long highWaterMark,
+			String value) {
+		String[] groups = value.split(";");
+		CumulativeHistory[] metrics = new CumulativeHistory[10];
+		for (int i = 0; i < metrics.length; i++) {
+			String[] values = groups[i + 1].split(",");
+			metrics[i] = new CumulativeHistory(Integer.parseInt(values[0]), Double.parseDouble(values[1]),
+					Double.parseDouble(values[2]), Double.parseDouble(values[3]), Double.parseDouble(values[4]));
+		}
+		Set<Long> pending = new TreeSet<Long>();
+		if (groups.length > metrics.length + 1) {
+			for (String id : groups[metrics.length + 1].split(",")) {
+				pending.add(Long.valueOf(id));
+			}
+		}
+		return new StepExecutionHistorySnapshot(jobName, stepName,
+				new StepExecutionHistory(stepName, Integer.parseInt(groups[0]), metrics[0], metrics[1], metrics[2],
+						metrics[3], metrics[4], metrics[5], metrics[6], metrics[7], metrics[8], metrics[9]),
+				highWaterMark, pending);
+	}
+
+	private static CumulativeHistory[] getMetrics(StepExecutionHistory history) {
+		return new CumulativeHistory[] { history.getCommitCount(), history.getRollbackCount(),
+				history.getReadCount(), history.getWriteCount(), history.getFilterCount(),
+				history.getReadSkipCount(), history.getWriteSkipCount(), history.getProcessSkipCount(),
+				history.getDuration(), history.getDurationPerRead() };
+	}
+
+}
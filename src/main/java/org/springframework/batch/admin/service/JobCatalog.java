@@ -0,0 +1,156 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.core.configuration.ListableJobLocator;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * The names of the jobs known to a {@link JobService}: those registered with
+ * the {@link ListableJobLocator}, JSR-352 jobs defined in
+ * <code>META-INF/batch-jobs</code>, and historic jobs that only exist in the
+ * repository. The classpath scan and the repository query are done once (on
+ * first use) and then answered from memory until {@link #refresh()}. The
+ * locator is always consulted directly since jobs can be registered at any
+ * time and the lookup is cheap.
+ */
+public class JobCatalog {
+
+	private static final Log logger = LogFactory.getLog(JobCatalog.class);
+
+	private static final String JSR_JOB_LOCATION = "classpath*:/META-INF/batch-jobs/**/*.xml";
+
+	private final ListableJobLocator jobLocator;
+
+	private final SearchableJobInstanceDao jobInstanceDao;
+
+	private volatile Set<String> jsrJobNames;
+
+	private volatile Set<String> historicJobNames;
+
+	public JobCatalog(ListableJobLocator jobLocator, SearchableJobInstanceDao jobInstanceDao) {
+		this.jobLocator = jobLocator;
+		this.jobInstanceDao = jobInstanceDao;
+	}
+
+	/**
+	 * Rescan the classpath for JSR-352 jobs and reload the historic job names
+	 * from the repository (e.g. after jobs have been run from another
+	 * instance).
+	 */
+	public synchronized void refresh() {
+		jsrJobNames = Collections.unmodifiableSet(scanJsrJobNames());
+		historicJobNames = Collections.unmodifiableSet(new TreeSet<String>(jobInstanceDao.getJobNames()));
+	}
+
+	/**
+	 * @return all the job names: registered jobs first, then JSR-352 jobs, then
+	 * historic jobs in alphabetical order, without duplicates
+	 */
+	public Collection<String> getJobNames() {
+		Set<String> names = new LinkedHashSet<String>(jobLocator.getJobNames());
+		names.addAll(getJsrJobNames());
+		names.addAll(getHistoricJobNames());
+		return names;
+	}
+
+	/**
+	 * @param jobName a job name
+	 * @return true if the job can be launched (it is registered or is a JSR-352
+	 * job)
+	 */
+	public boolean isLaunchable(String jobName) {
+		return jobLocator.getJobNames().contains(jobName) || isJsrJob(jobName);
+	}
+
+	/**
+	 * @param jobName a job name
+	 * @return true if the job is a JSR-352 job
+	 */
+	public boolean isJsrJob(String jobName) {
+		return getJsrJobNames().contains(jobName);
+	}
+
+	/**
+	 * Check if a job exists, either current or historic. A name that is not
+	 * known yet is looked up in the repository (it may have been run from
+	 * another instance) and remembered if it is found there.
+	 * 
+	 * @param jobName a job name
+	 * @return true if the job exists
+	 */
+	public boolean exists(String jobName) {
+		if (isLaunchable(jobName) || getHistoricJobNames().contains(jobName)) {
+			return true;
+		}
+		if (jobInstanceDao.countJobInstances(jobName) > 0) {
+			addHistoricJobName(jobName);
+			return true;
+		}
+		return false;
+	}
+
+	private Set<String> getJsrJobNames() {
+		if (jsrJobNames == null) {
+			refresh();
+		}
+		return jsrJobNames;
+	}
+
+	private Set<String> getHistoricJobNames() {
+		if (historicJobNames == null) {
+			refresh();
+		}
+		return historicJobNames;
+	}
+
+	private synchronized void addHistoricJobName(String jobName) {
+		Set<String> names = new TreeSet<String>(getHistoricJobNames());
+		names.add(jobName);
+		historicJobNames = Collections.unmodifiableSet(names);
+	}
+
+	private Set<String> scanJsrJobNames() {
+
+		Set<String> jsr352JobNames = new HashSet<String>();
+
+		try {
+			Resource[] resources = new PathMatchingResourcePatternResolver().getResources(JSR_JOB_LOCATION);
+
+			for (Resource resource : resources) {
+				String jobXmlFileName = resource.getFilename();
+				jsr352JobNames.add(jobXmlFileName.substring(0, jobXmlFileName.length() - 4));
+			}
+		}
+		catch (IOException e) {
+			logger.debug("Unable to list JSR-352 batch jobs", e);
+		}
+
+		return jsr352JobNames;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.List;
+
+import org.springframework.batch.core.JobExecution;
+
+/**
+ * Writes the status of job executions for the bulk operations (stop and
+ * abandon), which update many of them at once. The searchable DAOs are read
+ * only, so this is the one place where the admin service writes to the job
+ * execution table directly instead of through the job repository.
+ */
+public interface JobExecutionStatusDao {
+
+	/**
+	 * Save the status and end time of some job executions in one batch. Each
+	 * row is only updated if its version is still the one in the execution
+	 * (whose version is then incremented), so a concurrent change is not
+	 * overwritten.
+	 * 
+	 * @param jobExecutions the job executions to update
+	 * @return for each execution, whether it was updated
+	 */
+	boolean[] updateJobExecutionStatuses(List<JobExecution> jobExecutions);
+
+}
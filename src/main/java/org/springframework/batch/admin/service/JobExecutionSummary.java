@@ -0,0 +1,72 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+
+/**
+ * A job execution without its step executions, with the number of step
+ * executions in each status instead, so that a job with thousands of
+ * partitions can be shown without loading them all.
+ */
+public class JobExecutionSummary {
+
+	private final JobExecution jobExecution;
+
+	private final Map<BatchStatus, Integer> stepExecutionCounts;
+
+	private final int stepExecutionCount;
+
+	/**
+	 * @param jobExecution the job execution (with no step executions)
+	 * @param stepExecutionCounts the number of step executions in each status
+	 */
+	public JobExecutionSummary(JobExecution jobExecution, Map<BatchStatus, Integer> stepExecutionCounts) {
+		this.jobExecution = jobExecution;
+		this.stepExecutionCounts = Collections.unmodifiableMap(stepExecutionCounts);
+		this.stepExecutionCount = stepExecutionCounts.values().stream().mapToInt(Integer::intValue).sum();
+	}
+
+	public JobExecution getJobExecution() {
+		return jobExecution;
+	}
+
+	/**
+	 * @return the number of step executions in each status (statuses with none
+	 * are left out)
+	 */
+	public Map<BatchStatus, Integer> getStepExecutionCounts() {
+		return stepExecutionCounts;
+	}
+
+	/**
+	 * @return the total number of step executions
+	 */
+	public int getStepExecutionCount() {
+		return stepExecutionCount;
+	}
+
+	@Override
+	public String toString() {
+		return "JobExecutionSummary: jobExecution=" + jobExecution.getId() + ", stepExecutionCounts="
+				+ stepExecutionCounts;
+	}
+
+}
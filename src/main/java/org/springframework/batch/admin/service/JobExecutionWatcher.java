@@ -0,0 +1,476 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.admin.domain.JobExecutionChange;
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.StepExecutionDelta;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * Watches job executions for changes on behalf of any number of subscribers.
+ * A single background thread polls the job repository for all the watched
+ * executions at once (one query for the job executions and one for the steps
+ * of those still running that were updated since the previous poll),
+ * compares VERSION and LAST_UPDATED with what it saw last time, and passes
+ * each change to every subscriber of that execution. The cost of watching
+ * therefore depends on the number of executions watched and how much they
+ * change, not on the number of subscribers or on the steps that are idle.
+ * Executions that have finished are not polled again, and an execution is
+ * forgotten when its last subscriber cancels.
+ * <p>
+ * The changes are handed to the subscribers on a separate executor, in order
+ * for each subscriber, so that a slow one (e.g. a client that has stopped
+ * reading) does not hold up the others or the polling. A subscriber that
+ * falls too far behind is unsubscribed.
+ */
+public class JobExecutionWatcher implements DisposableBean {
+
+	private static final Log logger = LogFactory.getLog(JobExecutionWatcher.class);
+
+	private final JobService jobService;
+
+	private final Map<Long, Watch> watches = new ConcurrentHashMap<Long, Watch>();
+
+	private final AtomicLong pollCount = new AtomicLong();
+
+	private long pollInterval = 1000;
+
+	private long updateMargin = 5000;
+
+	private int maxBacklog = 100;
+
+	private volatile Executor deliveryExecutor;
+
+	private ExecutorService defaultDeliveryExecutor;
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * When the last successful poll started (null before the first one).
+	 */
+	private LocalDateTime lastPoll;
+
+	public JobExecutionWatcher(JobService jobService) {
+		this.jobService = jobService;
+	}
+
+	/**
+	 * @param pollInterval the time between polls in milliseconds (default
+	 * 1000)
+	 */
+	public void setPollInterval(long pollInterval) {
+		this.pollInterval = pollInterval;
+	}
+
+	/**
+	 * The step executions are read again if they were updated since the
+	 * previous poll, less this margin, which covers updates that commit late
+	 * and clocks that differ between the processes writing LAST_UPDATED.
+	 * 
+	 * @param updateMargin the margin in milliseconds (default 5000)
+	 */
+	public void setUpdateMargin(long updateMargin) {
+		this.updateMargin = updateMargin;
+	}
+
+	/**
+	 * @param maxBacklog the number of changes a subscriber can have waiting to
+	 * be delivered before it is unsubscribed (default 100)
+	 */
+	public void setMaxBacklog(int maxBacklog) {
+		this.maxBacklog = maxBacklog;
+	}
+
+	/**
+	 * @param deliveryExecutor the executor that calls the listeners (default a
+	 * cached pool of daemon threads)
+	 */
+	public void setDeliveryExecutor(Executor deliveryExecutor) {
+		this.deliveryExecutor = deliveryExecutor;
+	}
+
+	/**
+	 * Subscribe to the changes of a job execution. If the execution has been
+	 * seen already the listener is called straight away with its current
+	 * state (with no previous status and the full step counts), otherwise the
+	 * first poll does that. Listeners are called on the delivery executor,
+	 * one change at a time for each subscription. A listener that throws an
+	 * exception is unsubscribed, and so is one that blocks for so long that
+	 * more than the maximum backlog of changes are waiting for it.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param listener the callback for changes
+	 * @return the subscription (to cancel when no longer interested)
+	 */
+	public Subscription subscribe(Long jobExecutionId, Consumer<JobExecutionChange> listener) {
+		Subscription subscription = new Subscription(jobExecutionId, listener);
+		JobExecutionChange[] snapshot = new JobExecutionChange[1];
+		watches.compute(jobExecutionId, (id, watch) -> {
+			if (watch == null) {
+				watch = new Watch();
+			}
+			watch.subscriptions.add(subscription);
+			snapshot[0] = watch.snapshot();
+			return watch;
+		});
+		start();
+		if (snapshot[0] != null) {
+			deliver(subscription, snapshot[0]);
+		}
+		return subscription;
+	}
+
+	/**
+	 * Check all the watched executions that have not finished for changes,
+	 * and notify their subscribers. Called periodically once there has been a
+	 * subscription.
+	 */
+	public void poll() {
+		List<Long> ids = new ArrayList<Long>();
+		for (Map.Entry<Long, Watch> entry : watches.entrySet()) {
+			if (!entry.getValue().isFinished()) {
+				ids.add(entry.getKey());
+			}
+		}
+		if (ids.isEmpty()) {
+			return;
+		}
+		pollCount.incrementAndGet();
+		LocalDateTime started = LocalDateTime.now();
+
+		Map<Long, JobExecutionRecord> jobExecutions = new HashMap<Long, JobExecutionRecord>();
+		List<Long> running = new ArrayList<Long>();
+		List<Long> unread = new ArrayList<Long>();
+		for (JobExecutionRecord jobExecution : jobService.getJobExecutionRecords(ids)) {
+			jobExecutions.put(jobExecution.id(), jobExecution);
+			Watch watch = watches.get(jobExecution.id());
+			// the steps of an execution that is not running only need reading
+			// once more, when it is seen to stop
+			if (watch != null && (jobExecution.status().isRunning() || watch.hasChanged(jobExecution))) {
+				(watch.isStepsRead() && lastPoll != null ? running : unread).add(jobExecution.id());
+			}
+		}
+		Map<Long, List<StepExecutionRecord>> stepExecutions = new HashMap<Long, List<StepExecutionRecord>>();
+		if (!unread.isEmpty()) {
+			group(stepExecutions, jobService.getStepExecutionRecords(unread));
+		}
+		if (!running.isEmpty()) {
+			// only the steps that may have changed since they were last read
+			group(stepExecutions, jobService.getStepExecutionRecords(running,
+					lastPoll.minus(updateMargin, ChronoUnit.MILLIS)));
+		}
+
+		for (Long id : ids) {
+			Watch watch = watches.get(id);
+			if (watch == null) {
+				continue;
+			}
+			JobExecutionChange change = watch.update(jobExecutions.get(id),
+					stepExecutions.getOrDefault(id, List.of()));
+			if (change != null) {
+				for (Subscription subscription : watch.subscriptions) {
+					deliver(subscription, change);
+				}
+			}
+		}
+		lastPoll = started;
+	}
+
+	/**
+	 * @return the number of job executions being watched
+	 */
+	public int getWatchedCount() {
+		return watches.size();
+	}
+
+	/**
+	 * @return the number of subscriptions across all job executions
+	 */
+	public int getSubscriberCount() {
+		int count = 0;
+		for (Watch watch : watches.values()) {
+			count += watch.subscriptions.size();
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of polls that queried the job repository
+	 */
+	public long getPollCount() {
+		return pollCount.get();
+	}
+
+	@Override
+	public synchronized void destroy() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+		if (defaultDeliveryExecutor != null) {
+			defaultDeliveryExecutor.shutdownNow();
+			defaultDeliveryExecutor = null;
+			deliveryExecutor = null;
+		}
+	}
+
+	private synchronized void start() {
+		if (scheduler != null) {
+			return;
+		}
+		if (deliveryExecutor == null) {
+			defaultDeliveryExecutor = Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "job-execution-watcher-delivery");
+				thread.setDaemon(true);
+				return thread;
+			});
+			deliveryExecutor = defaultDeliveryExecutor;
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "job-execution-watcher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				poll();
+			}
+			catch (RuntimeException e) {
+				// keep polling: the next tick may well succeed
+				logger.warn("Cannot poll watched job executions", e);
+			}
+		}, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+	}
+
+	private static void group(Map<Long, List<StepExecutionRecord>> stepExecutions,
+			Collection<StepExecutionRecord> records) {
+		for (StepExecutionRecord stepExecution : records) {
+			stepExecutions.computeIfAbsent(stepExecution.jobExecutionId(), id -> new ArrayList<StepExecutionRecord>())
+					.add(stepExecution);
+		}
+	}
+
+	private void deliver(Subscription subscription, JobExecutionChange change) {
+		if (subscription.cancelled) {
+			return;
+		}
+		if (subscription.backlogSize.incrementAndGet() > maxBacklog) {
+			logger.debug("Unsubscribing listener for job execution " + subscription.jobExecutionId
+					+ " that has fallen " + maxBacklog + " changes behind");
+			subscription.cancel();
+			return;
+		}
+		subscription.backlog.add(change);
+		subscription.drain();
+	}
+
+	private void unsubscribe(Subscription subscription) {
+		watches.computeIfPresent(subscription.jobExecutionId, (id, watch) -> {
+			watch.subscriptions.remove(subscription);
+			return watch.subscriptions.isEmpty() ? null : watch;
+		});
+	}
+
+	/**
+	 * Interest in the changes of one job execution.
+	 */
+	public final class Subscription {
+
+		private final Long jobExecutionId;
+
+		private final Consumer<JobExecutionChange> listener;
+
+		private final Queue<JobExecutionChange> backlog = new ConcurrentLinkedQueue<JobExecutionChange>();
+
+		private final AtomicInteger backlogSize = new AtomicInteger();
+
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private volatile boolean cancelled;
+
+		private Subscription(Long jobExecutionId, Consumer<JobExecutionChange> listener) {
+			this.jobExecutionId = jobExecutionId;
+			this.listener = listener;
+		}
+
+		/**
+		 * Make sure there is a task delivering the backlog (at most one at a
+		 * time, so that the changes arrive in order).
+		 */
+		private void drain() {
+			if (!draining.compareAndSet(false, true)) {
+				return;
+			}
+			Executor executor = deliveryExecutor;
+			try {
+				if (executor == null) {
+					throw new RejectedExecutionException("Not started");
+				}
+				executor.execute(this::deliverBacklog);
+			}
+			catch (RejectedExecutionException e) {
+				// shutting down
+				draining.set(false);
+				cancel();
+			}
+		}
+
+		private void deliverBacklog() {
+			JobExecutionChange change;
+			while (!cancelled && (change = backlog.poll()) != null) {
+				backlogSize.decrementAndGet();
+				try {
+					listener.accept(change);
+				}
+				catch (RuntimeException e) {
+					logger.debug("Unsubscribing listener for job execution " + jobExecutionId, e);
+					cancel();
+				}
+			}
+			draining.set(false);
+			if (!cancelled && !backlog.isEmpty()) {
+				// added after the last poll but before the flag was cleared
+				drain();
+			}
+		}
+
+		public Long getJobExecutionId() {
+			return jobExecutionId;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		/**
+		 * Stop receiving changes. Safe to call more than once.
+		 */
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				unsubscribe(this);
+			}
+		}
+
+	}
+
+	/**
+	 * The last state seen of one job execution and its subscribers.
+	 */
+	private static class Watch {
+
+		private final Collection<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+
+		private final Map<Long, StepExecutionRecord> stepExecutions = new LinkedHashMap<Long, StepExecutionRecord>();
+
+		private JobExecutionRecord jobExecution;
+
+		private volatile boolean finished;
+
+		private volatile boolean stepsRead;
+
+		boolean isFinished() {
+			return finished;
+		}
+
+		/**
+		 * @return true once all the steps have been read (after that only the
+		 * ones that changed are)
+		 */
+		boolean isStepsRead() {
+			return stepsRead;
+		}
+
+		synchronized boolean hasChanged(JobExecutionRecord current) {
+			return jobExecution == null || jobExecution.version() != current.version()
+					|| !Objects.equals(jobExecution.lastUpdated(), current.lastUpdated());
+		}
+
+		/**
+		 * @return the change since the last update, or null if there is none
+		 */
+		synchronized JobExecutionChange update(JobExecutionRecord current, List<StepExecutionRecord> steps) {
+			if (current == null) {
+				// deleted (or never existed): nothing more to see
+				finished = true;
+				return null;
+			}
+			stepsRead = true;
+			List<StepExecutionDelta> deltas = new ArrayList<StepExecutionDelta>();
+			for (StepExecutionRecord step : steps) {
+				StepExecutionRecord previous = stepExecutions.get(step.id());
+				if (previous == null || previous.version() != step.version()
+						|| !Objects.equals(previous.lastUpdated(), step.lastUpdated())) {
+					deltas.add(StepExecutionDelta.of(previous, step));
+					stepExecutions.put(step.id(), step);
+				}
+			}
+			if (!hasChanged(current) && deltas.isEmpty()) {
+				return null;
+			}
+			JobExecutionChange change = new JobExecutionChange(current,
+					jobExecution == null ? null : jobExecution.status(), deltas);
+			jobExecution = current;
+			finished = change.isFinished();
+			return change;
+		}
+
+		/**
+		 * @return the whole state seen so far as a change from nothing, or null
+		 * if nothing has been seen yet
+		 */
+		synchronized JobExecutionChange snapshot() {
+			if (jobExecution == null) {
+				return null;
+			}
+			List<StepExecutionDelta> deltas = new ArrayList<StepExecutionDelta>();
+			for (StepExecutionRecord step : stepExecutions.values()) {
+				deltas.add(StepExecutionDelta.of(null, step));
+			}
+			return new JobExecutionChange(jobExecution, null, deltas);
+		}
+
+	}
+
+}
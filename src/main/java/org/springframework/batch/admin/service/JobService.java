@@ -15,8 +15,20 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.JobInfo;
+import org.springframework.batch.admin.domain.JobInstanceRecord;
+import org.springframework.batch.admin.domain.PartitionRollup;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
@@ -32,6 +44,7 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.batch.core.step.NoSuchStepException;
 import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.item.ExecutionContext;
 
 /**
  * Interface for general purpose monitoring and management of Batch jobs. The
@@ -54,6 +67,16 @@ public interface JobService {
 	 */
 	boolean isLaunchable(String jobName);
 
+	/**
+	 * Check that a job is known, either launchable or in the repository,
+	 * without reading its executions, e.g. before starting a response that
+	 * cannot be taken back.
+	 * 
+	 * @param jobName the name of the job
+	 * @throws NoSuchJobException if the job name cannot be located
+	 */
+	void checkJobExists(String jobName) throws NoSuchJobException;
+
 	/**
 	 * Launch a job with the parameters provided. If an instance with the parameters
 	 * provided has already failed (and is not abandoned) it will be restarted.
@@ -67,10 +90,13 @@ public interface JobService {
 	 * @throws JobRestartException
 	 * @throws JobInstanceAlreadyCompleteException
 	 * @throws JobParametersInvalidException
+	 * @throws LaunchRejectedException if the launch queue is full or the job is
+	 * already running as many times as it is allowed to
 	 */
 	JobExecution launch(String jobName, JobParameters params)
             throws NoSuchJobException, JobExecutionAlreadyRunningException, JobRestartException,
-            JobInstanceAlreadyCompleteException, JobParametersInvalidException, JobInstanceAlreadyExistsException;
+            JobInstanceAlreadyCompleteException, JobParametersInvalidException, JobInstanceAlreadyExistsException,
+            LaunchRejectedException;
 
 	/**
 	 * Get the last {@link JobParameters} used to execute a job successfully.
@@ -95,9 +121,12 @@ public interface JobService {
 	 * @throws JobInstanceAlreadyCompleteException
 	 * @throws NoSuchJobException
 	 * @throws JobParametersInvalidException
+	 * @throws LaunchRejectedException if the launch queue is full or the job is
+	 * already running as many times as it is allowed to
 	 */
 	JobExecution restart(Long jobExecutionId) throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException,
-			JobRestartException, JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException;
+			JobRestartException, JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException,
+			LaunchRejectedException;
 
 	/**
 	 * Launch a job with the parameters provided. JSR-352 supports restarting of
@@ -113,10 +142,13 @@ public interface JobService {
 	 * @throws JobInstanceAlreadyCompleteException
 	 * @throws NoSuchJobException
 	 * @throws JobParametersInvalidException
+	 * @throws LaunchRejectedException if the launch queue is full or the job is
+	 * already running as many times as it is allowed to
 	 */
 	JobExecution restart(Long jobExecutionId, JobParameters params)
 			throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException, JobRestartException,
-			JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException;
+			JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException,
+			LaunchRejectedException;
 
 	/**
 	 * Send a signal to a job execution to stop processing. This method does not
@@ -158,6 +190,19 @@ public interface JobService {
 	 */
 	Collection<String> listJobs(int start, int count);
 
+	/**
+	 * Summarise the jobs returned by {@link #listJobs(int, int)}: execution count,
+	 * status and start time of the last execution, and whether the job can be
+	 * launched or incremented. The execution data for the whole page comes from
+	 * a single grouped query.
+	 * 
+	 * @param start the start index of the jobs to return
+	 * @param count the maximum number of jobs to return
+	 * @return a {@link JobInfo} for each job, in the same order as
+	 *         {@link #listJobs(int, int)}
+	 */
+	Collection<JobInfo> listJobSummaries(int start, int count);
+
 	/**
 	 * Count the total number of jobs that can be returned by
 	 * {@link #listJobs(int, int)}.
@@ -197,6 +242,22 @@ public interface JobService {
 	 */
 	int countJobInstances(String jobName) throws NoSuchJobException;
 
+	/**
+	 * List the {@link JobInstance job instances} of a job in descending order of
+	 * creation, each with all its {@link JobExecution job executions} (in reverse
+	 * order of primary key, with their step executions). The number of queries
+	 * needed does not depend on the number of instances on the page.
+	 * 
+	 * @param jobName the name of the job
+	 * @param start   the index of the first instance to return
+	 * @param count   the maximum number of instances to return
+	 * @return the job instances mapped to their executions, in the same order as
+	 *         {@link #listJobInstances(String, int, int)}
+	 * @throws NoSuchJobException
+	 */
+	Map<JobInstance, Collection<JobExecution>> listJobInstancesWithExecutions(String jobName, int start, int count)
+			throws NoSuchJobException;
+
 	/**
 	 * List the {@link JobExecution job executions} for a job in descending order of
 	 * creation (usually close to execution order).
@@ -209,11 +270,27 @@ public interface JobService {
 	 */
 	Collection<JobExecution> listJobExecutionsForJob(String jobName, int start, int count) throws NoSuchJobException;
 
+	/**
+	 * List the {@link JobExecution job executions} for a job in descending order of
+	 * creation, starting with the first one older than the execution id provided.
+	 * The result carries a continuation token that can be passed back in to get
+	 * the next page, and every page costs the same to fetch.
+	 * 
+	 * @param jobName             the job name
+	 * @param afterJobExecutionId the continuation token from the previous page, or
+	 *                            null for the first page
+	 * @param count               the maximum number of executions to return
+	 * @return a page of {@link JobExecution}
+	 * @throws NoSuchJobException
+	 */
+	ContinuationPage<JobExecution> listJobExecutionsForJobAfter(String jobName, Long afterJobExecutionId, int count)
+			throws NoSuchJobException;
+
 	/**
 	 * Count the job executions in the repository for a job.
 	 * 
 	 * @param jobName the job name
-	 * @return the number of executions
+	 * @return the number of executions (see {@link #isExecutionCountExact()})
 	 * @throws NoSuchJobException
 	 */
 	int countJobExecutionsForJob(String jobName) throws NoSuchJobException;
@@ -241,16 +318,42 @@ public interface JobService {
 	 */
 	Collection<JobExecution> listJobExecutions(int start, int count);
 
+	/**
+	 * List the {@link JobExecution job executions} in descending order of creation,
+	 * starting with the first one older than the execution id provided. The result
+	 * carries a continuation token that can be passed back in to get the next
+	 * page, and every page costs the same to fetch.
+	 * 
+	 * @param afterJobExecutionId the continuation token from the previous page, or
+	 *                            null for the first page
+	 * @param count               the maximum number of executions
+	 * @return a page of {@link JobExecution}
+	 */
+	ContinuationPage<JobExecution> listJobExecutionsAfter(Long afterJobExecutionId, int count);
+
 	/**
 	 * Count the maximum number of executions that could be returned by
 	 * {@link #listJobExecutions(int, int)}.
 	 * 
-	 * @return the number of job executions in the job repository
+	 * @return the number of job executions in the job repository (see
+	 * {@link #isExecutionCountExact()})
 	 */
 	int countJobExecutions();
 
 	/**
-	 * Get a {@link JobExecution} by id.
+	 * Whether the execution counts are exact. If not they may be cached,
+	 * estimated, or {@link CountStrategy#UNKNOWN} depending on the configured
+	 * {@link CountStrategy}.
+	 * 
+	 * @return true if the execution counts returned by this service are exact
+	 */
+	boolean isExecutionCountExact();
+
+	/**
+	 * Get a {@link JobExecution} by id. The execution context is not loaded
+	 * (see {@link #getJobExecutionContext(Long)}). Finished executions may come
+	 * from a cache, but each call returns its own copy, so changing it has no
+	 * effect on other callers (or on the repository).
 	 * 
 	 * @param jobExecutionId the job execution id
 	 * @return the {@link JobExecution}
@@ -270,6 +373,50 @@ public interface JobService {
 	 */
 	public Collection<StepExecution> getStepExecutions(Long jobExecutionId) throws NoSuchJobExecutionException;
 
+	/**
+	 * Get a page of the {@link StepExecution step executions} of a job
+	 * execution, without loading the others.
+	 * 
+	 * @param jobExecutionId the parent job execution id
+	 * @param sort the property to sort by (id, name, status, startTime,
+	 * endTime, readCount, writeCount, commitCount or rollbackCount)
+	 * @param ascending the sort direction
+	 * @param start the start index of the first step execution
+	 * @param count the maximum number of step executions to return
+	 * @return the step executions in the page
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	Collection<StepExecution> listStepExecutionsForJobExecution(Long jobExecutionId, String sort, boolean ascending,
+			int start, int count) throws NoSuchJobExecutionException;
+
+	/**
+	 * Get a job execution with the number of its step executions in each
+	 * status instead of the step executions themselves.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @return the summary
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	JobExecutionSummary getJobExecutionSummary(Long jobExecutionId) throws NoSuchJobExecutionException;
+
+	/**
+	 * Summarize the partitions of a partitioned step in a job execution:
+	 * totals and means of the item counts, the spread of the durations, the
+	 * status of each partition and the slowest partitions.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param stepName the name of the step that was partitioned (the part of
+	 * the partition step names before the colon)
+	 * @param slowest the number of slowest partitions to include
+	 * @return the rollup
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	PartitionRollup getPartitionRollup(Long jobExecutionId, String stepName, int slowest)
+			throws NoSuchJobExecutionException;
+
 	/**
 	 * List the {@link StepExecution step executions} for a step in descending order
 	 * of creation (usually close to execution order).
@@ -293,14 +440,28 @@ public interface JobService {
 	 * @param jobName  the job name (or a pattern with wildcards)
 	 * @param stepName the step name (or a pattern with wildcards)
 	 * 
-	 * @return the number of executions
+	 * @return the number of executions (see {@link #isExecutionCountExact()})
 	 * @throws NoSuchStepException
 	 */
 	int countStepExecutionsForStep(String jobName, String stepName) throws NoSuchStepException;
 
+	/**
+	 * Summarise all the finished executions of a step (or steps matching a
+	 * pattern), aggregated in the job repository rather than loaded. Where
+	 * possible only the executions since the last call are read.
+	 * 
+	 * @param jobName  the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * 
+	 * @return the history of the step
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName);
+
 	/**
 	 * Locate a {@link StepExecution} from its id and that of its parent
-	 * {@link JobExecution}.
+	 * {@link JobExecution}. The execution context is not loaded (see
+	 * {@link #getStepExecutionContext(Long, Long)}). As for
+	 * {@link #getJobExecution(Long)}, each call returns its own copy.
 	 * 
 	 * @param jobExecutionId  the job execution id
 	 * @param stepExecutionId the step execution id
@@ -312,6 +473,86 @@ public interface JobService {
 	StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId)
 			throws NoSuchStepExecutionException, NoSuchJobExecutionException;
 
+	/**
+	 * Load and deserialize the whole execution context of a job execution.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @return the execution context
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	ExecutionContext getJobExecutionContext(Long jobExecutionId) throws NoSuchJobExecutionException;
+
+	/**
+	 * Load and deserialize the whole execution context of a step execution.
+	 * 
+	 * @param jobExecutionId  the job execution id
+	 * @param stepExecutionId the step execution id
+	 * @return the execution context
+	 * 
+	 * @throws NoSuchStepExecutionException
+	 * @throws NoSuchJobExecutionException
+	 */
+	ExecutionContext getStepExecutionContext(Long jobExecutionId, Long stepExecutionId)
+			throws NoSuchStepExecutionException, NoSuchJobExecutionException;
+
+	/**
+	 * The short form of the serialized execution context of a job execution,
+	 * read without the long form and without deserializing it.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @return the start of the serialized context (or null if there is none)
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 */
+	String getJobExecutionContextPreview(Long jobExecutionId) throws NoSuchJobExecutionException;
+
+	/**
+	 * The short form of the serialized execution context of a step execution,
+	 * read without the long form and without deserializing it.
+	 * 
+	 * @param jobExecutionId  the job execution id
+	 * @param stepExecutionId the step execution id
+	 * @return the start of the serialized context (or null if there is none)
+	 * 
+	 * @throws NoSuchStepExecutionException
+	 * @throws NoSuchJobExecutionException
+	 */
+	String getStepExecutionContextPreview(Long jobExecutionId, Long stepExecutionId)
+			throws NoSuchStepExecutionException, NoSuchJobExecutionException;
+
+	/**
+	 * Stream the serialized execution context of a job execution to a writer,
+	 * stopping after a maximum number of characters.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param writer         where to write the context
+	 * @param maxLength      the maximum number of characters to write
+	 * @return true if the context was truncated
+	 * 
+	 * @throws NoSuchJobExecutionException
+	 * @throws IOException if the writer fails
+	 */
+	boolean writeJobExecutionContext(Long jobExecutionId, Writer writer, int maxLength)
+			throws NoSuchJobExecutionException, IOException;
+
+	/**
+	 * Stream the serialized execution context of a step execution to a
+	 * writer, stopping after a maximum number of characters.
+	 * 
+	 * @param jobExecutionId  the job execution id
+	 * @param stepExecutionId the step execution id
+	 * @param writer          where to write the context
+	 * @param maxLength       the maximum number of characters to write
+	 * @return true if the context was truncated
+	 * 
+	 * @throws NoSuchStepExecutionException
+	 * @throws NoSuchJobExecutionException
+	 * @throws IOException if the writer fails
+	 */
+	boolean writeStepExecutionContext(Long jobExecutionId, Long stepExecutionId, Writer writer, int maxLength)
+			throws NoSuchStepExecutionException, NoSuchJobExecutionException, IOException;
+
 	/**
 	 * Send a stop signal to all running job executions.
 	 * 
@@ -319,6 +560,41 @@ public interface JobService {
 	 */
 	int stopAll() throws NoSuchJobExecutionException, JobExecutionNotRunningException;
 
+	/**
+	 * Send a stop signal to the job executions that match a filter and have not
+	 * ended. The status changes are saved in one batch, each guarded by the
+	 * execution's version.
+	 * 
+	 * @param filter the filter
+	 * @return the outcome for each matching execution (and each id in the
+	 * filter)
+	 */
+	BulkOperationResult stopAll(ExecutionFilter filter);
+
+	/**
+	 * Mark the job executions that match a filter as abandoned, skipping those
+	 * that are running or complete. The status changes are saved in one batch,
+	 * each guarded by the execution's version.
+	 * 
+	 * @param filter the filter
+	 * @return the outcome for each matching execution (and each id in the
+	 * filter); without ids in the filter, executions that cannot be abandoned
+	 * are not read or reported
+	 */
+	BulkOperationResult abandonAll(ExecutionFilter filter);
+
+	/**
+	 * Restart the job executions that match a filter (the latest one of each
+	 * job instance). Each restart goes through the launch queue, so once it is
+	 * full the remaining executions are rejected.
+	 * 
+	 * @param filter the filter
+	 * @return the outcome for each matching execution (and each id in the
+	 * filter); without ids in the filter, only the latest execution of each
+	 * instance is read
+	 */
+	BulkOperationResult restartAll(ExecutionFilter filter);
+
 	/**
 	 * Check if a job has a {@link JobParametersIncrementer}.
 	 * 
@@ -336,4 +612,135 @@ public interface JobService {
 	 */
 	Collection<String> getStepNamesForJob(String jobName) throws NoSuchJobException;
 
+	/**
+	 * List flat projections of job executions in descending order of creation,
+	 * read straight from the repository without building the executions.
+	 * 
+	 * @param jobName             the job name, or null for all jobs
+	 * @param afterJobExecutionId the continuation token from the previous page,
+	 *                            or null for the first page
+	 * @param count               the maximum number of records to return
+	 * @return a page of records
+	 * @throws NoSuchJobException if the job name cannot be located
+	 */
+	ContinuationPage<JobExecutionRecord> listJobExecutionRecords(String jobName, Long afterJobExecutionId, int count)
+			throws NoSuchJobException;
+
+	/**
+	 * @param jobExecutionId the job execution id
+	 * @return a flat projection of the job execution
+	 * @throws NoSuchJobExecutionException
+	 */
+	JobExecutionRecord getJobExecutionRecord(Long jobExecutionId) throws NoSuchJobExecutionException;
+
+	/**
+	 * Read flat projections of some job executions in one query (e.g. to
+	 * check a group of them for changes).
+	 * 
+	 * @param jobExecutionIds the job execution ids
+	 * @return the records of the job executions that exist
+	 */
+	Collection<JobExecutionRecord> getJobExecutionRecords(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Read flat projections of all the step executions of some job executions
+	 * in one query.
+	 * 
+	 * @param jobExecutionIds the job execution ids
+	 * @return the step execution records, in order of id
+	 */
+	Collection<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Read flat projections of the step executions of some job executions
+	 * that were updated after a point, in one query.
+	 * 
+	 * @param jobExecutionIds the job execution ids
+	 * @param updatedAfter the LAST_UPDATED time to start after (exclusive)
+	 * @return the step execution records, in order of id
+	 */
+	Collection<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds,
+			LocalDateTime updatedAfter);
+
+	/**
+	 * Get the job and step executions updated since a cursor, oldest change
+	 * first, so that a client can keep a copy in sync without downloading
+	 * everything again. An execution updated several times between two calls
+	 * is only returned once, in its latest state.
+	 * <p>
+	 * The feed stays a configurable safety lag behind the current time:
+	 * LAST_UPDATED is set before the transaction that writes it commits, so
+	 * newer changes are held back until a later call rather than risk the
+	 * cursor passing one that is not visible yet. A change is therefore seen
+	 * at the earliest that lag after it was made.
+	 * 
+	 * @param cursor the cursor from the previous call, or null to start from
+	 *               the oldest execution
+	 * @param count  the maximum number of job executions and of step executions
+	 *               to return
+	 * @return the changes and the cursor for the next call
+	 * @throws IllegalArgumentException if the cursor is not one returned by
+	 *                                  this method
+	 */
+	ExecutionChanges getExecutionChanges(String cursor, int count);
+
+	/**
+	 * List flat projections of the job instances of a job in descending order
+	 * of creation, with a summary of their executions.
+	 * 
+	 * @param jobName the job name
+	 * @param start   the index of the first instance to return
+	 * @param count   the maximum number of records to return
+	 * @return the records
+	 * @throws NoSuchJobException if the job name cannot be located
+	 */
+	Collection<JobInstanceRecord> listJobInstanceRecords(String jobName, int start, int count)
+			throws NoSuchJobException;
+
+	/**
+	 * List flat projections of a page of the step executions of a job
+	 * execution, in order of id.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param start          the index of the first step execution to return
+	 * @param count          the maximum number of records to return
+	 * @return the records
+	 * @throws NoSuchJobExecutionException
+	 */
+	Collection<StepExecutionRecord> listStepExecutionRecords(Long jobExecutionId, int start, int count)
+			throws NoSuchJobExecutionException;
+
+	/**
+	 * Export flat projections of job executions, oldest first, passing each
+	 * one to a handler as it is read from the database, so that the whole
+	 * history can be written out in constant memory.
+	 * 
+	 * @param jobName        the job name, or null for all jobs
+	 * @param withParameters true to include the job parameters
+	 * @param handler        called once per execution, with its parameters (as
+	 *                       strings) or null if they were not requested
+	 * @throws NoSuchJobException if the job name cannot be located
+	 */
+	void exportJobExecutionRecords(String jobName, boolean withParameters,
+			BiConsumer<JobExecutionRecord, Map<String, String>> handler) throws NoSuchJobException;
+
+	/**
+	 * Export flat projections of step executions, oldest first, passing each
+	 * one to a handler as it is read from the database.
+	 * 
+	 * @param jobName the job name, or null for all jobs
+	 * @param handler called once per step execution
+	 * @throws NoSuchJobException if the job name cannot be located
+	 */
+	void exportStepExecutionRecords(String jobName, Consumer<StepExecutionRecord> handler)
+			throws NoSuchJobException;
+
+	/**
+	 * Statistics of the caches of finished job and step executions: size and
+	 * weight with their limits, and hit, miss and eviction counts.
+	 * 
+	 * @return the statistics of each cache by name
+	 */
+	Map<String, Object> getExecutionCacheStatistics();
+
 }
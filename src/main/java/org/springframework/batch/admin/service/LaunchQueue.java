@@ -0,0 +1,360 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersIncrementer;
+import org.springframework.batch.core.JobParametersValidator;
+
+/**
+ * Admission control for job launches. The launcher's task executor runs at
+ * most {@link #setMaxConcurrentExecutions(int) maxConcurrentExecutions} jobs
+ * and queues the rest; this class keeps that queue bounded, caps the number
+ * of executions of each job, and refuses launches beyond the limits with a
+ * {@link LaunchRejectedException} <em>before</em> anything is written to the
+ * repository, instead of letting them wait (looking like they are STARTING)
+ * for an unbounded time. It also keeps the queue depth and wait time
+ * statistics.
+ */
+public class LaunchQueue {
+
+	private static final int DEFAULT_RETRY_AFTER = 30;
+
+	private int maxConcurrentExecutions = 6;
+
+	private int maxQueueDepth = 100;
+
+	private int maxConcurrentExecutionsPerJob = 0;
+
+	private Map<String, Integer> maxConcurrentExecutionsByJob = new HashMap<String, Integer>();
+
+	private final Map<String, Integer> admittedByJob = new HashMap<String, Integer>();
+
+	private int queued;
+
+	private int running;
+
+	private long startedCount;
+
+	private long rejectedCount;
+
+	private long totalWaitTime;
+
+	private long maxWaitTime;
+
+	private long finishedCount;
+
+	private long totalRunTime;
+
+	private VirtualThreadTaskExecutor taskExecutor;
+
+	/**
+	 * The number of threads of the launcher's task executor (default 6).
+	 * 
+	 * @param maxConcurrentExecutions the number of jobs that can run at once
+	 */
+	public void setMaxConcurrentExecutions(int maxConcurrentExecutions) {
+		this.maxConcurrentExecutions = maxConcurrentExecutions;
+	}
+
+	/**
+	 * The number of launches that can wait for a thread (default 100). Should
+	 * not be more than the queue capacity of the launcher's task executor.
+	 * 
+	 * @param maxQueueDepth the maximum number of waiting launches
+	 */
+	public void setMaxQueueDepth(int maxQueueDepth) {
+		this.maxQueueDepth = maxQueueDepth;
+	}
+
+	/**
+	 * The default maximum number of executions of any one job, running or
+	 * waiting (default 0, meaning no limit).
+	 * 
+	 * @param maxConcurrentExecutionsPerJob the default per job limit
+	 */
+	public void setMaxConcurrentExecutionsPerJob(int maxConcurrentExecutionsPerJob) {
+		this.maxConcurrentExecutionsPerJob = maxConcurrentExecutionsPerJob;
+	}
+
+	/**
+	 * Per job limits that override
+	 * {@link #setMaxConcurrentExecutionsPerJob(int) the default}.
+	 * 
+	 * @param maxConcurrentExecutionsByJob limits keyed by job name
+	 */
+	public void setMaxConcurrentExecutionsByJob(Map<String, Integer> maxConcurrentExecutionsByJob) {
+		this.maxConcurrentExecutionsByJob = new HashMap<String, Integer>(maxConcurrentExecutionsByJob);
+	}
+
+	/**
+	 * The launcher's task executor, if it runs jobs on virtual threads, so
+	 * that the statistics include its running and waiting tasks (optional).
+	 * 
+	 * @param taskExecutor the launcher's task executor
+	 */
+	public void setTaskExecutor(VirtualThreadTaskExecutor taskExecutor) {
+		this.taskExecutor = taskExecutor;
+	}
+
+	/**
+	 * Reserve a place for a launch of the job given. The launch must go
+	 * through the returned {@link Admission#getJob() job}, which frees the
+	 * place when the execution finishes, and
+	 * {@link Admission#cancel(JobExecution)} must be called if the launch
+	 * fails or returns an execution that will not run.
+	 * 
+	 * @param job the job to launch
+	 * @return the admission
+	 * @throws LaunchRejectedException if the queue is full or the job is at its
+	 * limit
+	 */
+	public synchronized Admission admit(Job job) throws LaunchRejectedException {
+		String jobName = job.getName();
+		int limit = maxConcurrentExecutionsByJob.getOrDefault(jobName, maxConcurrentExecutionsPerJob);
+		int admitted = admittedByJob.getOrDefault(jobName, 0);
+		if (limit > 0 && admitted >= limit) {
+			rejectedCount++;
+			throw new LaunchRejectedException("Job [" + jobName + "] already has " + admitted
+					+ " executions running or waiting (the limit is " + limit + ")", getRetryAfter());
+		}
+		if (running + queued >= maxConcurrentExecutions + maxQueueDepth) {
+			rejectedCount++;
+			throw new LaunchRejectedException("The launch queue is full (" + queued + " launches waiting)",
+					getRetryAfter());
+		}
+		admittedByJob.put(jobName, admitted + 1);
+		queued++;
+		return new Admission(job);
+	}
+
+	private synchronized void started(long waitTime) {
+		queued--;
+		running++;
+		startedCount++;
+		totalWaitTime += waitTime;
+		maxWaitTime = Math.max(maxWaitTime, waitTime);
+	}
+
+	private synchronized void finished(String jobName, long runTime) {
+		running--;
+		finishedCount++;
+		totalRunTime += runTime;
+		release(jobName);
+	}
+
+	private synchronized void cancelled(String jobName) {
+		queued--;
+		release(jobName);
+	}
+
+	private void release(String jobName) {
+		int admitted = admittedByJob.getOrDefault(jobName, 1) - 1;
+		if (admitted > 0) {
+			admittedByJob.put(jobName, admitted);
+		}
+		else {
+			admittedByJob.remove(jobName);
+		}
+	}
+
+	/**
+	 * @return a guess at how many seconds it will be before there is room in
+	 * the queue, from the average run time so far
+	 */
+	private int getRetryAfter() {
+		if (finishedCount == 0) {
+			return DEFAULT_RETRY_AFTER;
+		}
+		long averageRunTime = totalRunTime / finishedCount;
+		return (int) Math.max(1, averageRunTime / 1000 / Math.max(1, maxConcurrentExecutions));
+	}
+
+	/**
+	 * @return the number of launches waiting for a thread
+	 */
+	public synchronized int getQueueDepth() {
+		return queued;
+	}
+
+	/**
+	 * @return the number of admitted executions that are running
+	 */
+	public synchronized int getRunningCount() {
+		return running;
+	}
+
+	/**
+	 * @return the number of launches refused since startup
+	 */
+	public synchronized long getRejectedCount() {
+		return rejectedCount;
+	}
+
+	/**
+	 * @return the mean time in milliseconds launches have waited for a thread
+	 */
+	public synchronized long getAverageWaitTime() {
+		return startedCount == 0 ? 0 : totalWaitTime / startedCount;
+	}
+
+	/**
+	 * @return the longest time in milliseconds a launch has waited for a
+	 * thread
+	 */
+	public synchronized long getMaxWaitTime() {
+		return maxWaitTime;
+	}
+
+	/**
+	 * @return the statistics above, and the task executor's active and waiting
+	 * tasks if it is set, by name (e.g. for rendering as JSON)
+	 */
+	public synchronized Map<String, Object> getStatistics() {
+		Map<String, Object> statistics = new HashMap<String, Object>();
+		statistics.put("queueDepth", queued);
+		statistics.put("maxQueueDepth", maxQueueDepth);
+		statistics.put("running", running);
+		statistics.put("maxConcurrentExecutions", maxConcurrentExecutions);
+		statistics.put("rejected", rejectedCount);
+		statistics.put("started", startedCount);
+		statistics.put("averageWaitTime", getAverageWaitTime());
+		statistics.put("maxWaitTime", maxWaitTime);
+		if (taskExecutor != null) {
+			statistics.put("activeTasks", taskExecutor.getActiveCount());
+			statistics.put("waitingTasks", taskExecutor.getWaitingCount());
+		}
+		return statistics;
+	}
+
+	/**
+	 * A place in the queue for one launch.
+	 */
+	public class Admission {
+
+		private final Job job;
+
+		private final long admitted = System.currentTimeMillis();
+
+		private boolean started;
+
+		private boolean done;
+
+		private Admission(Job job) {
+			this.job = job;
+		}
+
+		/**
+		 * @return the job to pass to the launcher
+		 */
+		public Job getJob() {
+			return new AdmittedJob(job, this);
+		}
+
+		/**
+		 * Give the place back if the execution never started, e.g. because the
+		 * launcher threw an exception or the task executor rejected it. Does
+		 * nothing if it has started (it will be freed when it finishes).
+		 * 
+		 * @param jobExecution the execution returned by the launcher, or null
+		 */
+		public void cancel(JobExecution jobExecution) {
+			synchronized (LaunchQueue.this) {
+				if (started || done || (jobExecution != null && jobExecution.getStatus().isRunning())) {
+					return;
+				}
+				done = true;
+				cancelled(job.getName());
+			}
+		}
+
+		private void start() {
+			synchronized (LaunchQueue.this) {
+				if (done) {
+					// cancelled, but running after all: count it again
+					done = false;
+					queued++;
+					admittedByJob.merge(job.getName(), 1, Integer::sum);
+				}
+				started = true;
+				started(System.currentTimeMillis() - admitted);
+			}
+		}
+
+		private void finish(long runTime) {
+			synchronized (LaunchQueue.this) {
+				done = true;
+				finished(job.getName(), runTime);
+			}
+		}
+
+	}
+
+	private static class AdmittedJob implements Job {
+
+		private final Job delegate;
+
+		private final Admission admission;
+
+		public AdmittedJob(Job delegate, Admission admission) {
+			this.delegate = delegate;
+			this.admission = admission;
+		}
+
+		@Override
+		public String getName() {
+			return delegate.getName();
+		}
+
+		@Override
+		public boolean isRestartable() {
+			return delegate.isRestartable();
+		}
+
+		@Override
+		public void execute(JobExecution execution) {
+			admission.start();
+			long start = System.currentTimeMillis();
+			try {
+				delegate.execute(execution);
+			}
+			finally {
+				admission.finish(System.currentTimeMillis() - start);
+			}
+		}
+
+		@Override
+		public JobParametersIncrementer getJobParametersIncrementer() {
+			return delegate.getJobParametersIncrementer();
+		}
+
+		@Override
+		public JobParametersValidator getJobParametersValidator() {
+			return delegate.getJobParametersValidator();
+		}
+
+		@Override
+		public String toString() {
+			return delegate.toString();
+		}
+
+	}
+
+}
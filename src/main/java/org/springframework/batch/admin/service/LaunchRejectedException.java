@@ -0,0 +1,47 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import org.springframework.batch.core.JobExecutionException;
+
+/**
+ * Thrown when a launch is refused because the launch queue is full or the job
+ * is already running as many times as it is allowed to. Nothing has been
+ * written to the job repository; the caller can try again later.
+ */
+@SuppressWarnings("serial")
+public class LaunchRejectedException extends JobExecutionException {
+
+	private final int retryAfter;
+
+	/**
+	 * @param msg the message
+	 * @param retryAfter a suggested number of seconds to wait before trying
+	 * again
+	 */
+	public LaunchRejectedException(String msg, int retryAfter) {
+		super(msg);
+		this.retryAfter = retryAfter;
+	}
+
+	/**
+	 * @return the suggested number of seconds to wait before trying again
+	 */
+	public int getRetryAfter() {
+		return retryAfter;
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory {@link StepExecutionHistoryStore}. This is the default: snapshots
+ * are rebuilt once after a restart and then kept up to date incrementally.
+ */
+public class MapStepExecutionHistoryStore implements StepExecutionHistoryStore {
+
+	private final ConcurrentMap<String, StepExecutionHistorySnapshot> snapshots = new ConcurrentHashMap<String, StepExecutionHistorySnapshot>();
+
+	@Override
+	public StepExecutionHistorySnapshot getSnapshot(String jobName, String stepName) {
+		return snapshots.get(getKey(jobName, stepName));
+	}
+
+	@Override
+	public void saveSnapshot(StepExecutionHistorySnapshot snapshot) {
+		snapshots.merge(getKey(snapshot.getJobName(), snapshot.getStepName()), snapshot,
+				(saved, update) -> update.supersedes(saved) ? update : saved);
+	}
+
+	private String getKey(String jobName, String stepName) {
+		return jobName + "/" + stepName;
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * A {@link JdbcTemplate} that counts the statements it executes on the current
+ * thread, so that the number of queries needed to serve a request can be
+ * checked (and kept constant as pages get larger or deeper).
+ * 
+ * @see #getCount()
+ */
+public class QueryCountingJdbcTemplate extends JdbcTemplate {
+
+	private static final ThreadLocal<int[]> count = ThreadLocal.withInitial(() -> new int[1]);
+
+	public QueryCountingJdbcTemplate(DataSource dataSource) {
+		super(dataSource);
+	}
+
+	/**
+	 * Reset the count for the current thread.
+	 */
+	public static void reset() {
+		count.remove();
+	}
+
+	/**
+	 * @return the number of statements executed on the current thread since
+	 * the last call to {@link #reset()}
+	 */
+	public static int getCount() {
+		return count.get()[0];
+	}
+
+	/**
+	 * Called once for every statement before it is executed, including the
+	 * statements created in a {@link ConnectionCallback} (e.g. the streamed
+	 * queries of {@link SqlUtils}), because the template hands the callback a
+	 * connection proxy that applies the statement settings.
+	 * 
+	 * @see JdbcTemplate#applyStatementSettings(Statement)
+	 */
+	@Override
+	protected void applyStatementSettings(Statement stmt) throws SQLException {
+		count.get()[0]++;
+		super.applyStatementSettings(stmt);
+	}
+
+}
@@ -15,9 +15,16 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.JobInfo;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.repository.dao.JobExecutionDao;
 
@@ -28,10 +35,17 @@ import org.springframework.batch.core.repository.dao.JobExecutionDao;
 public interface SearchableJobExecutionDao extends JobExecutionDao {
 
 	/**
-	 * @return the total number of {@link JobExecution} instances
+	 * @return the total number of {@link JobExecution} instances, subject to
+	 * the {@link #getCountStrategy() count strategy}
 	 */
 	int countJobExecutions();
 
+	/**
+	 * @return the strategy used to answer the count queries (so callers can
+	 * tell whether the counts are exact)
+	 */
+	CountStrategy getCountStrategy();
+
 	/**
 	 * Get the {@link JobExecution JobExecutions} for a specific job name in
 	 * reverse order of creation (so normally of execution).
@@ -53,13 +67,60 @@ public interface SearchableJobExecutionDao extends JobExecutionDao {
 	 */
 	List<JobExecution> getJobExecutions(int start, int count);
 
+	/**
+	 * Get the {@link JobExecution JobExecutions} for a specific job name in
+	 * reverse order of creation, starting with the first one older than the
+	 * execution id provided. Unlike {@link #getJobExecutions(String, int, int)}
+	 * this seeks straight to the start of the page, so the cost does not grow
+	 * with the depth of the page.
+	 * 
+	 * @param jobName the name of the job
+	 * @param afterJobExecutionId the id of the last execution already seen, or
+	 * null to start from the most recent
+	 * @param count the maximum number of instances to return
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> getJobExecutionsAfter(String jobName, Long afterJobExecutionId, int count);
+
+	/**
+	 * Get the {@link JobExecution JobExecutions} in reverse order of creation,
+	 * starting with the first one older than the execution id provided.
+	 * 
+	 * @param afterJobExecutionId the id of the last execution already seen, or
+	 * null to start from the most recent
+	 * @param count the maximum number of instances to return
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> getJobExecutionsAfter(Long afterJobExecutionId, int count);
+
+	/**
+	 * Get all the {@link JobExecution JobExecutions} belonging to a group of job
+	 * instances, in reverse order of creation, with a fixed number of queries
+	 * however many instances there are.
+	 * 
+	 * @param jobInstanceIds the ids of the job instances
+	 * @return the {@link JobExecution} instances requested
+	 */
+	List<JobExecution> findJobExecutions(Collection<Long> jobInstanceIds);
+
 	/**
 	 * @param jobName the name of a job
 	 * @return the number of {@link JobExecution JobExecutions} belonging to
-	 * this job
+	 * this job, subject to the {@link #getCountStrategy() count strategy}
 	 */
 	int countJobExecutions(String jobName);
 
+	/**
+	 * Summarise the executions of some jobs in a single grouped query: the
+	 * number of executions of each job and the status and start time of the
+	 * most recent one. Launchability is not known here, so it is left false.
+	 * 
+	 * @param jobNames the names of the jobs
+	 * @return a {@link JobInfo} for each job name that has been executed,
+	 * keyed by name
+	 */
+	Map<String, JobInfo> getJobSummaries(Collection<String> jobNames);
+
 	/**
 	 * Find all the running executions (status less than STOPPING).
 	 * 
@@ -67,4 +128,95 @@ public interface SearchableJobExecutionDao extends JobExecutionDao {
 	 */
 	Collection<JobExecution> getRunningJobExecutions();
 
+	/**
+	 * Get flat projections of the job executions updated after a point, in
+	 * order of LAST_UPDATED and then id, so that a client can follow changes
+	 * by passing back the last update time and id it has seen. An index on
+	 * (LAST_UPDATED, JOB_EXECUTION_ID) makes this a range scan.
+	 * <p>
+	 * LAST_UPDATED is set before the transaction that writes it commits, so a
+	 * row can become visible after later timestamps have been read. Pass an
+	 * upper bound far enough in the past that such rows have committed,
+	 * otherwise a client following the last update time would skip them.
+	 * 
+	 * @param lastUpdated the last update time already seen, or null to start
+	 * from the oldest
+	 * @param jobExecutionId the id of the last execution seen with that update
+	 * time (ignored if lastUpdated is null)
+	 * @param updatedBefore the latest update time to return (inclusive)
+	 * @param count the maximum number of records to return
+	 * @return the records requested
+	 */
+	List<JobExecutionRecord> getJobExecutionRecordsUpdatedAfter(LocalDateTime lastUpdated, Long jobExecutionId,
+			LocalDateTime updatedBefore, int count);
+
+	/**
+	 * Read just the status of a group of job executions, e.g. to check whether
+	 * they are still running without loading them.
+	 * 
+	 * @param jobExecutionIds the ids of the job executions
+	 * @return the status of each job execution that exists, by id
+	 */
+	Map<Long, BatchStatus> getJobExecutionStatuses(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Find which of a group of job executions have not finished yet, i.e. have
+	 * no end time. The status is not enough: a stopped execution is STOPPED
+	 * (not running) while its thread is still finishing.
+	 * 
+	 * @param jobExecutionIds the ids of the job executions
+	 * @return the ids of the ones that exist and have no end time
+	 */
+	Set<Long> getUnfinishedJobExecutionIds(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Find the job executions that match a filter, e.g. for a bulk operation.
+	 * Only the columns a bulk operation needs are read: the executions have
+	 * their job instance, status, end time and version, but no parameters,
+	 * exit status or other times.
+	 * 
+	 * @param filter the filter
+	 * @return the matching {@link JobExecution} instances, by id
+	 */
+	List<JobExecution> findJobExecutions(ExecutionFilter filter);
+
+	/**
+	 * Get flat projections of job executions in reverse order of creation,
+	 * starting with the first one older than the execution id provided. Only
+	 * the execution and instance tables are read.
+	 * 
+	 * @param jobName the name of the job, or null for all jobs
+	 * @param afterJobExecutionId the id of the last execution already seen, or
+	 * null to start from the most recent
+	 * @param count the maximum number of records to return
+	 * @return the records requested
+	 */
+	List<JobExecutionRecord> getJobExecutionRecordsAfter(String jobName, Long afterJobExecutionId, int count);
+
+	/**
+	 * @param jobExecutionId the id of a job execution
+	 * @return a flat projection of the job execution, or null if there is none
+	 */
+	JobExecutionRecord getJobExecutionRecord(Long jobExecutionId);
+
+	/**
+	 * @param jobExecutionIds the ids of some job executions
+	 * @return flat projections of the job executions that exist
+	 */
+	List<JobExecutionRecord> getJobExecutionRecords(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Pass flat projections of job executions, oldest first, to a handler as
+	 * they are read from a forward-only cursor, so that any number of them can
+	 * be exported without holding them in memory.
+	 * 
+	 * @param jobName the name of the job, or null for all jobs
+	 * @param withParameters true to read the job parameters (as their string
+	 * values) too
+	 * @param handler called once per execution, with its parameters, or null
+	 * if they were not requested
+	 */
+	void exportJobExecutionRecords(String jobName, boolean withParameters,
+			BiConsumer<JobExecutionRecord, Map<String, String>> handler);
+
 }
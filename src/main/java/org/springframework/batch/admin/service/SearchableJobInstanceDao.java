@@ -15,6 +15,9 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.util.List;
+
+import org.springframework.batch.admin.domain.JobInstanceRecord;
 import org.springframework.batch.core.repository.dao.JobInstanceDao;
 
 /**
@@ -29,4 +32,16 @@ public interface SearchableJobInstanceDao extends JobInstanceDao {
 	 */
 	int countJobInstances(String name);
 
+	/**
+	 * Get flat projections of the job instances with a given name, most
+	 * recent first, with the number of executions of each and the status of
+	 * the latest one (read in one aggregate query for the whole page).
+	 * 
+	 * @param name the name of the job instances
+	 * @param start the offset of the first instance
+	 * @param count the maximum number of records to return
+	 * @return the records requested
+	 */
+	List<JobInstanceRecord> getJobInstanceRecords(String name, int start, int count);
+
 }
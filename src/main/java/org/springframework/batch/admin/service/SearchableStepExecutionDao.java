@@ -15,8 +15,18 @@
  */
 package org.springframework.batch.admin.service;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import org.springframework.batch.admin.domain.PartitionRollup;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.repository.dao.StepExecutionDao;
 
@@ -64,7 +74,227 @@ public interface SearchableStepExecutionDao extends StepExecutionDao {
 	 * @param jobName the job name pattern
 	 * @param stepName the step name pattern.
 	 * 
-	 * @return the total number of step executions in the repository matching the pattern
+	 * @return the total number of step executions in the repository matching the pattern,
+	 * subject to the {@link #getCountStrategy() count strategy}
 	 */
 	int countStepExecutions(String jobName, String stepName);
+
+	/**
+	 * Aggregate the history of all the finished executions of a step in the
+	 * database, rather than loading them.
+	 * 
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @return the history of the matching step executions
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName);
+
+	/**
+	 * Aggregate the history of the finished executions of a step within a
+	 * range of step execution ids, so that a snapshot can be brought up to
+	 * date without reading what it already contains.
+	 * 
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @param afterStepExecutionId the id after which to start (exclusive)
+	 * @param maxStepExecutionId the id at which to stop (inclusive)
+	 * @return the history of the matching step executions in the range
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName, long afterStepExecutionId,
+			long maxStepExecutionId);
+
+	/**
+	 * Aggregate the history of the finished executions of a step within a
+	 * range of step execution ids, leaving some of them out (e.g. ones that
+	 * were found unfinished just before, and are followed separately in case
+	 * they finish meanwhile).
+	 * 
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @param afterStepExecutionId the id after which to start (exclusive)
+	 * @param maxStepExecutionId the id at which to stop (inclusive)
+	 * @param excludedStepExecutionIds the ids to leave out
+	 * @return the history of the matching step executions in the range
+	 */
+	StepExecutionHistory getStepExecutionHistory(String jobName, String stepName, long afterStepExecutionId,
+			long maxStepExecutionId, Collection<Long> excludedStepExecutionIds);
+
+	/**
+	 * Aggregate the history of the finished executions among some step
+	 * executions.
+	 * 
+	 * @param stepName the step name of the history
+	 * @param stepExecutionIds the ids of the step executions
+	 * @return the history of those that have finished
+	 */
+	StepExecutionHistory getStepExecutionHistory(String stepName, Collection<Long> stepExecutionIds);
+
+	/**
+	 * Find the unfinished executions (STARTING, STARTED or STOPPING without an
+	 * end time) of a step within a range of step execution ids, e.g. those a
+	 * history snapshot passes over because they have gone too long without an
+	 * update.
+	 * 
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @param afterStepExecutionId the id after which to start (exclusive)
+	 * @param maxStepExecutionId the id at which to stop (inclusive)
+	 * @return the ids of the unfinished step executions
+	 */
+	Set<Long> getUnfinishedStepExecutionIds(String jobName, String stepName, long afterStepExecutionId,
+			long maxStepExecutionId);
+
+	/**
+	 * Find which of some step executions are still unfinished (in the sense
+	 * of {@link #getUnfinishedStepExecutionIds(String, String, long, long)}).
+	 * 
+	 * @param stepExecutionIds the ids of the step executions
+	 * @return the ids of those that are unfinished
+	 */
+	Set<Long> getUnfinishedStepExecutionIds(Collection<Long> stepExecutionIds);
+
+	/**
+	 * Find how far a history snapshot can safely be advanced: the highest step
+	 * execution id such that no matching execution between the one given and
+	 * it is still running (a running execution will finish later and has to
+	 * be included then). An unfinished execution only counts as running if
+	 * its job execution is one of the active ones given, or it was updated
+	 * after the staleness bound; otherwise it is taken to be left over from a
+	 * process that died (it will never get an end time) and is skipped, so
+	 * that it does not hold the watermark back for ever.
+	 * 
+	 * @param jobName the job name (or a pattern with wildcards)
+	 * @param stepName the step name (or a pattern with wildcards)
+	 * @param afterStepExecutionId the current watermark
+	 * @param staleBefore unfinished executions last updated before this are
+	 * not running any more (unless their job execution is active)
+	 * @param activeJobExecutionIds the job executions known to be running
+	 * @return the new watermark (the current one if it cannot move)
+	 */
+	long getStepExecutionHistoryWatermark(String jobName, String stepName, long afterStepExecutionId,
+			LocalDateTime staleBefore, Collection<Long> activeJobExecutionIds);
+
+	/**
+	 * @return the strategy used to answer the count queries (so callers can
+	 * tell whether the counts are exact)
+	 */
+	CountStrategy getCountStrategy();
+
+	/**
+	 * Load the step executions for a group of job executions in a single query
+	 * (per few hundred job executions) and add them to their parents. This is
+	 * the set-based equivalent of calling
+	 * {@link #addStepExecutions(JobExecution)} for each job execution.
+	 * 
+	 * @param jobExecutions the job executions to populate
+	 */
+	void addStepExecutions(Collection<JobExecution> jobExecutions);
+
+	/**
+	 * Find a page of the step executions of one job execution, e.g. the
+	 * partitions of a big partitioned step, without loading the others.
+	 * 
+	 * @param jobExecution the job execution (the step executions are added to
+	 * it)
+	 * @param sort the property to sort by: id, name, status, startTime,
+	 * endTime, readCount, writeCount, commitCount or rollbackCount (ties are
+	 * broken by id, and step executions without a start or end time come
+	 * after the others in ascending order)
+	 * @param ascending the sort direction
+	 * @param start the offset of the first step execution
+	 * @param count the maximum number of step executions
+	 * @return the step executions in the page
+	 * @throws IllegalArgumentException if the sort property is not one of the
+	 * above
+	 */
+	List<StepExecution> getStepExecutions(JobExecution jobExecution, String sort, boolean ascending, int start,
+			int count);
+
+	/**
+	 * Get flat projections of a page of the step executions of one job
+	 * execution, in order of id, without building the step executions.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @param start the offset of the first step execution
+	 * @param count the maximum number of records to return
+	 * @return the records in the page
+	 */
+	List<StepExecutionRecord> getStepExecutionRecords(Long jobExecutionId, int start, int count);
+
+	/**
+	 * Get flat projections of all the step executions of some job executions,
+	 * in order of id.
+	 * 
+	 * @param jobExecutionIds the ids of the job executions
+	 * @return the records
+	 */
+	List<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds);
+
+	/**
+	 * Get flat projections of the step executions of some job executions that
+	 * were updated after a point, in order of id.
+	 * 
+	 * @param jobExecutionIds the ids of the job executions
+	 * @param updatedAfter the LAST_UPDATED time to start after (exclusive)
+	 * @return the records
+	 */
+	List<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds, LocalDateTime updatedAfter);
+
+	/**
+	 * Get flat projections of the step executions updated after a point, in
+	 * order of LAST_UPDATED and then id (see
+	 * {@link SearchableJobExecutionDao#getJobExecutionRecordsUpdatedAfter(LocalDateTime, Long, LocalDateTime, int)},
+	 * including the need for an upper bound in the past).
+	 * 
+	 * @param lastUpdated the last update time already seen, or null to start
+	 * from the oldest
+	 * @param stepExecutionId the id of the last step execution seen with that
+	 * update time (ignored if lastUpdated is null)
+	 * @param updatedBefore the latest update time to return (inclusive)
+	 * @param count the maximum number of records to return
+	 * @return the records requested
+	 */
+	List<StepExecutionRecord> getStepExecutionRecordsUpdatedAfter(LocalDateTime lastUpdated, Long stepExecutionId,
+			LocalDateTime updatedBefore, int count);
+
+	/**
+	 * Count the step executions of one job execution with each status.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @return the counts of the statuses that occur
+	 */
+	Map<BatchStatus, Integer> countStepExecutionsByStatus(Long jobExecutionId);
+
+	/**
+	 * Read just the status of some step executions of a job execution, e.g.
+	 * to check that they exist without loading them.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @param stepExecutionIds the ids of the step executions
+	 * @return the status of each step execution that exists in the job
+	 * execution, by id
+	 */
+	Map<Long, BatchStatus> getStepExecutionStatuses(Long jobExecutionId, Collection<Long> stepExecutionIds);
+
+	/**
+	 * Aggregate the partitions of a partitioned step in one job execution
+	 * (the step executions named <code>stepName:</code> followed by the
+	 * partition name) without loading them all.
+	 * 
+	 * @param jobExecutionId the id of the job execution
+	 * @param stepName the name of the step that was partitioned
+	 * @param slowest the number of slowest partitions to return
+	 * @return the rollup
+	 */
+	PartitionRollup getPartitionRollup(Long jobExecutionId, String stepName, int slowest);
+
+	/**
+	 * Pass flat projections of step executions, oldest first, to a handler as
+	 * they are read from a forward-only cursor, so that any number of them can
+	 * be exported without holding them in memory.
+	 * 
+	 * @param jobName the name of the job, or null for all jobs
+	 * @param handler called once per step execution
+	 */
+	void exportStepExecutionRecords(String jobName, Consumer<StepExecutionRecord> handler);
 }
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Reads execution contexts in their serialized form, without deserializing
+ * them, for previews and for streaming big contexts a piece at a time.
+ */
+public interface SerializedContextDao {
+
+	/**
+	 * @param jobExecutionId the job execution id
+	 * @return the short form of the context (the serialized context, cut to
+	 * the size of the SHORT_CONTEXT column), or null if there is none
+	 */
+	String getJobExecutionShortContext(Long jobExecutionId);
+
+	/**
+	 * @param stepExecutionId the step execution id
+	 * @return the short form of the context (the serialized context, cut to
+	 * the size of the SHORT_CONTEXT column), or null if there is none
+	 */
+	String getStepExecutionShortContext(Long stepExecutionId);
+
+	/**
+	 * Copy the serialized context of a job execution to a writer as it is
+	 * read from the database.
+	 * 
+	 * @param jobExecutionId the job execution id
+	 * @param writer where to write the context
+	 * @param maxLength the maximum number of characters to write
+	 * @return true if the context was longer than the maximum and was cut
+	 * short
+	 * @throws IOException if the writer fails
+	 */
+	boolean writeJobExecutionContext(Long jobExecutionId, Writer writer, int maxLength) throws IOException;
+
+	/**
+	 * Copy the serialized context of a step execution to a writer as it is
+	 * read from the database.
+	 * 
+	 * @param stepExecutionId the step execution id
+	 * @param writer where to write the context
+	 * @param maxLength the maximum number of characters to write
+	 * @return true if the context was longer than the maximum and was cut
+	 * short
+	 * @throws IOException if the writer fails
+	 */
+	boolean writeStepExecutionContext(Long stepExecutionId, Writer writer, int maxLength) throws IOException;
+
+}
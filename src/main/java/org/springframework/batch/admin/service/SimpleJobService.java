@@ -16,23 +16,38 @@
 package org.springframework.batch.admin.service;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.JobInfo;
+import org.springframework.batch.admin.domain.JobInstanceRecord;
+import org.springframework.batch.admin.domain.PartitionRollup;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+import org.springframework.batch.admin.service.BulkOperationResult.Outcome;
 import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
 import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobExecutionException;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersInvalidException;
@@ -46,10 +61,10 @@ import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.batch.core.repository.dao.ExecutionContextDao;
 import org.springframework.batch.core.step.NoSuchStepException;
 import org.springframework.batch.core.step.StepLocator;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.DisposableBean;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
 /**
@@ -67,6 +82,19 @@ public class SimpleJobService implements JobService, DisposableBean {
     // 60 seconds
     private static final int DEFAULT_SHUTDOWN_TIMEOUT = 60 * 1000;
 
+    // 1 hour
+    private static final long DEFAULT_UNFINISHED_STEP_TIMEOUT = 60 * 60 * 1000L;
+
+    // skipped unfinished step executions followed per step history
+    private static final int MAX_PENDING_STEP_EXECUTIONS = 50;
+
+    // 5 seconds
+    private static final long DEFAULT_CHANGE_SAFETY_LAG = 5 * 1000L;
+
+    private static final int DEFAULT_CACHE_SIZE = 1000;
+
+    private static final long DEFAULT_CACHE_WEIGHT = 50000;
+
     private final SearchableJobInstanceDao jobInstanceDao;
 
     private final SearchableJobExecutionDao jobExecutionDao;
@@ -81,12 +109,30 @@ public class SimpleJobService implements JobService, DisposableBean {
 
     private final ExecutionContextDao executionContextDao;
 
-    private Collection<JobExecution> activeExecutions = Collections.synchronizedList(new ArrayList<JobExecution>());
+    private SerializedContextDao serializedContextDao;
+
+    private JobExecutionStatusDao jobExecutionStatusDao;
+
+    private final ActiveExecutionRegistry activeExecutions = new ActiveExecutionRegistry();
+
+    private LaunchQueue launchQueue = new LaunchQueue();
 
     private JobOperator jsrJobOperator;
 
     private int shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
 
+    private StepExecutionHistoryStore stepExecutionHistoryStore = new MapStepExecutionHistoryStore();
+
+    private long unfinishedStepTimeout = DEFAULT_UNFINISHED_STEP_TIMEOUT;
+
+    private long changeSafetyLag = DEFAULT_CHANGE_SAFETY_LAG;
+
+    private final JobCatalog jobCatalog;
+
+    private ExecutionCache<JobExecution> jobExecutionCache;
+
+    private ExecutionCache<StepExecution> stepExecutionCache;
+
     /**
      * Timeout for shutdown waiting for jobs to finish processing.
      *
@@ -96,6 +142,135 @@ public class SimpleJobService implements JobService, DisposableBean {
         this.shutdownTimeout = shutdownTimeout;
     }
 
+    /**
+     * Where to keep step execution history snapshots between requests.
+     *
+     * @param stepExecutionHistoryStore the store (default in memory)
+     */
+    public void setStepExecutionHistoryStore(StepExecutionHistoryStore stepExecutionHistoryStore) {
+        this.stepExecutionHistoryStore = stepExecutionHistoryStore;
+    }
+
+    /**
+     * How long an unfinished step execution of a job execution that is not
+     * active in this process can go without an update before the step
+     * execution history stops waiting for it (e.g. it was left STARTED by a
+     * process that died). It is then skipped by the history snapshot, which
+     * otherwise could never move past it, and remembered so that it is folded
+     * in if it does finish after all (e.g. a long single chunk). Up to 50 such
+     * step executions are remembered per step history, the most recent ones:
+     * any older ones that finish later are left out of the history.
+     *
+     * @param unfinishedStepTimeout in milliseconds (default 1 hour)
+     */
+    public void setUnfinishedStepTimeout(long unfinishedStepTimeout) {
+        this.unfinishedStepTimeout = unfinishedStepTimeout;
+    }
+
+    /**
+     * How far behind the current time the change feed stays. LAST_UPDATED is
+     * set before the chunk transaction that writes it commits, so a row can
+     * become visible after a cursor past its timestamp has been handed out;
+     * changes newer than this lag are held back until the next call so that
+     * they are not skipped. It must cover the longest gap between an update
+     * and its commit, plus any clock skew between the nodes and this one.
+     *
+     * @param changeSafetyLag in milliseconds (default 5 seconds)
+     */
+    public void setChangeSafetyLag(long changeSafetyLag) {
+        this.changeSafetyLag = changeSafetyLag;
+    }
+
+    /**
+     * Access to the serialized form of execution contexts, for previews and
+     * for streaming big contexts without deserializing them.
+     *
+     * @param serializedContextDao the serialized context DAO
+     */
+    public void setSerializedContextDao(SerializedContextDao serializedContextDao) {
+        this.serializedContextDao = serializedContextDao;
+    }
+
+    /**
+     * Writes the status of job executions for {@link #stopAll(ExecutionFilter)}
+     * and {@link #abandonAll(ExecutionFilter)}, in one batch.
+     *
+     * @param jobExecutionStatusDao the job execution status DAO
+     */
+    public void setJobExecutionStatusDao(JobExecutionStatusDao jobExecutionStatusDao) {
+        this.jobExecutionStatusDao = jobExecutionStatusDao;
+    }
+
+    /**
+     * Admission control for launches and restarts. The limits should match the
+     * task executor of the {@link JobLauncher}.
+     *
+     * @param launchQueue the launch queue (default 6 concurrent executions and
+     *                    100 waiting, with no per job limit)
+     */
+    public void setLaunchQueue(LaunchQueue launchQueue) {
+        this.launchQueue = launchQueue;
+    }
+
+    /**
+     * @return the launch queue (e.g. for its depth and wait time statistics)
+     */
+    public LaunchQueue getLaunchQueue() {
+        return launchQueue;
+    }
+
+    /**
+     * Limits for the caches of finished job and step executions (each cache
+     * has the same limits). The weight of a job execution is one plus its
+     * number of step executions. Execution contexts are loaded on request and
+     * are not cached.
+     *
+     * @param maxSize   the maximum number of executions in each cache (default
+     *                  1000, 0 to disable caching)
+     * @param maxWeight the maximum total weight of each cache (default 50000)
+     */
+    public void setExecutionCacheLimits(int maxSize, long maxWeight) {
+        this.jobExecutionCache = new ExecutionCache<JobExecution>(maxSize, maxWeight,
+            jobExecution -> 1 + jobExecution.getStepExecutions().size(), SimpleJobService::copyOf);
+        this.stepExecutionCache = new ExecutionCache<StepExecution>(maxSize, maxWeight, stepExecution -> 1,
+            SimpleJobService::copyOf);
+    }
+
+    @Override
+    public Map<String, Object> getExecutionCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<String, Object>();
+        statistics.put("jobExecutions", jobExecutionCache.getStatistics());
+        statistics.put("stepExecutions", stepExecutionCache.getStatistics());
+        return statistics;
+    }
+
+    /**
+     * @return the cache of finished job executions (e.g. for its hit, miss and
+     *         eviction counts)
+     */
+    public ExecutionCache<JobExecution> getJobExecutionCache() {
+        return jobExecutionCache;
+    }
+
+    /**
+     * @return the cache of finished step executions (e.g. for its hit, miss and
+     *         eviction counts)
+     */
+    public ExecutionCache<StepExecution> getStepExecutionCache() {
+        return stepExecutionCache;
+    }
+
+    /**
+     * The names of the known jobs, cached after the first lookup. Call
+     * {@link JobCatalog#refresh()} to pick up JSR-352 jobs or historic jobs
+     * added since.
+     *
+     * @return the job catalog
+     */
+    public JobCatalog getJobCatalog() {
+        return jobCatalog;
+    }
+
     public SimpleJobService(SearchableJobInstanceDao jobInstanceDao, SearchableJobExecutionDao jobExecutionDao,
         SearchableStepExecutionDao stepExecutionDao, JobRepository jobRepository, JobLauncher jobLauncher,
         ListableJobLocator jobLocator, ExecutionContextDao executionContextDao) {
@@ -114,6 +289,8 @@ public class SimpleJobService implements JobService, DisposableBean {
         this.jobLauncher = jobLauncher;
         this.jobLocator = jobLocator;
         this.executionContextDao = executionContextDao;
+        this.jobCatalog = new JobCatalog(jobLocator, jobInstanceDao);
+        setExecutionCacheLimits(DEFAULT_CACHE_SIZE, DEFAULT_CACHE_WEIGHT);
 
         if (jsrJobOperator == null) {
             logger.warn("No JobOperator compatible with JSR-352 was provided.");
@@ -173,7 +350,7 @@ public class SimpleJobService implements JobService, DisposableBean {
 
     @Override
     public boolean isLaunchable(String jobName) {
-        return jobLocator.getJobNames().contains(jobName) || getJsrJobNames().contains(jobName);
+        return jobCatalog.isLaunchable(jobName);
     }
 
     @Override
@@ -199,18 +376,21 @@ public class SimpleJobService implements JobService, DisposableBean {
      * @throws JobInstanceAlreadyCompleteException
      * @throws NoSuchJobException
      * @throws JobParametersInvalidException
+     * @throws LaunchRejectedException
      */
     @Override
     public JobExecution restart(Long jobExecutionId)
         throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException, JobRestartException,
-        JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException {
+        JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException,
+        LaunchRejectedException {
         return restart(jobExecutionId, null);
     }
 
     @Override
     public JobExecution restart(Long jobExecutionId, JobParameters params)
         throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException, JobRestartException,
-        JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException {
+        JobInstanceAlreadyCompleteException, NoSuchJobException, JobParametersInvalidException,
+        LaunchRejectedException {
 
         JobExecution jobExecution = null;
 
@@ -220,14 +400,12 @@ public class SimpleJobService implements JobService, DisposableBean {
         if (jobLocator.getJobNames().contains(lastInstance.getJobName())) {
             Job job = jobLocator.getJob(lastInstance.getJobName());
 
-            jobExecution = jobLauncher.run(job, target.getJobParameters());
-
-            if (jobExecution.isRunning()) {
-                activeExecutions.add(jobExecution);
-            }
+            jobExecution = run(job, target.getJobParameters());
+            evictJobExecutions(Set.of(jobExecutionId));
         } else {
             if (jsrJobOperator != null) {
                 jobExecution = new JobExecution(jsrJobOperator.restart(jobExecutionId));
+                evictJobExecutions(Set.of(jobExecutionId));
             } else {
                 throw new NoSuchJobException(
 						"Can't find job associated with job execution id %s to restart".formatted(
@@ -238,10 +416,30 @@ public class SimpleJobService implements JobService, DisposableBean {
         return jobExecution;
     }
 
+    /**
+     * Run a job through the launch queue, giving its place back if it never
+     * gets to run (the launcher fails or its task executor rejects it).
+     */
+    private JobExecution run(Job job, JobParameters jobParameters)
+        throws LaunchRejectedException, JobExecutionAlreadyRunningException, JobRestartException,
+        JobInstanceAlreadyCompleteException, JobParametersInvalidException {
+        LaunchQueue.Admission admission = launchQueue.admit(job);
+        JobExecution jobExecution = null;
+        try {
+            jobExecution = jobLauncher.run(activeExecutions.track(admission.getJob()), jobParameters);
+            // tracked from now on, even while it waits for a thread
+            activeExecutions.register(jobExecution);
+        } finally {
+            admission.cancel(jobExecution);
+        }
+        return jobExecution;
+    }
+
     @Override
     public JobExecution launch(String jobName, JobParameters jobParameters)
             throws NoSuchJobException, JobExecutionAlreadyRunningException, JobRestartException,
-            JobInstanceAlreadyCompleteException, JobParametersInvalidException, JobInstanceAlreadyExistsException {
+            JobInstanceAlreadyCompleteException, JobParametersInvalidException, JobInstanceAlreadyExistsException,
+            LaunchRejectedException {
 
         JobExecution jobExecution = null;
 
@@ -261,11 +459,7 @@ public class SimpleJobService implements JobService, DisposableBean {
                 jobParameters = job.getJobParametersIncrementer().getNext(jobParameters);
             }
 
-            jobExecution = jobLauncher.run(job, jobParameters);
-
-            if (jobExecution.isRunning()) {
-                activeExecutions.add(jobExecution);
-            }
+            jobExecution = run(job, jobParameters);
         } else {
             if (jsrJobOperator != null) {
 //                jobExecution = this.jobExecutionDao
@@ -303,18 +497,25 @@ public class SimpleJobService implements JobService, DisposableBean {
         return jobExecutionDao.getJobExecutions(start, count);
     }
 
+    @Override
+    public ContinuationPage<JobExecution> listJobExecutionsAfter(Long afterJobExecutionId, int count) {
+        return ContinuationPage.of(jobExecutionDao.getJobExecutionsAfter(afterJobExecutionId, count + 1), count,
+            JobExecution::getId);
+    }
+
     @Override
     public int countJobExecutions() {
         return jobExecutionDao.countJobExecutions();
     }
 
+    @Override
+    public boolean isExecutionCountExact() {
+        return jobExecutionDao.getCountStrategy().isExact() && stepExecutionDao.getCountStrategy().isExact();
+    }
+
     @Override
     public Collection<String> listJobs(int start, int count) {
-        Collection<String> jobNames = new LinkedHashSet<String>(jobLocator.getJobNames());
-        jobNames.addAll(getJsrJobNames());
-        if (start + count > jobNames.size()) {
-            jobNames.addAll(jobInstanceDao.getJobNames());
-        }
+        Collection<String> jobNames = jobCatalog.getJobNames();
         if (start >= jobNames.size()) {
             start = jobNames.size();
         }
@@ -324,63 +525,196 @@ public class SimpleJobService implements JobService, DisposableBean {
         return new ArrayList<String>(jobNames).subList(start, start + count);
     }
 
-    private Collection<String> getJsrJobNames() {
-
-        Set<String> jsr352JobNames = new HashSet<String>();
-
-        try {
-            PathMatchingResourcePatternResolver pathMatchingResourcePatternResolver = new org.springframework.core.io.support.PathMatchingResourcePatternResolver();
-            Resource[] resources = pathMatchingResourcePatternResolver
-                .getResources("classpath*:/META-INF/batch-jobs/**/*.xml");
-
-            for (Resource resource : resources) {
-                String jobXmlFileName = resource.getFilename();
-                jsr352JobNames.add(jobXmlFileName.substring(0, jobXmlFileName.length() - 4));
+    @Override
+    public Collection<JobInfo> listJobSummaries(int start, int count) {
+        Collection<String> names = listJobs(start, count);
+        Map<String, JobInfo> summaries = jobExecutionDao.getJobSummaries(names);
+        Collection<String> jobNames = jobLocator.getJobNames();
+        List<JobInfo> result = new ArrayList<JobInfo>();
+        for (String name : names) {
+            boolean launchable = jobNames.contains(name) || jobCatalog.isJsrJob(name);
+            boolean incrementable = jobNames.contains(name) && isIncrementable(name);
+            JobInfo summary = summaries.get(name);
+            if (summary == null) {
+                result.add(new JobInfo(name, 0, launchable, incrementable, null, null));
+            } else {
+                result.add(new JobInfo(name, summary.getExecutionCount(), launchable, incrementable,
+                    summary.getLastExecutionStatus(), summary.getLastExecutionStartTime()));
             }
-        } catch (IOException e) {
-            logger.debug("Unable to list JSR-352 batch jobs", e);
         }
-
-        return jsr352JobNames;
+        return result;
     }
 
     @Override
     public int countJobs() {
-        Collection<String> names = new HashSet<String>(jobLocator.getJobNames());
-        names.addAll(jobInstanceDao.getJobNames());
-        return names.size();
+        return jobCatalog.getJobNames().size();
     }
 
     @Override
     public int stopAll() throws NoSuchJobExecutionException, JobExecutionNotRunningException {
-        Collection<JobExecution> result = jobExecutionDao.getRunningJobExecutions();
-        Collection<String> jsrJobNames = getJsrJobNames();
+        return stopAll(ExecutionFilter.unfinished()).getCount(Outcome.UPDATED);
+    }
 
-        for (JobExecution jobExecution : result) {
-            if (jsrJobOperator != null && jsrJobNames.contains(jobExecution.getJobInstance().getJobName())) {
-                jsrJobOperator.stop(jobExecution.getId());
+    @Override
+    public BulkOperationResult stopAll(ExecutionFilter filter) {
+        BulkOperationResult result = new BulkOperationResult();
+        List<JobExecution> updates = new ArrayList<JobExecution>();
+        for (JobExecution jobExecution : findJobExecutions(filter, result)) {
+            Long id = jobExecution.getId();
+            if (jobExecution.getEndTime() != null) {
+                result.add(id, Outcome.NOT_ELIGIBLE, "Not running");
+            } else if (jsrJobOperator != null && jobCatalog.isJsrJob(jobExecution.getJobInstance().getJobName())) {
+                try {
+                    jsrJobOperator.stop(id);
+                    result.add(id, Outcome.UPDATED);
+                } catch (JobExecutionException e) {
+                    result.add(id, Outcome.FAILED, e.getMessage());
+                }
             } else {
                 jobExecution.upgradeStatus(BatchStatus.STOPPED);
-                jobRepository.update(jobExecution);
+                updates.add(jobExecution);
+            }
+        }
+        updateJobExecutionStatuses(updates, result);
+        logger.info("Stopped job executions matching " + filter + ": " + result.getCounts());
+        return result;
+    }
+
+    @Override
+    public BulkOperationResult abandonAll(ExecutionFilter filter) {
+        BulkOperationResult result = new BulkOperationResult();
+        List<JobExecution> updates = new ArrayList<JobExecution>();
+        LocalDateTime now = LocalDateTime.now();
+        ExecutionFilter query = filter;
+        if (filter.getJobExecutionIds() == null) {
+            // nothing to report for the ones not asked for by id, so only read those that can be abandoned
+            Set<BatchStatus> statuses = EnumSet.noneOf(BatchStatus.class);
+            for (BatchStatus status : BatchStatus.values()) {
+                if (!status.isLessThan(BatchStatus.STOPPING)
+                    && (filter.getStatuses() == null || filter.getStatuses().contains(status))) {
+                    statuses.add(status);
+                }
+            }
+            if (statuses.isEmpty()) {
+                return result;
+            }
+            query = new ExecutionFilter(filter);
+            query.setStatuses(statuses);
+        }
+        for (JobExecution jobExecution : findJobExecutions(query, result)) {
+            Long id = jobExecution.getId();
+            if (jobExecution.getStatus().isLessThan(BatchStatus.STOPPING)) {
+                result.add(id, Outcome.NOT_ELIGIBLE, "Running or complete");
+            } else if (jsrJobOperator != null && jobCatalog.isJsrJob(jobExecution.getJobInstance().getJobName())) {
+                try {
+                    jsrJobOperator.abandon(id);
+                    evictJobExecutions(Set.of(id));
+                    result.add(id, Outcome.UPDATED);
+                } catch (JobExecutionException e) {
+                    result.add(id, Outcome.FAILED, e.getMessage());
+                }
+            } else {
+                jobExecution.upgradeStatus(BatchStatus.ABANDONED);
+                jobExecution.setEndTime(now);
+                updates.add(jobExecution);
+            }
+        }
+        updateJobExecutionStatuses(updates, result);
+        logger.info("Abandoned job executions matching " + filter + ": " + result.getCounts());
+        return result;
+    }
+
+    @Override
+    public BulkOperationResult restartAll(ExecutionFilter filter) {
+        BulkOperationResult result = new BulkOperationResult();
+        Map<Long, JobExecution> latest = new LinkedHashMap<Long, JobExecution>();
+        ExecutionFilter query = filter;
+        if (filter.getJobExecutionIds() == null) {
+            // only the latest execution of an instance can be restarted
+            query = new ExecutionFilter(filter);
+            query.setLatestOnly(true);
+        }
+        for (JobExecution jobExecution : findJobExecutions(query, result)) {
+            JobExecution previous = latest.put(jobExecution.getJobInstance().getId(), jobExecution);
+            if (previous != null) {
+                result.add(previous.getId(), Outcome.NOT_ELIGIBLE, "Not the latest execution of its instance");
+            }
+        }
+        boolean rejected = false;
+        for (JobExecution jobExecution : latest.values()) {
+            Long id = jobExecution.getId();
+            if (rejected) {
+                result.add(id, Outcome.REJECTED, "The launch queue is full");
+                continue;
+            }
+            try {
+                result.restarted(id, restart(id).getId());
+            } catch (LaunchRejectedException e) {
+                rejected = true;
+                result.add(id, Outcome.REJECTED, e.getMessage());
+            } catch (JobInstanceAlreadyCompleteException | JobExecutionAlreadyRunningException e) {
+                result.add(id, Outcome.NOT_ELIGIBLE, e.getMessage());
+            } catch (JobExecutionException e) {
+                result.add(id, Outcome.FAILED, e.getMessage());
+            }
+        }
+        logger.info("Restarted job executions matching " + filter + ": " + result.getCounts());
+        return result;
+    }
+
+    /**
+     * Find the executions for a bulk operation, recording the ids asked for
+     * that do not exist.
+     */
+    private List<JobExecution> findJobExecutions(ExecutionFilter filter, BulkOperationResult result) {
+        List<JobExecution> jobExecutions = jobExecutionDao.findJobExecutions(filter);
+        if (filter.getJobExecutionIds() != null) {
+            Set<Long> found = new HashSet<Long>();
+            for (JobExecution jobExecution : jobExecutions) {
+                found.add(jobExecution.getId());
+            }
+            for (Long id : filter.getJobExecutionIds()) {
+                if (!found.contains(id)) {
+                    result.add(id, Outcome.NOT_FOUND);
+                }
             }
         }
+        return jobExecutions;
+    }
 
-        return result.size();
+    private void updateJobExecutionStatuses(List<JobExecution> jobExecutions, BulkOperationResult result) {
+        if (jobExecutions.isEmpty()) {
+            return;
+        }
+        Assert.state(jobExecutionStatusDao != null, "No JobExecutionStatusDao was provided");
+        boolean[] updated = jobExecutionStatusDao.updateJobExecutionStatuses(jobExecutions);
+        Set<Long> ids = new HashSet<Long>();
+        for (JobExecution jobExecution : jobExecutions) {
+            ids.add(jobExecution.getId());
+        }
+        evictJobExecutions(ids);
+        for (int i = 0; i < updated.length; i++) {
+            Long id = jobExecutions.get(i).getId();
+            if (updated[i]) {
+                result.add(id, Outcome.UPDATED);
+            } else {
+                result.add(id, Outcome.CONFLICT, "Changed since it was read");
+            }
+        }
     }
 
     @Override
     public JobExecution stop(Long jobExecutionId) throws NoSuchJobExecutionException, JobExecutionNotRunningException {
 
-        JobExecution jobExecution = getJobExecution(jobExecutionId);
+        evictJobExecutions(Set.of(jobExecutionId));
+        JobExecution jobExecution = loadJobExecution(jobExecutionId);
         if (!jobExecution.isRunning()) {
             throw new JobExecutionNotRunningException("JobExecution is not running and therefore cannot be stopped");
         }
 
         logger.info("Stopping job execution: " + jobExecution);
 
-        Collection<String> jsrJobNames = getJsrJobNames();
-
-        if (jsrJobOperator != null && jsrJobNames.contains(jobExecution.getJobInstance().getJobName())) {
+        if (jsrJobOperator != null && jobCatalog.isJsrJob(jobExecution.getJobInstance().getJobName())) {
             jsrJobOperator.stop(jobExecutionId);
             jobExecution = getJobExecution(jobExecutionId);
         } else {
@@ -395,7 +729,9 @@ public class SimpleJobService implements JobService, DisposableBean {
     public JobExecution abandon(Long jobExecutionId)
         throws NoSuchJobExecutionException, JobExecutionAlreadyRunningException {
 
-        JobExecution jobExecution = getJobExecution(jobExecutionId);
+        // a finished execution is cached but abandoning it changes it
+        evictJobExecutions(Set.of(jobExecutionId));
+        JobExecution jobExecution = loadJobExecution(jobExecutionId);
         if (jobExecution.getStatus().isLessThan(BatchStatus.STOPPING)) {
             throw new JobExecutionAlreadyRunningException(
                 "JobExecution is running or complete and therefore cannot be aborted");
@@ -403,10 +739,8 @@ public class SimpleJobService implements JobService, DisposableBean {
 
         logger.info("Aborting job execution: " + jobExecution);
 
-        Collection<String> jsrJobNames = getJsrJobNames();
-
         JobInstance jobInstance = jobExecution.getJobInstance();
-        if (jsrJobOperator != null && jsrJobNames.contains(jobInstance.getJobName())) {
+        if (jsrJobOperator != null && jobCatalog.isJsrJob(jobInstance.getJobName())) {
             jsrJobOperator.abandon(jobExecutionId);
             jobExecution = getJobExecution(jobExecutionId);
         } else {
@@ -432,17 +766,51 @@ public class SimpleJobService implements JobService, DisposableBean {
 
     @Override
     public JobExecution getJobExecution(Long jobExecutionId) throws NoSuchJobExecutionException {
+        JobExecution jobExecution = jobExecutionCache.get(jobExecutionId);
+        if (jobExecution == null) {
+            jobExecution = loadJobExecution(jobExecutionId);
+            if (ExecutionCache.isFinished(jobExecution.getStatus(), jobExecution.getEndTime() != null)) {
+                jobExecutionCache.put(jobExecutionId, jobExecution);
+            }
+        }
+        return jobExecution;
+    }
+
+    @Override
+    public Collection<StepExecution> listStepExecutionsForJobExecution(Long jobExecutionId, String sort,
+        boolean ascending, int start, int count) throws NoSuchJobExecutionException {
+        // a fresh parent: the page is attached to it
+        JobExecution jobExecution = loadJobExecution(jobExecutionId, false);
+        return stepExecutionDao.getStepExecutions(jobExecution, sort, ascending, start, count);
+    }
+
+    @Override
+    public JobExecutionSummary getJobExecutionSummary(Long jobExecutionId) throws NoSuchJobExecutionException {
+        JobExecution jobExecution = loadJobExecution(jobExecutionId, false);
+        return new JobExecutionSummary(jobExecution, stepExecutionDao.countStepExecutionsByStatus(jobExecutionId));
+    }
+
+    @Override
+    public PartitionRollup getPartitionRollup(Long jobExecutionId, String stepName, int slowest)
+        throws NoSuchJobExecutionException {
+        checkJobExecutionExists(jobExecutionId);
+        return stepExecutionDao.getPartitionRollup(jobExecutionId, stepName, slowest);
+    }
+
+    private JobExecution loadJobExecution(Long jobExecutionId) throws NoSuchJobExecutionException {
+        return loadJobExecution(jobExecutionId, true);
+    }
+
+    private JobExecution loadJobExecution(Long jobExecutionId, boolean withStepExecutions)
+        throws NoSuchJobExecutionException {
         JobExecution jobExecution = jobExecutionDao.getJobExecution(jobExecutionId);
         if (jobExecution == null) {
             throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
         }
         jobExecution.setJobInstance(jobInstanceDao.getJobInstance(jobExecution));
-        try {
-            jobExecution.setExecutionContext(executionContextDao.getExecutionContext(jobExecution));
-        } catch (Exception e) {
-            logger.info("Cannot load execution context for job execution: " + jobExecution);
+        if (withStepExecutions) {
+            stepExecutionDao.addStepExecutions(jobExecution);
         }
-        stepExecutionDao.addStepExecutions(jobExecution);
         return jobExecution;
     }
 
@@ -452,27 +820,112 @@ public class SimpleJobService implements JobService, DisposableBean {
         checkJobExists(name);
         List<JobExecution> jobExecutions = jobExecutionDao
             .findJobExecutions(jobInstanceDao.getJobInstance(jobInstanceId));
-        for (JobExecution jobExecution : jobExecutions) {
-            stepExecutionDao.addStepExecutions(jobExecution);
-        }
+        stepExecutionDao.addStepExecutions(jobExecutions);
         return jobExecutions;
     }
 
     @Override
     public StepExecution getStepExecution(Long jobExecutionId, Long stepExecutionId)
         throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+        StepExecution stepExecution = stepExecutionCache.get(stepExecutionId);
+        if (stepExecution != null && jobExecutionId.equals(stepExecution.getJobExecutionId())) {
+            return stepExecution;
+        }
         JobExecution jobExecution = getJobExecution(jobExecutionId);
-        StepExecution stepExecution = stepExecutionDao.getStepExecution(jobExecution, stepExecutionId);
+        stepExecution = stepExecutionDao.getStepExecution(jobExecution, stepExecutionId);
         if (stepExecution == null) {
             throw new NoSuchStepExecutionException(
                 "There is no StepExecution with jobExecutionId=" + jobExecutionId + " and id=" + stepExecutionId);
         }
+        if (ExecutionCache.isFinished(stepExecution.getStatus(), stepExecution.getEndTime() != null)) {
+            stepExecutionCache.put(stepExecutionId, stepExecution);
+        }
+        return stepExecution;
+    }
+
+    @Override
+    public ExecutionContext getJobExecutionContext(Long jobExecutionId) throws NoSuchJobExecutionException {
+        JobExecution jobExecution = getJobExecution(jobExecutionId);
+        try {
+            return executionContextDao.getExecutionContext(jobExecution);
+        } catch (Exception e) {
+            logger.info("Cannot load execution context for job execution: " + jobExecution);
+            return new ExecutionContext();
+        }
+    }
+
+    @Override
+    public ExecutionContext getStepExecutionContext(Long jobExecutionId, Long stepExecutionId)
+        throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+        StepExecution stepExecution = getStepExecution(jobExecutionId, stepExecutionId);
         try {
-            stepExecution.setExecutionContext(executionContextDao.getExecutionContext(stepExecution));
+            return executionContextDao.getExecutionContext(stepExecution);
         } catch (Exception e) {
             logger.info("Cannot load execution context for step execution: " + stepExecution);
+            return new ExecutionContext();
+        }
+    }
+
+    @Override
+    public String getJobExecutionContextPreview(Long jobExecutionId) throws NoSuchJobExecutionException {
+        checkJobExecutionExists(jobExecutionId);
+        return getSerializedContextDao().getJobExecutionShortContext(jobExecutionId);
+    }
+
+    @Override
+    public String getStepExecutionContextPreview(Long jobExecutionId, Long stepExecutionId)
+        throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+        checkStepExecutionExists(jobExecutionId, stepExecutionId);
+        return getSerializedContextDao().getStepExecutionShortContext(stepExecutionId);
+    }
+
+    @Override
+    public boolean writeJobExecutionContext(Long jobExecutionId, Writer writer, int maxLength)
+        throws NoSuchJobExecutionException, IOException {
+        checkJobExecutionExists(jobExecutionId);
+        return getSerializedContextDao().writeJobExecutionContext(jobExecutionId, writer, maxLength);
+    }
+
+    @Override
+    public boolean writeStepExecutionContext(Long jobExecutionId, Long stepExecutionId, Writer writer, int maxLength)
+        throws NoSuchJobExecutionException, NoSuchStepExecutionException, IOException {
+        checkStepExecutionExists(jobExecutionId, stepExecutionId);
+        return getSerializedContextDao().writeStepExecutionContext(stepExecutionId, writer, maxLength);
+    }
+
+    /**
+     * Check that a job execution exists without loading it (a cached one
+     * takes no query, otherwise only its status is read).
+     */
+    private void checkJobExecutionExists(Long jobExecutionId) throws NoSuchJobExecutionException {
+        if (jobExecutionCache.get(jobExecutionId) == null
+            && jobExecutionDao.getJobExecutionStatuses(Collections.singleton(jobExecutionId)).isEmpty()) {
+            throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
         }
-        return stepExecution;
+    }
+
+    /**
+     * Check that a step execution of a job execution exists without loading
+     * either of them.
+     */
+    private void checkStepExecutionExists(Long jobExecutionId, Long stepExecutionId)
+        throws NoSuchJobExecutionException, NoSuchStepExecutionException {
+        StepExecution stepExecution = stepExecutionCache.get(stepExecutionId);
+        if (stepExecution != null && jobExecutionId.equals(stepExecution.getJobExecutionId())) {
+            return;
+        }
+        if (stepExecutionDao.getStepExecutionStatuses(jobExecutionId, Collections.singleton(stepExecutionId))
+            .isEmpty()) {
+            // the job execution may be missing too
+            checkJobExecutionExists(jobExecutionId);
+            throw new NoSuchStepExecutionException(
+                "There is no StepExecution with jobExecutionId=" + jobExecutionId + " and id=" + stepExecutionId);
+        }
+    }
+
+    private SerializedContextDao getSerializedContextDao() {
+        Assert.state(serializedContextDao != null, "No SerializedContextDao was provided");
+        return serializedContextDao;
     }
 
     @Override
@@ -480,19 +933,123 @@ public class SimpleJobService implements JobService, DisposableBean {
         throws NoSuchJobException {
         checkJobExists(jobName);
         List<JobExecution> jobExecutions = jobExecutionDao.getJobExecutions(jobName, start, count);
-        for (JobExecution jobExecution : jobExecutions) {
-            stepExecutionDao.addStepExecutions(jobExecution);
-        }
+        stepExecutionDao.addStepExecutions(jobExecutions);
         return jobExecutions;
     }
 
+    @Override
+    public ContinuationPage<JobExecution> listJobExecutionsForJobAfter(String jobName, Long afterJobExecutionId,
+        int count) throws NoSuchJobException {
+        checkJobExists(jobName);
+        ContinuationPage<JobExecution> page = ContinuationPage
+            .of(jobExecutionDao.getJobExecutionsAfter(jobName, afterJobExecutionId, count + 1), count, JobExecution::getId);
+        stepExecutionDao.addStepExecutions(page.getItems());
+        return page;
+    }
+
+    @Override
+    public ContinuationPage<JobExecutionRecord> listJobExecutionRecords(String jobName, Long afterJobExecutionId,
+        int count) throws NoSuchJobException {
+        if (jobName != null) {
+            checkJobExists(jobName);
+        }
+        return ContinuationPage.of(jobExecutionDao.getJobExecutionRecordsAfter(jobName, afterJobExecutionId, count + 1),
+            count, JobExecutionRecord::id);
+    }
+
+    @Override
+    public JobExecutionRecord getJobExecutionRecord(Long jobExecutionId) throws NoSuchJobExecutionException {
+        JobExecutionRecord record = jobExecutionDao.getJobExecutionRecord(jobExecutionId);
+        if (record == null) {
+            throw new NoSuchJobExecutionException("There is no JobExecution with id=" + jobExecutionId);
+        }
+        return record;
+    }
+
+    @Override
+    public Collection<JobExecutionRecord> getJobExecutionRecords(Collection<Long> jobExecutionIds) {
+        return jobExecutionDao.getJobExecutionRecords(jobExecutionIds);
+    }
+
+    @Override
+    public Collection<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds) {
+        return stepExecutionDao.getStepExecutionRecords(jobExecutionIds);
+    }
+
+    @Override
+    public Collection<StepExecutionRecord> getStepExecutionRecords(Collection<Long> jobExecutionIds,
+        LocalDateTime updatedAfter) {
+        return stepExecutionDao.getStepExecutionRecords(jobExecutionIds, updatedAfter);
+    }
+
+    @Override
+    public ExecutionChanges getExecutionChanges(String cursor, int count) {
+        ChangeCursor from = ChangeCursor.decode(cursor);
+        // only changes old enough to have committed, so the cursor never passes one still in flight
+        LocalDateTime settled = LocalDateTime.now().minus(changeSafetyLag, ChronoUnit.MILLIS);
+        List<JobExecutionRecord> jobExecutions = jobExecutionDao
+            .getJobExecutionRecordsUpdatedAfter(from.jobLastUpdated, from.jobExecutionId, settled, count + 1);
+        List<StepExecutionRecord> stepExecutions = stepExecutionDao
+            .getStepExecutionRecordsUpdatedAfter(from.stepLastUpdated, from.stepExecutionId, settled, count + 1);
+        boolean more = jobExecutions.size() > count || stepExecutions.size() > count;
+        jobExecutions = jobExecutions.subList(0, Math.min(count, jobExecutions.size()));
+        stepExecutions = stepExecutions.subList(0, Math.min(count, stepExecutions.size()));
+
+        JobExecutionRecord lastJobExecution = jobExecutions.isEmpty() ? null
+            : jobExecutions.get(jobExecutions.size() - 1);
+        StepExecutionRecord lastStepExecution = stepExecutions.isEmpty() ? null
+            : stepExecutions.get(stepExecutions.size() - 1);
+        ChangeCursor next = new ChangeCursor(
+            lastJobExecution == null ? from.jobLastUpdated : lastJobExecution.lastUpdated(),
+            lastJobExecution == null ? from.jobExecutionId : Long.valueOf(lastJobExecution.id()),
+            lastStepExecution == null ? from.stepLastUpdated : lastStepExecution.lastUpdated(),
+            lastStepExecution == null ? from.stepExecutionId : Long.valueOf(lastStepExecution.id()));
+        return new ExecutionChanges(jobExecutions, stepExecutions, next.encode(), more);
+    }
+
+    @Override
+    public Collection<JobInstanceRecord> listJobInstanceRecords(String jobName, int start, int count)
+        throws NoSuchJobException {
+        checkJobExists(jobName);
+        return jobInstanceDao.getJobInstanceRecords(jobName, start, count);
+    }
+
+    @Override
+    public Collection<StepExecutionRecord> listStepExecutionRecords(Long jobExecutionId, int start, int count)
+        throws NoSuchJobExecutionException {
+        checkJobExecutionExists(jobExecutionId);
+        return stepExecutionDao.getStepExecutionRecords(jobExecutionId, start, count);
+    }
+
+    @Override
+    public void exportJobExecutionRecords(String jobName, boolean withParameters,
+        BiConsumer<JobExecutionRecord, Map<String, String>> handler) throws NoSuchJobException {
+        if (jobName != null) {
+            checkJobExists(jobName);
+        }
+        jobExecutionDao.exportJobExecutionRecords(jobName, withParameters, handler);
+    }
+
+    @Override
+    public void exportStepExecutionRecords(String jobName, Consumer<StepExecutionRecord> handler)
+        throws NoSuchJobException {
+        if (jobName != null) {
+            checkJobExists(jobName);
+        }
+        stepExecutionDao.exportStepExecutionRecords(jobName, handler);
+    }
+
     @Override
     public Collection<StepExecution> listStepExecutionsForStep(String jobName, String stepName, int start, int count)
         throws NoSuchStepException {
-        if (stepExecutionDao.countStepExecutions(jobName, stepName) == 0) {
+        Collection<StepExecution> stepExecutions = stepExecutionDao.findStepExecutions(jobName, stepName, start, count);
+        // An empty page only means the step is unknown if there is nothing on the
+        // first page either (the count may be cached or estimated so is no use here)
+        if (stepExecutions.isEmpty()
+            && (start <= 0 || stepExecutionDao.findStepExecutions(jobName, stepName, 0, 1).isEmpty())) {
             throw new NoSuchStepException("No step executions exist with this step name: " + stepName);
         }
-        return stepExecutionDao.findStepExecutions(jobName, stepName, start, count);
+        return stepExecutions;
     }
 
     @Override
@@ -500,6 +1057,51 @@ public class SimpleJobService implements JobService, DisposableBean {
         return stepExecutionDao.countStepExecutions(jobName, stepName);
     }
 
+    @Override
+    public StepExecutionHistory getStepExecutionHistory(String jobName, String stepName) {
+        StepExecutionHistorySnapshot snapshot = stepExecutionHistoryStore.getSnapshot(jobName, stepName);
+        StepExecutionHistory history = snapshot == null ? new StepExecutionHistory(stepName) : snapshot.getHistory();
+        long watermark = snapshot == null ? -1L : snapshot.getHighWaterMark();
+        Set<Long> pending = snapshot == null ? Collections.<Long>emptySet() : snapshot.getPendingStepExecutionIds();
+        boolean changed = false;
+        if (!pending.isEmpty()) {
+            // Step executions the watermark skipped while they were unfinished
+            // are folded in once they are not (if they ended at all)
+            Set<Long> unfinished = stepExecutionDao.getUnfinishedStepExecutionIds(pending);
+            if (unfinished.size() < pending.size()) {
+                Set<Long> done = new TreeSet<Long>(pending);
+                done.removeAll(unfinished);
+                history = history.combine(stepExecutionDao.getStepExecutionHistory(stepName, done));
+                pending = unfinished;
+                changed = true;
+            }
+        }
+        long next = stepExecutionDao.getStepExecutionHistoryWatermark(jobName, stepName, watermark,
+            LocalDateTime.now().minus(unfinishedStepTimeout, ChronoUnit.MILLIS), activeExecutions.getIds());
+        if (next > watermark) {
+            Set<Long> skipped = stepExecutionDao.getUnfinishedStepExecutionIds(jobName, stepName, watermark, next);
+            history = history
+                .combine(stepExecutionDao.getStepExecutionHistory(jobName, stepName, watermark, next, skipped));
+            if (!skipped.isEmpty()) {
+                TreeSet<Long> all = new TreeSet<Long>(pending);
+                all.addAll(skipped);
+                while (all.size() > MAX_PENDING_STEP_EXECUTIONS) {
+                    all.pollFirst();
+                }
+                pending = all;
+            }
+            watermark = next;
+            changed = true;
+        }
+        if (changed) {
+            stepExecutionHistoryStore
+                .saveSnapshot(new StepExecutionHistorySnapshot(jobName, stepName, history, watermark, pending));
+        }
+        // Executions after the watermark may be finished, but something before
+        // them is still running, so they are added without being saved
+        return history.combine(stepExecutionDao.getStepExecutionHistory(jobName, stepName, watermark, Long.MAX_VALUE));
+    }
+
     @Override
     public JobInstance getJobInstance(long jobInstanceId) throws NoSuchJobInstanceException {
         JobInstance jobInstance = jobInstanceDao.getJobInstance(jobInstanceId);
@@ -515,6 +1117,28 @@ public class SimpleJobService implements JobService, DisposableBean {
         return jobInstanceDao.getJobInstances(jobName, start, count);
     }
 
+    @Override
+    public Map<JobInstance, Collection<JobExecution>> listJobInstancesWithExecutions(String jobName, int start,
+        int count) throws NoSuchJobException {
+        checkJobExists(jobName);
+        Map<Long, Collection<JobExecution>> executionsByInstanceId = new LinkedHashMap<Long, Collection<JobExecution>>();
+        Map<JobInstance, Collection<JobExecution>> result = new LinkedHashMap<JobInstance, Collection<JobExecution>>();
+        for (JobInstance jobInstance : jobInstanceDao.getJobInstances(jobName, start, count)) {
+            Collection<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+            executionsByInstanceId.put(jobInstance.getId(), jobExecutions);
+            result.put(jobInstance, jobExecutions);
+        }
+        if (executionsByInstanceId.isEmpty()) {
+            return result;
+        }
+        List<JobExecution> jobExecutions = jobExecutionDao.findJobExecutions(executionsByInstanceId.keySet());
+        stepExecutionDao.addStepExecutions(jobExecutions);
+        for (JobExecution jobExecution : jobExecutions) {
+            executionsByInstanceId.get(jobExecution.getJobId()).add(jobExecution);
+        }
+        return result;
+    }
+
     @Override
     public Collection<String> getStepNamesForJob(String jobName) throws NoSuchJobException {
         try {
@@ -534,14 +1158,9 @@ public class SimpleJobService implements JobService, DisposableBean {
         return Collections.unmodifiableList(new ArrayList<String>(stepNames));
     }
 
-    private void checkJobExists(String jobName) throws NoSuchJobException {
-        if (getJsrJobNames().contains(jobName)) {
-            return;
-        }
-        if (jobLocator.getJobNames().contains(jobName)) {
-            return;
-        }
-        if (jobInstanceDao.countJobInstances(jobName) > 0) {
+    @Override
+    public void checkJobExists(String jobName) throws NoSuchJobException {
+        if (jobCatalog.exists(jobName)) {
             return;
         }
         throw new NoSuchJobException("No Job with that name either current or historic: [" + jobName + "]");
@@ -549,14 +1168,24 @@ public class SimpleJobService implements JobService, DisposableBean {
 
     /**
      * Stop all the active jobs and wait for them (up to a time out) to finish
-     * processing.
+     * processing. Returns as soon as the last one finishes, and logs the ones
+     * that did not finish in time.
      */
     @Override
     public void destroy() throws Exception {
 
         Exception firstException = null;
 
-        for (JobExecution jobExecution : activeExecutions) {
+        try {
+            // drop anything that already finished without telling us, before
+            // stopping the rest: from then on only their afterJob callbacks
+            // (when the threads are really done) may complete them
+            removeInactiveExecutions();
+        } catch (Exception e) {
+            logger.warn("Could not check the status of the active executions", e);
+        }
+
+        for (JobExecution jobExecution : activeExecutions.getExecutions()) {
             try {
                 if (jobExecution.isRunning()) {
                     stop(jobExecution.getId());
@@ -571,12 +1200,21 @@ public class SimpleJobService implements JobService, DisposableBean {
             }
         }
 
-        int count = 0;
-        int maxCount = (shutdownTimeout + 1000) / 1000;
-        while (!activeExecutions.isEmpty() && ++count < maxCount) {
-            logger.error("Waiting for " + activeExecutions.size() + " active executions to complete");
-            removeInactiveExecutions();
-            Thread.sleep(1000L);
+        if (!activeExecutions.isEmpty()) {
+            logger.info("Waiting up to " + shutdownTimeout + "ms for " + activeExecutions.size()
+                + " active executions to complete");
+            Collection<JobExecution> remaining = activeExecutions.awaitTermination(shutdownTimeout);
+            if (!remaining.isEmpty()) {
+                StringBuilder executions = new StringBuilder();
+                for (JobExecution jobExecution : remaining) {
+                    executions.append(executions.length() == 0 ? "" : ", ").append(jobExecution.getId());
+                    if (jobExecution.getJobInstance() != null) {
+                        executions.append(" (").append(jobExecution.getJobInstance().getJobName()).append(")");
+                    }
+                }
+                logger.error("Timed out after " + shutdownTimeout + "ms waiting for " + remaining.size()
+                    + " job executions to complete: " + executions);
+            }
         }
 
         if (firstException != null) {
@@ -585,25 +1223,106 @@ public class SimpleJobService implements JobService, DisposableBean {
 
     }
 
+    /**
+     * The executions launched by this service that are still running. They are
+     * registered and removed by a listener as they start and finish.
+     *
+     * @return the registry of active executions
+     */
+    public ActiveExecutionRegistry getActiveExecutions() {
+        return activeExecutions;
+    }
+
     /**
      * Check all the active executions and see if they are still actually running.
-     * Remove the ones that have completed.
+     * Remove the ones that have completed, i.e. have an end time (a STOPPED
+     * execution may still be finishing its current chunk). Executions normally
+     * remove themselves when they finish, so this is only a fallback (e.g. for
+     * an execution that died without the callback) and reads just their ids,
+     * in a single query.
      */
     @Scheduled(fixedDelay = 60000)
     public void removeInactiveExecutions() {
 
-        for (Iterator<JobExecution> iterator = activeExecutions.iterator(); iterator.hasNext();) {
-            JobExecution jobExecution = iterator.next();
-            try {
-                jobExecution = getJobExecution(jobExecution.getId());
-            } catch (NoSuchJobExecutionException e) {
-                logger.error("Unexpected exception loading JobExecution", e);
-            }
-            if (!jobExecution.isRunning()) {
-                iterator.remove();
+        Collection<Long> ids = activeExecutions.getIds();
+        if (ids.isEmpty()) {
+            return;
+        }
+        int removed = activeExecutions.reconcile(jobExecutionDao.getUnfinishedJobExecutionIds(ids));
+        if (removed > 0) {
+            logger.info("Removed " + removed + " job executions that are no longer running");
+        }
+
+    }
+
+    /**
+     * Evict job executions that have changed, and their step executions,
+     * which hold a copy of them.
+     */
+    private void evictJobExecutions(Set<Long> jobExecutionIds) {
+        for (Long id : jobExecutionIds) {
+            jobExecutionCache.evict(id);
+        }
+        stepExecutionCache.evictIf(stepExecution -> jobExecutionIds.contains(stepExecution.getJobExecutionId()));
+    }
+
+    /**
+     * A copy of a job execution and its step executions, sharing only the
+     * immutable parts (the job instance and parameters).
+     */
+    private static JobExecution copyOf(JobExecution source) {
+        JobExecution jobExecution = new JobExecution(source.getJobInstance(), source.getId(),
+            source.getJobParameters());
+        jobExecution.setStartTime(source.getStartTime());
+        jobExecution.setEndTime(source.getEndTime());
+        jobExecution.setStatus(source.getStatus());
+        jobExecution.setExitStatus(source.getExitStatus());
+        jobExecution.setCreateTime(source.getCreateTime());
+        jobExecution.setLastUpdated(source.getLastUpdated());
+        jobExecution.setVersion(source.getVersion());
+        jobExecution.setExecutionContext(new ExecutionContext(source.getExecutionContext()));
+        source.getFailureExceptions().forEach(jobExecution::addFailureException);
+        List<StepExecution> stepExecutions = new ArrayList<StepExecution>();
+        for (StepExecution stepExecution : source.getStepExecutions()) {
+            stepExecutions.add(copyOf(stepExecution, jobExecution));
+        }
+        jobExecution.addStepExecutions(stepExecutions);
+        return jobExecution;
+    }
+
+    /**
+     * A copy of a step execution, with a copy of its job execution.
+     */
+    private static StepExecution copyOf(StepExecution source) {
+        JobExecution jobExecution = copyOf(source.getJobExecution());
+        for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+            if (stepExecution.getId().equals(source.getId())) {
+                return stepExecution;
             }
         }
+        return copyOf(source, jobExecution);
+    }
 
+    private static StepExecution copyOf(StepExecution source, JobExecution jobExecution) {
+        StepExecution stepExecution = new StepExecution(source.getStepName(), jobExecution, source.getId());
+        stepExecution.setStatus(source.getStatus());
+        stepExecution.setExitStatus(source.getExitStatus());
+        stepExecution.setReadCount(source.getReadCount());
+        stepExecution.setWriteCount(source.getWriteCount());
+        stepExecution.setFilterCount(source.getFilterCount());
+        stepExecution.setCommitCount(source.getCommitCount());
+        stepExecution.setRollbackCount(source.getRollbackCount());
+        stepExecution.setReadSkipCount(source.getReadSkipCount());
+        stepExecution.setProcessSkipCount(source.getProcessSkipCount());
+        stepExecution.setWriteSkipCount(source.getWriteSkipCount());
+        stepExecution.setStartTime(source.getStartTime());
+        stepExecution.setEndTime(source.getEndTime());
+        stepExecution.setCreateTime(source.getCreateTime());
+        stepExecution.setLastUpdated(source.getLastUpdated());
+        stepExecution.setVersion(source.getVersion());
+        stepExecution.setExecutionContext(new ExecutionContext(source.getExecutionContext()));
+        source.getFailureExceptions().forEach(stepExecution::addFailureException);
+        return stepExecution;
     }
 
 }
@@ -43,7 +43,6 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.convert.support.ConfigurableConversionService;
 import org.springframework.jdbc.core.JdbcOperations;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.support.lob.DefaultLobHandler;
 import org.springframework.jdbc.support.lob.LobHandler;
 import org.springframework.transaction.PlatformTransactionManager;
@@ -90,6 +89,22 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
 
     private ConfigurableConversionService conversionService;
 
+    private CountStrategy countStrategy = new ExactCountStrategy();
+
+    private boolean persistStepExecutionHistory = false;
+
+    private long unfinishedStepTimeout = 60 * 60 * 1000L;
+
+    private long changeSafetyLag = 5 * 1000L;
+
+    private int executionCacheSize = 1000;
+
+    private long executionCacheWeight = 50000;
+
+    private LaunchQueue launchQueue;
+
+    private int exportFetchSize = 1000;
+
     public void setTransactionManager(PlatformTransactionManager transactionManager) {
         this.transactionManager = transactionManager;
     }
@@ -161,6 +176,97 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
         this.incrementerFactory = incrementerFactory;
     }
 
+    /**
+     * The strategy used to count job and step executions for pagination.
+     * Defaults to {@link ExactCountStrategy}; on large meta data tables a
+     * {@link CachedCountStrategy}, {@link EstimatedCountStrategy} or
+     * {@link UnknownCountStrategy} avoids a full count on every page view.
+     * 
+     * @param countStrategy the {@link CountStrategy} to set
+     */
+    public void setCountStrategy(CountStrategy countStrategy) {
+        this.countStrategy = countStrategy;
+    }
+
+    /**
+     * Whether to keep step execution history snapshots in the
+     * <code>STEP_EXECUTION_HISTORY</code> table (with the same prefix as the
+     * other tables) instead of in memory. The table has to be created first,
+     * see {@link JdbcStepExecutionHistoryStore}. Defaults to false.
+     * 
+     * @param persistStepExecutionHistory the flag to set
+     */
+    public void setPersistStepExecutionHistory(boolean persistStepExecutionHistory) {
+        this.persistStepExecutionHistory = persistStepExecutionHistory;
+    }
+
+    /**
+     * How long an unfinished step execution can go without an update before
+     * the step execution history stops waiting for it to finish (it is still
+     * folded in later if it does). Defaults to 1 hour.
+     * 
+     * @param unfinishedStepTimeout the timeout in milliseconds
+     * @see SimpleJobService#setUnfinishedStepTimeout(long)
+     */
+    public void setUnfinishedStepTimeout(long unfinishedStepTimeout) {
+        this.unfinishedStepTimeout = unfinishedStepTimeout;
+    }
+
+    /**
+     * How far behind the current time the change feed stays, so that it does
+     * not skip updates that have not committed yet. Defaults to 5 seconds.
+     * 
+     * @param changeSafetyLag the lag in milliseconds
+     * @see SimpleJobService#setChangeSafetyLag(long)
+     */
+    public void setChangeSafetyLag(long changeSafetyLag) {
+        this.changeSafetyLag = changeSafetyLag;
+    }
+
+    /**
+     * The maximum number of finished job executions, and separately of step
+     * executions, to cache. Defaults to 1000; 0 disables the caches.
+     * 
+     * @param executionCacheSize the cache size to set
+     * @see SimpleJobService#setExecutionCacheLimits(int, long)
+     */
+    public void setExecutionCacheSize(int executionCacheSize) {
+        this.executionCacheSize = executionCacheSize;
+    }
+
+    /**
+     * The maximum total weight of each execution cache. Defaults to 50000.
+     * 
+     * @param executionCacheWeight the cache weight to set
+     * @see SimpleJobService#setExecutionCacheLimits(int, long)
+     */
+    public void setExecutionCacheWeight(long executionCacheWeight) {
+        this.executionCacheWeight = executionCacheWeight;
+    }
+
+    /**
+     * Admission control for launches, which should have the same limits as
+     * the task executor of the {@link JobLauncher}. Defaults to a queue for 6
+     * concurrent executions with 100 waiting.
+     * 
+     * @param launchQueue the launch queue to set
+     * @see SimpleJobService#setLaunchQueue(LaunchQueue)
+     */
+    public void setLaunchQueue(LaunchQueue launchQueue) {
+        this.launchQueue = launchQueue;
+    }
+
+    /**
+     * The number of rows fetched at a time by the forward-only cursors used to
+     * export job and step executions. Defaults to 1000; some drivers need a
+     * special value to stream (e.g. <code>Integer.MIN_VALUE</code> for MySQL).
+     * 
+     * @param exportFetchSize the fetch size to set
+     */
+    public void setExportFetchSize(int exportFetchSize) {
+        this.exportFetchSize = exportFetchSize;
+    }
+
     public void setJobExplorer(JobExplorer jobExplorer) {
         this.jobExplorer = jobExplorer;
     }
@@ -213,7 +319,7 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
         Assert.notNull(jobLauncher, "JobLauncher must not be null.");
         Assert.notNull(jobExplorer, "JobExplorer must not be null.");
 
-        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate = new QueryCountingJdbcTemplate(dataSource);
 
         if (incrementerFactory == null) {
             incrementerFactory = new DefaultDataFieldMaxValueIncrementerFactory(dataSource);
@@ -254,12 +360,15 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
     protected SearchableJobExecutionDao createJobExecutionDao() throws Exception {
         JdbcSearchableJobExecutionDao dao = new JdbcSearchableJobExecutionDao();
         dao.setDataSource(dataSource);
+        dao.setJdbcTemplate(jdbcTemplate);
         dao.setJobExecutionIncrementer(incrementerFactory.getIncrementer(databaseType, tablePrefix
                 + "JOB_EXECUTION_SEQ"));
         dao.setTablePrefix(tablePrefix);
         dao.setClobTypeToUse(determineClobTypeToUse(this.databaseType));
         dao.setExitMessageLength(maxVarCharLength);
         dao.setConversionService(conversionService);
+        dao.setCountStrategy(countStrategy);
+        dao.setExportFetchSize(exportFetchSize);
         dao.afterPropertiesSet();
         return dao;
     }
@@ -267,11 +376,15 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
     protected SearchableStepExecutionDao createStepExecutionDao() throws Exception {
         JdbcSearchableStepExecutionDao dao = new JdbcSearchableStepExecutionDao();
         dao.setDataSource(dataSource);
+        dao.setJdbcTemplate(jdbcTemplate);
         dao.setStepExecutionIncrementer(incrementerFactory.getIncrementer(databaseType, tablePrefix
                 + "STEP_EXECUTION_SEQ"));
         dao.setTablePrefix(tablePrefix);
         dao.setClobTypeToUse(determineClobTypeToUse(this.databaseType));
         dao.setExitMessageLength(maxVarCharLength);
+        dao.setCountStrategy(countStrategy);
+        dao.setExportFetchSize(exportFetchSize);
+        dao.setDatabaseType(databaseType);
         dao.afterPropertiesSet();
         return dao;
     }
@@ -291,6 +404,22 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
         return dao;
     }
 
+    protected SerializedContextDao createSerializedContextDao() throws Exception {
+        JdbcSerializedContextDao dao = new JdbcSerializedContextDao();
+        dao.setJdbcTemplate(jdbcTemplate);
+        dao.setTablePrefix(tablePrefix);
+        dao.afterPropertiesSet();
+        return dao;
+    }
+
+    protected JobExecutionStatusDao createJobExecutionStatusDao() throws Exception {
+        JdbcJobExecutionStatusDao dao = new JdbcJobExecutionStatusDao();
+        dao.setJdbcTemplate(jdbcTemplate);
+        dao.setTablePrefix(tablePrefix);
+        dao.afterPropertiesSet();
+        return dao;
+    }
+
     private int determineClobTypeToUse(String databaseType) {
         if (SYBASE == DatabaseType.valueOf(databaseType.toUpperCase())) {
             return Types.LONGVARCHAR;
@@ -312,8 +441,29 @@ public class SimpleJobServiceFactoryBean implements FactoryBean<JobService>, Ini
         jsrJobOperator.setJobExplorer(jobExplorer);
         jsrJobOperator.setJobRepository(jobRepository);
         jsrJobOperator.afterPropertiesSet();
-        return new SimpleJobService(createJobInstanceDao(), createJobExecutionDao(), createStepExecutionDao(),
-                jobRepository, jobLauncher, jobLocator, createExecutionContextDao(), jsrJobOperator);
+        SimpleJobService jobService = new SimpleJobService(createJobInstanceDao(), createJobExecutionDao(),
+                createStepExecutionDao(), jobRepository, jobLauncher, jobLocator, createExecutionContextDao(),
+                jsrJobOperator);
+        jobService.setExecutionCacheLimits(executionCacheSize, executionCacheWeight);
+        jobService.setUnfinishedStepTimeout(unfinishedStepTimeout);
+        jobService.setChangeSafetyLag(changeSafetyLag);
+        jobService.setSerializedContextDao(createSerializedContextDao());
+        jobService.setJobExecutionStatusDao(createJobExecutionStatusDao());
+        if (launchQueue != null) {
+            jobService.setLaunchQueue(launchQueue);
+        }
+        if (persistStepExecutionHistory) {
+            jobService.setStepExecutionHistoryStore(createStepExecutionHistoryStore());
+        }
+        return jobService;
+    }
+
+    protected StepExecutionHistoryStore createStepExecutionHistoryStore() throws Exception {
+        JdbcStepExecutionHistoryStore store = new JdbcStepExecutionHistoryStore();
+        store.setJdbcTemplate(jdbcTemplate);
+        store.setTablePrefix(tablePrefix);
+        store.afterPropertiesSet();
+        return store;
     }
 
     /**
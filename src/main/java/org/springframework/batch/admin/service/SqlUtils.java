@@ -0,0 +1,122 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+/**
+ * Helpers for the set-based queries in the searchable DAOs.
+ */
+final class SqlUtils {
+
+	/**
+	 * Upper bound on the number of ids in a single IN clause (Oracle rejects
+	 * more than 1000).
+	 */
+	static final int MAX_IN_CLAUSE_SIZE = 500;
+
+	/**
+	 * The token in a query template that is replaced by the placeholders for
+	 * an IN clause.
+	 */
+	static final String IDS = "%IDS%";
+
+	private SqlUtils() {
+	}
+
+	/**
+	 * Replace the {@link #IDS} token in a query with one placeholder per id.
+	 * 
+	 * @param sql the query template
+	 * @param count the number of ids
+	 * @return the query
+	 */
+	static String inClause(String sql, int count) {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			builder.append(i == 0 ? "?" : ", ?");
+		}
+		return sql.replace(IDS, builder.toString());
+	}
+
+	/**
+	 * Split some ids into chunks no bigger than {@link #MAX_IN_CLAUSE_SIZE}.
+	 * 
+	 * @param ids the ids
+	 * @return the chunks
+	 */
+	static List<List<Long>> partition(Collection<Long> ids) {
+		List<Long> list = new ArrayList<Long>(ids);
+		List<List<Long>> chunks = new ArrayList<List<Long>>();
+		for (int i = 0; i < list.size(); i += MAX_IN_CLAUSE_SIZE) {
+			chunks.add(list.subList(i, Math.min(i + MAX_IN_CLAUSE_SIZE, list.size())));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Run a query through a forward-only, read-only cursor, passing each row to
+	 * the handler as it is fetched, so that the result is never held in memory.
+	 * A connection in auto-commit mode is switched out of it for the duration
+	 * of the query, because some drivers (e.g. PostgreSQL) ignore the fetch
+	 * size and read the whole result otherwise.
+	 * 
+	 * @param jdbcTemplate the template to get the connection from
+	 * @param sql the query
+	 * @param fetchSize the number of rows to fetch at a time (a hint for the
+	 * driver, e.g. <code>Integer.MIN_VALUE</code> streams rows on MySQL)
+	 * @param handler the handler for each row
+	 * @param args the query arguments
+	 */
+	static void queryForward(JdbcOperations jdbcTemplate, String sql, int fetchSize, RowCallbackHandler handler,
+			Object... args) {
+		jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+			boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit) {
+				connection.setAutoCommit(false);
+			}
+			try (PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+					ResultSet.CONCUR_READ_ONLY)) {
+				statement.setFetchSize(fetchSize);
+				for (int i = 0; i < args.length; i++) {
+					statement.setObject(i + 1, args[i]);
+				}
+				try (ResultSet rs = statement.executeQuery()) {
+					while (rs.next()) {
+						handler.processRow(rs);
+					}
+				}
+			}
+			finally {
+				if (autoCommit) {
+					// Nothing was written, so there is nothing to keep
+					connection.rollback();
+					connection.setAutoCommit(true);
+				}
+			}
+			return null;
+		});
+	}
+
+}
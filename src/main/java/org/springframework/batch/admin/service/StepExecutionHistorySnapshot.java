@@ -0,0 +1,98 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+
+/**
+ * A {@link StepExecutionHistory} for a job and step name (or pattern) together
+ * with the high water mark it has been computed up to: every finished step
+ * execution with an id up to and including the mark is in the history, and
+ * none after it. The exceptions are the pending step executions: ones below
+ * the mark that were still unfinished when it passed them (because they had
+ * gone too long without an update), which are folded in when they finish.
+ */
+public class StepExecutionHistorySnapshot {
+
+	private final String jobName;
+
+	private final String stepName;
+
+	private final StepExecutionHistory history;
+
+	private final long highWaterMark;
+
+	private final Set<Long> pendingStepExecutionIds;
+
+	public StepExecutionHistorySnapshot(String jobName, String stepName, StepExecutionHistory history,
+			long highWaterMark) {
+		this(jobName, stepName, history, highWaterMark, Collections.<Long>emptySet());
+	}
+
+	public StepExecutionHistorySnapshot(String jobName, String stepName, StepExecutionHistory history,
+			long highWaterMark, Set<Long> pendingStepExecutionIds) {
+		this.jobName = jobName;
+		this.stepName = stepName;
+		this.history = history;
+		this.highWaterMark = highWaterMark;
+		this.pendingStepExecutionIds = Collections.unmodifiableSet(new TreeSet<Long>(pendingStepExecutionIds));
+	}
+
+	public String getJobName() {
+		return jobName;
+	}
+
+	public String getStepName() {
+		return stepName;
+	}
+
+	public StepExecutionHistory getHistory() {
+		return history;
+	}
+
+	/**
+	 * @return the id of the last step execution included in the history
+	 */
+	public long getHighWaterMark() {
+		return highWaterMark;
+	}
+
+	/**
+	 * @return the ids of the unfinished step executions up to the high water
+	 * mark that are not in the history yet
+	 */
+	public Set<Long> getPendingStepExecutionIds() {
+		return pendingStepExecutionIds;
+	}
+
+	/**
+	 * A snapshot supersedes another one for the same job and step if it has a
+	 * higher water mark, or the same one with fewer pending step executions
+	 * (i.e. some of them have been folded in since).
+	 * 
+	 * @param other the other snapshot
+	 * @return true if this snapshot should replace the other one
+	 */
+	public boolean supersedes(StepExecutionHistorySnapshot other) {
+		return highWaterMark > other.highWaterMark || highWaterMark == other.highWaterMark
+				&& pendingStepExecutionIds.size() < other.pendingStepExecutionIds.size();
+	}
+
+}
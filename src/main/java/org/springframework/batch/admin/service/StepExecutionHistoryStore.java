@@ -0,0 +1,45 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+/**
+ * Storage for {@link StepExecutionHistorySnapshot StepExecutionHistorySnapshots}
+ * so that step histories can be folded forward incrementally instead of being
+ * recomputed from every execution on each request.
+ * 
+ * @see MapStepExecutionHistoryStore
+ * @see JdbcStepExecutionHistoryStore
+ */
+public interface StepExecutionHistoryStore {
+
+	/**
+	 * @param jobName the job name (or pattern)
+	 * @param stepName the step name (or pattern)
+	 * @return the latest snapshot, or null if there is none
+	 */
+	StepExecutionHistorySnapshot getSnapshot(String jobName, String stepName);
+
+	/**
+	 * Save a snapshot. If a snapshot that is at least as recent has already
+	 * been saved (e.g. by a concurrent request) it is kept instead.
+	 * 
+	 * @see StepExecutionHistorySnapshot#supersedes(StepExecutionHistorySnapshot)
+	 * 
+	 * @param snapshot the snapshot to save
+	 */
+	void saveSnapshot(StepExecutionHistorySnapshot snapshot);
+
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.function.IntSupplier;
+
+/**
+ * {@link CountStrategy} that never counts. Pagination then only knows whether
+ * there is a next page, not how many rows there are in total.
+ */
+public class UnknownCountStrategy implements CountStrategy {
+
+	@Override
+	public int count(String key, IntSupplier exact, IntSupplier estimate) {
+		return UNKNOWN;
+	}
+
+	@Override
+	public boolean isExact() {
+		return false;
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+import org.springframework.core.task.TaskExecutor;
+
+/**
+ * A {@link TaskExecutor} that runs each task on its own virtual thread (JDK 21
+ * or later), with at most a fixed number of tasks running at once. Tasks over
+ * the limit wait for a permit on their (cheap) virtual thread instead of in a
+ * queue, so {@link #execute(Runnable)} never blocks or rejects; bound the
+ * number of launches with a {@link LaunchQueue} instead.
+ * <p>
+ * Virtual threads suit jobs that spend their time waiting on JDBC or HTTP;
+ * the limit keeps them from exhausting the connection pool.
+ */
+public class VirtualThreadTaskExecutor implements TaskExecutor {
+
+	private final Semaphore permits;
+
+	private final ThreadFactory threadFactory;
+
+	private final int concurrencyLimit;
+
+	/**
+	 * @param threadNamePrefix the prefix of the thread names (followed by a
+	 * counter)
+	 * @param concurrencyLimit the number of tasks that can run at once
+	 * @throws IllegalStateException if the JVM has no virtual threads
+	 */
+	public VirtualThreadTaskExecutor(String threadNamePrefix, int concurrencyLimit) {
+		this(createThreadFactory(threadNamePrefix), concurrencyLimit);
+	}
+
+	/**
+	 * @param threadFactory    the factory of the thread for each task
+	 * @param concurrencyLimit the number of tasks that can run at once
+	 */
+	VirtualThreadTaskExecutor(ThreadFactory threadFactory, int concurrencyLimit) {
+		this.threadFactory = threadFactory;
+		this.permits = new Semaphore(concurrencyLimit, true);
+		this.concurrencyLimit = concurrencyLimit;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		threadFactory.newThread(() -> {
+			try {
+				permits.acquire();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			try {
+				task.run();
+			}
+			finally {
+				permits.release();
+			}
+		}).start();
+	}
+
+	/**
+	 * @return the number of tasks running
+	 */
+	public int getActiveCount() {
+		return concurrencyLimit - permits.availablePermits();
+	}
+
+	/**
+	 * @return an estimate of the number of tasks waiting for a permit
+	 */
+	public int getWaitingCount() {
+		return permits.getQueueLength();
+	}
+
+	/**
+	 * The code is compiled for JDK 17, so the virtual thread builder is looked
+	 * up reflectively.
+	 */
+	private static ThreadFactory createThreadFactory(String threadNamePrefix) {
+		try {
+			Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Method name = builderType.getMethod("name", String.class, long.class);
+			builder = name.invoke(builder, threadNamePrefix, 1L);
+			return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Virtual threads need JDK 21 or later (running on "
+					+ System.getProperty("java.version") + ")", e);
+		}
+	}
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.item.ExecutionContext;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a page of the entries of an {@link ExecutionContext} as JSON with a
+ * {@link JsonGenerator}, straight to an output stream, instead of building the
+ * whole document as a string first. Keys are sorted so that pages are stable,
+ * and maps, collections and beans nested deeper than the depth limit are
+ * replaced by a short description of their size.
+ */
+class ExecutionContextJsonWriter {
+
+	private final ObjectMapper objectMapper;
+
+	ExecutionContextJsonWriter(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * @param context  the execution context
+	 * @param out      where to write the JSON
+	 * @param start    the index of the first key (in key order)
+	 * @param pageSize the maximum number of keys to write
+	 * @param maxDepth the depth of nested values to write in full (values of
+	 *                 the context are at depth 1), or 0 for no limit
+	 * @throws IOException if the output stream fails
+	 */
+	void write(ExecutionContext context, OutputStream out, int start, int pageSize, int maxDepth)
+			throws IOException {
+		List<String> keys = new ArrayList<String>(context.size());
+		for (Map.Entry<String, Object> entry : context.entrySet()) {
+			keys.add(entry.getKey());
+		}
+		keys.sort(null);
+		int end = Math.min(keys.size(), start + pageSize);
+
+		try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			generator.writeStartObject();
+			generator.writeNumberField("totalKeys", keys.size());
+			generator.writeNumberField("start", start);
+			generator.writeNumberField("pageSize", pageSize);
+			if (end < keys.size()) {
+				generator.writeNumberField("next", end);
+			}
+			generator.writeObjectFieldStart("entries");
+			for (int i = start; i < end; i++) {
+				generator.writeFieldName(keys.get(i));
+				writeValue(generator, context.get(keys.get(i)), 1, maxDepth);
+				// keep the memory used by the generator to one entry
+				generator.flush();
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+	}
+
+	private void writeValue(JsonGenerator generator, Object value, int depth, int maxDepth) throws IOException {
+		if (value == null || value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum) {
+			generator.writeObject(value);
+			return;
+		}
+		boolean truncate = maxDepth > 0 && depth > maxDepth;
+		if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			if (truncate) {
+				generator.writeString("{" + map.size() + " entries}");
+				return;
+			}
+			generator.writeStartObject();
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				generator.writeFieldName(String.valueOf(entry.getKey()));
+				writeValue(generator, entry.getValue(), depth + 1, maxDepth);
+			}
+			generator.writeEndObject();
+		}
+		else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			if (truncate) {
+				generator.writeString("[" + collection.size() + " items]");
+				return;
+			}
+			generator.writeStartArray();
+			for (Object item : collection) {
+				writeValue(generator, item, depth + 1, maxDepth);
+			}
+			generator.writeEndArray();
+		}
+		else if (value.getClass().isArray() && !(value instanceof byte[])) {
+			int length = Array.getLength(value);
+			if (truncate) {
+				generator.writeString("[" + length + " items]");
+				return;
+			}
+			generator.writeStartArray();
+			for (int i = 0; i < length; i++) {
+				writeValue(generator, Array.get(value, i), depth + 1, maxDepth);
+			}
+			generator.writeEndArray();
+		}
+		else if (value instanceof JsonNode) {
+			writeNode(generator, (JsonNode) value, depth, maxDepth);
+		}
+		else if (maxDepth == 0) {
+			generator.writeObject(value);
+		}
+		else if (truncate) {
+			generator.writeString("{" + value.getClass().getSimpleName() + "}");
+		}
+		else {
+			// only beans nested within the limit need a tree to cut
+			writeNode(generator, objectMapper.valueToTree(value), depth, maxDepth);
+		}
+	}
+
+	private void writeNode(JsonGenerator generator, JsonNode node, int depth, int maxDepth) throws IOException {
+		if (!node.isContainerNode()) {
+			generator.writeTree(node);
+			return;
+		}
+		if (maxDepth > 0 && depth > maxDepth) {
+			generator.writeString(node.isObject() ? "{" + node.size() + " entries}" : "[" + node.size() + " items]");
+			return;
+		}
+		if (node.isObject()) {
+			generator.writeStartObject();
+			for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+				Map.Entry<String, JsonNode> field = fields.next();
+				generator.writeFieldName(field.getKey());
+				writeNode(generator, field.getValue(), depth + 1, maxDepth);
+			}
+			generator.writeEndObject();
+		}
+		else {
+			generator.writeStartArray();
+			for (JsonNode item : node) {
+				writeNode(generator, item, depth + 1, maxDepth);
+			}
+			generator.writeEndArray();
+		}
+	}
+
+}
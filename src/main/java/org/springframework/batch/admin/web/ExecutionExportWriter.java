@@ -0,0 +1,177 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Writes flat execution records one at a time to an output stream, as CSV
+ * (with a header row of the record component names) or as newline delimited
+ * JSON, so that an export never holds more than the current row. The job
+ * parameters, if any, are written as a JSON object (in a last column for
+ * CSV).
+ */
+class ExecutionExportWriter {
+
+	static final String CSV = "csv";
+
+	static final String NDJSON = "ndjson";
+
+	private final ObjectMapper objectMapper;
+
+	private final boolean csv;
+
+	private final boolean withParameters;
+
+	private final Method[] accessors;
+
+	private Writer writer;
+
+	private JsonGenerator generator;
+
+	/**
+	 * @param objectMapper   the mapper for the JSON values
+	 * @param format         {@link #CSV} or {@link #NDJSON}
+	 * @param type           the type of the records to write
+	 * @param withParameters true if there is a parameters column
+	 */
+	ExecutionExportWriter(ObjectMapper objectMapper, String format, Class<? extends Record> type,
+			boolean withParameters) {
+		if (!CSV.equals(format) && !NDJSON.equals(format)) {
+			throw new IllegalArgumentException("Unknown export format '" + format + "' (expected csv or ndjson)");
+		}
+		this.objectMapper = objectMapper;
+		this.csv = CSV.equals(format);
+		this.withParameters = withParameters;
+		RecordComponent[] components = type.getRecordComponents();
+		this.accessors = new Method[components.length];
+		for (int i = 0; i < components.length; i++) {
+			accessors[i] = components[i].getAccessor();
+		}
+	}
+
+	String getContentType() {
+		return csv ? "text/csv;charset=UTF-8" : "application/x-ndjson";
+	}
+
+	/**
+	 * Start writing, with the header row for CSV.
+	 *
+	 * @param out where to write the records
+	 * @throws IOException if the output stream fails
+	 */
+	void open(OutputStream out) throws IOException {
+		if (!csv) {
+			generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+			generator.setRootValueSeparator(null);
+			return;
+		}
+		writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		for (int i = 0; i < accessors.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write(accessors[i].getName());
+		}
+		if (withParameters) {
+			writer.write(",parameters");
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * @param record     the record to write
+	 * @param parameters the job parameters, if there is a parameters column
+	 * @throws IOException if the output stream fails
+	 */
+	void write(Record record, Map<String, String> parameters) throws IOException {
+		if (!csv) {
+			if (withParameters) {
+				ObjectNode node = objectMapper.valueToTree(record);
+				node.set("parameters", objectMapper.valueToTree(parameters));
+				generator.writeTree(node);
+			}
+			else {
+				generator.writeObject(record);
+			}
+			generator.writeRaw('\n');
+			return;
+		}
+		for (int i = 0; i < accessors.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			Object value;
+			try {
+				value = accessors[i].invoke(record);
+			}
+			catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Cannot read " + accessors[i].getName() + " of " + record, e);
+			}
+			if (value != null) {
+				writeCsvValue(value.toString());
+			}
+		}
+		if (withParameters) {
+			writer.write(',');
+			writeCsvValue(objectMapper.writeValueAsString(parameters));
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * Flush whatever is still buffered to the output stream.
+	 *
+	 * @throws IOException if the output stream fails
+	 */
+	void flush() throws IOException {
+		if (csv) {
+			writer.flush();
+		}
+		else {
+			generator.flush();
+		}
+	}
+
+	private void writeCsvValue(String value) throws IOException {
+		boolean quote = false;
+		for (int i = 0; i < value.length() && !quote; i++) {
+			char c = value.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+		if (!quote) {
+			writer.write(value);
+			return;
+		}
+		writer.write('"');
+		writer.write(value.replace("\"", "\"\""));
+		writer.write('"');
+	}
+
+}
@@ -20,15 +20,18 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.batch.admin.domain.JobExecutionInfo;
 import org.springframework.batch.admin.domain.JobInfo;
 import org.springframework.batch.admin.domain.support.JobParametersExtractor;
 import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.service.LaunchQueue;
+import org.springframework.batch.admin.service.LaunchRejectedException;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParameters;
@@ -40,6 +43,8 @@ import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteExcep
 import org.springframework.batch.core.repository.JobRestartException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.ModelMap;
 import org.springframework.util.StringUtils;
@@ -60,6 +65,9 @@ public class JobController {
 	@Autowired
 	private JobService jobService;
 
+	@Autowired(required = false)
+	private LaunchQueue launchQueue;
+
 	private Collection<String> extensions = new HashSet<String>();
 
 	private TimeZone timeZone = TimeZone.getDefault();
@@ -117,7 +125,7 @@ public class JobController {
 	@PostMapping("/jobs/{jobName}")
 	public String launch(ModelMap model, @PathVariable("jobName") String jobName,
 			@ModelAttribute LaunchRequest launchRequest, Errors errors,
-			@RequestParam(defaultValue = "execution") String origin) {
+			@RequestParam(defaultValue = "execution") String origin, HttpServletResponse response) {
 
 		launchRequest.setJobName(jobName);
 		String params = launchRequest.jobParameters;
@@ -140,6 +148,11 @@ public class JobController {
 			errors.reject("job.parameters.invalid", "The job parameters are invalid according to the configuration.");
 		} catch (JobInstanceAlreadyExistsException e) {
 			errors.reject("job.already.exists", "A job with this name and parameters already exists.");
+		} catch (LaunchRejectedException e) {
+			response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+			response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()));
+			errors.reject("job.launch.rejected", new Object[] { jobName, e.getRetryAfter() },
+					"Too many launches (" + e.getMessage() + "). Try again in " + e.getRetryAfter() + " seconds.");
         }
 
         if (!"job".equals(origin)) {
@@ -156,6 +169,25 @@ public class JobController {
 
 	}
 
+	/**
+	 * Statistics of the launch queue: depth, running executions, rejections
+	 * and wait times (and the virtual thread executor's active and waiting
+	 * tasks, if jobs run on virtual threads).
+	 */
+	@GetMapping("/jobs/launch-queue")
+	public @ResponseBody Map<String, Object> launchQueue() {
+		return launchQueue == null ? Map.of() : launchQueue.getStatistics();
+	}
+
+	/**
+	 * Statistics of the caches of finished job and step executions: size,
+	 * weight, hits, misses and evictions, with the limits.
+	 */
+	@GetMapping("/jobs/execution-cache")
+	public @ResponseBody Map<String, Object> executionCache() {
+		return jobService.getExecutionCacheStatistics();
+	}
+
 	@GetMapping("/jobs/{jobName}")
 	public String details(ModelMap model, @ModelAttribute("jobName") String jobName, @PathVariable("jobName") String jobName2, Errors errors,
 						  @RequestParam(name = "startJobInstance", defaultValue = "0") int startJobInstance, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize) {
@@ -164,15 +196,14 @@ public class JobController {
 
 		try {
 
-			Collection<JobInstance> result = jobService.listJobInstances(jobName, startJobInstance, pageSize);
+			Map<JobInstance, Collection<JobExecution>> result = jobService.listJobInstancesWithExecutions(jobName,
+					startJobInstance, pageSize);
 			Collection<JobInstanceInfo> jobInstances = new ArrayList<JobInstanceInfo>();
 			model.addAttribute("jobParameters",
 					jobParametersExtractor.fromJobParameters(jobService.getLastJobParameters(jobName)));
 
-			for (JobInstance jobInstance : result) {
-				Collection<JobExecution> jobExecutions = jobService.getJobExecutionsForJobInstance(jobName,
-						jobInstance.getId());
-				jobInstances.add(new JobInstanceInfo(jobInstance, jobExecutions, timeZone));
+			for (Map.Entry<JobInstance, Collection<JobExecution>> entry : result.entrySet()) {
+				jobInstances.add(new JobInstanceInfo(entry.getKey(), entry.getValue(), timeZone));
 			}
 
 			model.addAttribute("jobInstances", jobInstances);
@@ -195,18 +226,9 @@ public class JobController {
 			@RequestParam(name = "pageSize", defaultValue = "20") int pageSize) {
 		int total = jobService.countJobs();
 		TableUtils.addPagination(model, total, startJob, pageSize, "Job");
-		Collection<String> names = jobService.listJobs(startJob, pageSize);
-		List<JobInfo> jobs = new ArrayList<JobInfo>();
-		for (String name : names) {
-			int count = 0;
-			try {
-				count = jobService.countJobExecutionsForJob(name);
-			} catch (NoSuchJobException e) {
-				// shouldn't happen
-			}
-			boolean launchable = jobService.isLaunchable(name);
-			boolean incrementable = jobService.isIncrementable(name);
-			jobs.add(new JobInfo(name, count, null, launchable, incrementable));
+		Collection<JobInfo> jobs = new ArrayList<JobInfo>();
+		for (JobInfo summary : jobService.listJobSummaries(startJob, pageSize)) {
+			jobs.add(new JobInfo(summary, timeZone));
 		}
 
 //		model.addAttribute("servletPath", "");
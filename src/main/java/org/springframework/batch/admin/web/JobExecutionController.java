@@ -16,22 +16,34 @@
 package org.springframework.batch.admin.web;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.batch.admin.domain.JobExecutionInfo;
+import org.springframework.batch.admin.domain.JobExecutionRecord;
 import org.springframework.batch.admin.domain.JobInfo;
 import org.springframework.batch.admin.domain.StepExecutionInfo;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+import org.springframework.batch.admin.service.BulkOperationResult;
+import org.springframework.batch.admin.service.BulkOperationResult.Outcome;
+import org.springframework.batch.admin.service.ContinuationPage;
+import org.springframework.batch.admin.service.ExecutionFilter;
+import org.springframework.batch.admin.service.JobExecutionSummary;
+import org.springframework.batch.admin.service.JobExecutionWatcher;
 import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.admin.service.LaunchRejectedException;
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobInstance;
 import org.springframework.batch.core.JobParametersInvalidException;
@@ -43,8 +55,13 @@ import org.springframework.batch.core.launch.NoSuchJobInstanceException;
 import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
 import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
 import org.springframework.batch.core.repository.JobRestartException;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
@@ -55,6 +72,8 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -68,6 +87,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class JobExecutionController {
 	private static Log logger = LogFactory.getLog(JobExecutionController.class);
 
+	private static final long EVENTS_TIMEOUT = 30 * 60 * 1000L;
+
 	public static class StopRequest {
 		private Long jobExecutionId;
 
@@ -84,6 +105,9 @@ public class JobExecutionController {
 	@Autowired
 	private JobService jobService;
 
+	@Autowired(required = false)
+	private JobExecutionWatcher jobExecutionWatcher;
+
 	private ObjectMapper objectMapper;
 	private TimeZone timeZone = TimeZone.getDefault();
 
@@ -158,13 +182,30 @@ public class JobExecutionController {
 
 	@GetMapping({ "/jobs/executions", "/jobs/executions.*" })
 	public @ModelAttribute("jobExecutions") Collection<JobExecutionInfo> list(ModelMap model,
-			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize) {
+			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "afterJobExecution", required = false) Long afterJobExecution) {
+
+		Collection<JobExecution> jobExecutions;
+		boolean hasNext;
+		if (afterJobExecution != null || startJobExecution <= 0) {
+			ContinuationPage<JobExecution> page = jobService.listJobExecutionsAfter(afterJobExecution, pageSize);
+			addContinuationToken(model, page);
+			jobExecutions = page.getItems();
+			hasNext = page.hasNext();
+		}
+		else {
+			// no token (e.g. a "previous" link) so fall back to the offset
+			jobExecutions = jobService.listJobExecutions(startJobExecution, pageSize);
+			addContinuationToken(model, jobExecutions, pageSize);
+			hasNext = jobExecutions.size() == pageSize;
+		}
 
 		int total = jobService.countJobExecutions();
-		TableUtils.addPagination(model, total, startJobExecution, pageSize, "JobExecution");
+		TableUtils.addPagination(model, total, jobService.isExecutionCountExact(), startJobExecution, pageSize,
+				jobExecutions.size(), hasNext, "JobExecution");
 
 		Collection<JobExecutionInfo> result = new ArrayList<JobExecutionInfo>();
-		for (JobExecution jobExecution : jobService.listJobExecutions(startJobExecution, pageSize)) {
+		for (JobExecution jobExecution : jobExecutions) {
 			result.add(new JobExecutionInfo(jobExecution, timeZone));
 		}
 
@@ -172,6 +213,22 @@ public class JobExecutionController {
 
 	}
 
+	private void addContinuationToken(ModelMap model, ContinuationPage<JobExecution> page) {
+		if (page.hasNext()) {
+			model.addAttribute("nextJobExecutionId", page.getContinuationToken());
+		}
+	}
+
+	private void addContinuationToken(ModelMap model, Collection<JobExecution> jobExecutions, int pageSize) {
+		if (jobExecutions.size() == pageSize) {
+			JobExecution last = null;
+			for (JobExecution jobExecution : jobExecutions) {
+				last = jobExecution;
+			}
+			model.addAttribute("nextJobExecutionId", last.getId());
+		}
+	}
+
 	@GetMapping({ "/jobs/{jobName}/{jobInstanceId}/executions",
 			"/jobs/{jobName}/{jobInstanceId}" })
 	public String listForInstance(Model model, @PathVariable("jobName") String jobName, @PathVariable("jobInstanceId") long jobInstanceId,
@@ -210,7 +267,7 @@ public class JobExecutionController {
 
 	@PostMapping("/jobs/{jobName}/{jobInstanceId}/executions")
 	public String restart(Model model, @PathVariable("jobName") String jobName, @PathVariable("jobInstanceId") long jobInstanceId,
-			@ModelAttribute Date date, Errors errors) {
+			@ModelAttribute Date date, Errors errors, HttpServletResponse response) {
 
 		try {
 
@@ -242,6 +299,11 @@ public class JobExecutionController {
 			} catch (JobParametersInvalidException e) {
 				errors.reject("job.parameters.invalid", new Object[] { jobName },
 						"The job parameters are invalid according to the job (" + jobName + ")");
+			} catch (LaunchRejectedException e) {
+				response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+				response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfter()));
+				errors.reject("job.launch.rejected", new Object[] { jobName, e.getRetryAfter() },
+						"Too many launches (" + e.getMessage() + "). Try again in " + e.getRetryAfter() + " seconds.");
 			}
 
 		} catch (NoSuchJobException e) {
@@ -252,28 +314,95 @@ public class JobExecutionController {
 
 	}
 
+	/**
+	 * Stop the running executions, all of them or those matching the filter
+	 * parameters.
+	 */
 	@DeleteMapping("/jobs/executions")
 	public @ModelAttribute("jobExecutions") Collection<JobExecutionInfo> stopAll(ModelMap model, Errors errors,
-			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize) {
-
-        try {
-            model.addAttribute("stoppedCount", jobService.stopAll());
-        } catch (NoSuchJobExecutionException e) {
-			errors.reject("no.such.job.execution", new Object[] { -42 },
-					"There is no such job execution (" + -42 + ")");
-			throw new RuntimeException(e);
-        } catch (JobExecutionNotRunningException e) {
-			errors.reject("job.execution.not.running", "Job exection with id=" + -42 + " is not running.");
-			throw new RuntimeException(e);
-        }
-        return list(model, startJobExecution, pageSize);
+			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "jobName", required = false) String jobName,
+			@RequestParam(name = "olderThanMinutes", required = false) Integer olderThanMinutes,
+			@RequestParam(name = "ids", required = false) List<Long> ids) {
+
+		ExecutionFilter filter = createFilter(jobName, null, olderThanMinutes, ids);
+		filter.setUnfinished(true);
+		BulkOperationResult result = jobService.stopAll(filter);
+		model.addAttribute("stoppedCount", result.getCount(Outcome.UPDATED));
+		model.addAttribute("bulkOperationResult", result);
+		return list(model, startJobExecution, pageSize, null);
+
+	}
+
+	/**
+	 * Abandon the stopped or failed executions matching the filter parameters.
+	 * At least a job name, ids or an age is required, so that the whole
+	 * history cannot be abandoned by accident.
+	 */
+	@DeleteMapping(value = "/jobs/executions", params = "abandon")
+	public @ModelAttribute("jobExecutions") Collection<JobExecutionInfo> abandonAll(ModelMap model, Errors errors,
+			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "jobName", required = false) String jobName,
+			@RequestParam(name = "status", required = false) List<BatchStatus> statuses,
+			@RequestParam(name = "olderThanMinutes", required = false) Integer olderThanMinutes,
+			@RequestParam(name = "ids", required = false) List<Long> ids) {
+
+		checkBounded(jobName, olderThanMinutes, ids);
+		BulkOperationResult result = jobService.abandonAll(createFilter(jobName, statuses, olderThanMinutes, ids));
+		model.addAttribute("abandonedCount", result.getCount(Outcome.UPDATED));
+		model.addAttribute("bulkOperationResult", result);
+		return list(model, startJobExecution, pageSize, null);
+
+	}
+
+	/**
+	 * Restart the executions matching the filter parameters (failed or stopped
+	 * ones by default). As for {@link #abandonAll}, at least a job name, ids or
+	 * an age is required.
+	 */
+	@PostMapping(value = "/jobs/executions", params = "restart")
+	public @ModelAttribute("jobExecutions") Collection<JobExecutionInfo> restartAll(ModelMap model, Errors errors,
+			@RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution, @RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "jobName", required = false) String jobName,
+			@RequestParam(name = "status", required = false) List<BatchStatus> statuses,
+			@RequestParam(name = "olderThanMinutes", required = false) Integer olderThanMinutes,
+			@RequestParam(name = "ids", required = false) List<Long> ids) {
+
+		checkBounded(jobName, olderThanMinutes, ids);
+		if (statuses == null && ids == null) {
+			statuses = List.of(BatchStatus.FAILED, BatchStatus.STOPPED);
+		}
+		BulkOperationResult result = jobService.restartAll(createFilter(jobName, statuses, olderThanMinutes, ids));
+		model.addAttribute("restartedCount", result.getCount(Outcome.RESTARTED));
+		model.addAttribute("bulkOperationResult", result);
+		return list(model, startJobExecution, pageSize, null);
 
 	}
 
+	private static void checkBounded(String jobName, Integer olderThanMinutes, List<Long> ids) {
+		if (jobName == null && olderThanMinutes == null && (ids == null || ids.isEmpty())) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"A jobName, ids or olderThanMinutes is required");
+		}
+	}
+
+	private ExecutionFilter createFilter(String jobName, List<BatchStatus> statuses, Integer olderThanMinutes,
+			List<Long> ids) {
+		ExecutionFilter filter = new ExecutionFilter();
+		filter.setJobName(jobName);
+		filter.setStatuses(statuses);
+		if (olderThanMinutes != null) {
+			filter.setCreatedBefore(LocalDateTime.now().minusMinutes(olderThanMinutes));
+		}
+		filter.setJobExecutionIds(ids);
+		return filter;
+	}
+
 	@GetMapping("/jobs/{jobName}/executions")
 	public String listForJob(ModelMap model, @PathVariable("jobName") String jobName, @ModelAttribute Date date,
 			Errors errors, @RequestParam(name = "startJobExecution", defaultValue = "0") int startJobExecution,
-			@RequestParam(name = "pageSize", defaultValue = "20") int pageSize) {
+			@RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "afterJobExecution", required = false) Long afterJobExecution) {
 
 		int total = startJobExecution;
 		try {
@@ -283,16 +412,30 @@ public class JobExecutionController {
 			logger.warn("Could not locate Job with name=" + jobName);
 			return "jobs/executions";
 		}
-		TableUtils.addPagination(model, total, startJobExecution, pageSize, "JobExecution");
 
 		Collection<JobExecutionInfo> result = new ArrayList<JobExecutionInfo>();
 		try {
 
-			for (JobExecution jobExecution : jobService.listJobExecutionsForJob(jobName, startJobExecution, pageSize)) {
+			Collection<JobExecution> jobExecutions;
+			boolean hasNext;
+			if (afterJobExecution != null || startJobExecution <= 0) {
+				ContinuationPage<JobExecution> page = jobService.listJobExecutionsForJobAfter(jobName,
+						afterJobExecution, pageSize);
+				addContinuationToken(model, page);
+				jobExecutions = page.getItems();
+				hasNext = page.hasNext();
+			}
+			else {
+				jobExecutions = jobService.listJobExecutionsForJob(jobName, startJobExecution, pageSize);
+				addContinuationToken(model, jobExecutions, pageSize);
+				hasNext = jobExecutions.size() == pageSize;
+			}
+			TableUtils.addPagination(model, total, jobService.isExecutionCountExact(), startJobExecution, pageSize,
+					jobExecutions.size(), hasNext, "JobExecution");
+			for (JobExecution jobExecution : jobExecutions) {
 				result.add(new JobExecutionInfo(jobExecution, timeZone));
 			}
-			int count = jobService.countJobExecutionsForJob(jobName);
-			model.addAttribute(new JobInfo(jobName, count, null, jobService.isLaunchable(jobName),
+			model.addAttribute(new JobInfo(jobName, total, null, jobService.isLaunchable(jobName),
 					jobService.isIncrementable(jobName)));
 			model.addAttribute("jobExecutions", result);
 
@@ -305,45 +448,37 @@ public class JobExecutionController {
 
 	}
 
+	/**
+	 * Show a job execution with the counts of its step executions by status
+	 * and one page of them, so that a run with thousands of partitions does
+	 * not have to be loaded all at once.
+	 */
 	@GetMapping("/jobs/executions/{jobExecutionId}")
 	public String detail(Model model, @PathVariable("jobExecutionId") Long jobExecutionId, @ModelAttribute Date date,
-			Errors errors) {
+			Errors errors, @RequestParam(name = "startStepExecution", defaultValue = "0") int startStepExecution,
+			@RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+			@RequestParam(name = "sort", defaultValue = "id") String sort,
+			@RequestParam(name = "ascending", defaultValue = "true") boolean ascending) {
 
 		try {
-			JobExecution jobExecution = jobService.getJobExecution(jobExecutionId);
-			model.addAttribute(new JobExecutionInfo(jobExecution, timeZone));
-			String jobName = jobExecution.getJobInstance().getJobName();
-//			Collection<String> stepNames = new HashSet<String>(jobService.getStepNamesForJob(jobName));
-//			Collection<StepExecution> stepExecutions = new ArrayList<StepExecution>(jobExecution.getStepExecutions());
-			List<StepExecutionInfo> stepExecutionInfos = new ArrayList<StepExecutionInfo>();
+			JobExecutionSummary summary = jobService.getJobExecutionSummary(jobExecutionId);
+			model.addAttribute(new JobExecutionInfo(summary.getJobExecution(), summary.getStepExecutionCount(),
+					timeZone));
+			model.addAttribute("stepExecutionCounts", summary.getStepExecutionCounts());
 
-			for (StepExecution stepExecution : jobExecution.getStepExecutions()) {
+			List<StepExecutionInfo> stepExecutionInfos = new ArrayList<StepExecutionInfo>();
+			for (StepExecution stepExecution : jobService.listStepExecutionsForJobExecution(jobExecutionId, sort,
+					ascending, startStepExecution, pageSize)) {
 				stepExecutionInfos.add(new StepExecutionInfo(stepExecution, timeZone));
 			}
-
-//			for (String name : stepNames) {
-//				boolean found = false;
-//				for (Iterator<StepExecution> iterator = stepExecutions.iterator(); iterator.hasNext();) {
-//					StepExecution stepExecution = iterator.next();
-//					if (stepExecution.getStepName().equals(name)) {
-//						stepExecutionInfos.add(new StepExecutionInfo(stepExecution, timeZone));
-//						iterator.remove();
-//						found = true;
-//					}
-//				}
-//				if (!found) {
-//					stepExecutionInfos.add(new StepExecutionInfo(jobName, jobExecutionId, name, timeZone));
-//				}
-//			}
-
-			Collections.sort(stepExecutionInfos, new Comparator<StepExecutionInfo>() {
-				@Override
-				public int compare(StepExecutionInfo o1, StepExecutionInfo o2) {
-					return o1.getId().compareTo(o2.getId());
-				}
-			});
-
+			TableUtils.addPagination(model.asMap(), summary.getStepExecutionCount(), startStepExecution, pageSize,
+					"StepExecution");
+			model.addAttribute("pageSize", pageSize);
+			model.addAttribute("sort", sort);
+			model.addAttribute("ascending", ascending);
 			model.addAttribute("stepExecutionInfos", stepExecutionInfos);
+		} catch (IllegalArgumentException e) {
+			errors.reject("invalid.sort", new Object[] { sort }, e.getMessage());
 		} catch (NoSuchJobExecutionException e) {
 			errors.reject("no.such.job.execution", new Object[] { jobExecutionId },
 					"There is no such job execution (" + jobExecutionId + ")");
@@ -358,17 +493,23 @@ public class JobExecutionController {
 	}
 
 	@GetMapping("/jobs/executions/{jobExecutionId}/execution-context")
-	public String getExecutionContext(Model model, @PathVariable("jobExecutionId") Long jobExecutionId, @ModelAttribute Date date,
-			Errors errors) {
+	public String getExecutionContext(Model model, @PathVariable("jobExecutionId") Long jobExecutionId,
+			@RequestParam(defaultValue = "false") boolean preview, @ModelAttribute Date date, Errors errors) {
 		try {
-			JobExecution jobExecution = jobService.getJobExecution(jobExecutionId);
-			Map<String, Object> executionMap = new HashMap<String, Object>();
-
-			for (Map.Entry<String, Object> entry : jobExecution.getExecutionContext().entrySet()) {
-				executionMap.put(entry.getKey(), entry.getValue());
+			if (preview) {
+				// the short form only, as stored
+				model.addAttribute("jobExecutionContext", jobService.getJobExecutionContextPreview(jobExecutionId));
+				model.addAttribute("preview", true);
 			}
+			else {
+				Map<String, Object> executionMap = new HashMap<String, Object>();
 
-			model.addAttribute("jobExecutionContext", objectMapper.writeValueAsString(executionMap));
+				for (Map.Entry<String, Object> entry : jobService.getJobExecutionContext(jobExecutionId).entrySet()) {
+					executionMap.put(entry.getKey(), entry.getValue());
+				}
+
+				model.addAttribute("jobExecutionContext", objectMapper.writeValueAsString(executionMap));
+			}
 			model.addAttribute("jobExecutionId", jobExecutionId);
 		} catch (NoSuchJobExecutionException e) {
 			errors.reject("no.such.job.execution", new Object[] { jobExecutionId },
@@ -380,4 +521,158 @@ public class JobExecutionController {
 
 		return "jobs/executions/execution-context";
 	}
+
+	/**
+	 * Stream the serialized execution context as plain text, cut short after
+	 * maxLength characters (with a note at the end if it was).
+	 */
+	@GetMapping(value = "/jobs/executions/{jobExecutionId}/execution-context", params = "maxLength")
+	public void streamExecutionContext(@PathVariable("jobExecutionId") Long jobExecutionId,
+			@RequestParam("maxLength") int maxLength, HttpServletResponse response) throws IOException {
+		response.setContentType("text/plain;charset=UTF-8");
+		try {
+			if (jobService.writeJobExecutionContext(jobExecutionId, response.getWriter(), Math.max(maxLength, 0))) {
+				response.getWriter().write("\n... (truncated after " + maxLength + " characters)");
+			}
+		} catch (NoSuchJobExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such job execution (" + jobExecutionId + ")");
+		}
+	}
+
+	/**
+	 * Server-sent events with the live progress of a job execution: a
+	 * "status" event (with the job execution) when its status changes,
+	 * starting with the current one, and a "steps" event (with the changed
+	 * step executions and how far their counters moved) when steps change.
+	 * The stream ends when the execution finishes. All the streams share one
+	 * poller, see {@link JobExecutionWatcher}, which sends on its delivery
+	 * threads and drops a stream that stops keeping up.
+	 */
+	@GetMapping(value = "/jobs/executions/{jobExecutionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@PathVariable("jobExecutionId") Long jobExecutionId) {
+		if (jobExecutionWatcher == null) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Live progress is not enabled");
+		}
+		try {
+			jobService.getJobExecutionRecord(jobExecutionId);
+		} catch (NoSuchJobExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "There is no such job execution (" + jobExecutionId + ")");
+		}
+		SseEmitter emitter = new SseEmitter(EVENTS_TIMEOUT);
+		JobExecutionWatcher.Subscription subscription = jobExecutionWatcher.subscribe(jobExecutionId, change -> {
+			try {
+				if (change.isStatusChanged()) {
+					emitter.send(SseEmitter.event().name("status").id(String.valueOf(change.jobExecution().version()))
+							.data(change.jobExecution()));
+				}
+				if (!change.stepExecutions().isEmpty()) {
+					emitter.send(SseEmitter.event().name("steps").data(change.stepExecutions()));
+				}
+				if (change.isFinished()) {
+					emitter.complete();
+				}
+			} catch (IOException e) {
+				// the client has gone
+				throw new UncheckedIOException(e);
+			}
+		});
+		emitter.onCompletion(subscription::cancel);
+		emitter.onTimeout(subscription::cancel);
+		emitter.onError(e -> subscription.cancel());
+		return emitter;
+	}
+
+	/**
+	 * Stream a page of the execution context as JSON, without building the
+	 * document in memory first.
+	 */
+	@GetMapping("/jobs/executions/{jobExecutionId}/execution-context.json")
+	public void getExecutionContextJson(@PathVariable("jobExecutionId") Long jobExecutionId,
+			@RequestParam(defaultValue = "0") int startKey, @RequestParam(defaultValue = "100") int pageSize,
+			@RequestParam(defaultValue = "0") int depth, HttpServletResponse response) throws IOException {
+		ExecutionContext context;
+		try {
+			context = jobService.getJobExecutionContext(jobExecutionId);
+		} catch (NoSuchJobExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such job execution (" + jobExecutionId + ")");
+			return;
+		}
+		response.setContentType("application/json");
+		new ExecutionContextJsonWriter(objectMapper).write(context, response.getOutputStream(), Math.max(startKey, 0),
+				Math.max(pageSize, 0), Math.max(depth, 0));
+	}
+
+	/**
+	 * Export the job executions of all jobs, oldest first, as CSV or NDJSON
+	 * (format=csv|ndjson), with their parameters (parameters=true), or their
+	 * step executions instead (steps=true). The rows are written as they are
+	 * read from the database, so the export runs in constant memory.
+	 */
+	@GetMapping("/jobs/executions/export")
+	public void export(@RequestParam(defaultValue = ExecutionExportWriter.CSV) String format,
+			@RequestParam(defaultValue = "false") boolean steps,
+			@RequestParam(defaultValue = "false") boolean parameters, HttpServletResponse response)
+			throws IOException {
+		export(null, format, steps, parameters, response);
+	}
+
+	/**
+	 * Export the job executions of one job, see {@link #export(String, boolean,
+	 * boolean, HttpServletResponse)}.
+	 */
+	@GetMapping("/jobs/{jobName}/executions/export")
+	public void exportForJob(@PathVariable("jobName") String jobName,
+			@RequestParam(defaultValue = ExecutionExportWriter.CSV) String format,
+			@RequestParam(defaultValue = "false") boolean steps,
+			@RequestParam(defaultValue = "false") boolean parameters, HttpServletResponse response)
+			throws IOException {
+		export(jobName, format, steps, parameters, response);
+	}
+
+	private void export(String jobName, String format, boolean steps, boolean parameters,
+			HttpServletResponse response) throws IOException {
+		ExecutionExportWriter writer;
+		try {
+			writer = new ExecutionExportWriter(objectMapper, format,
+					steps ? StepExecutionRecord.class : JobExecutionRecord.class, parameters && !steps);
+		} catch (IllegalArgumentException e) {
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+			return;
+		}
+		if (jobName != null) {
+			// before anything is written, since the response cannot be taken back
+			try {
+				jobService.checkJobExists(jobName);
+			} catch (NoSuchJobException e) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such job (" + jobName + ")");
+				return;
+			}
+		}
+		String filename = (jobName == null ? "" : jobName + "-") + (steps ? "step-executions." : "executions.") + format;
+		response.setContentType(writer.getContentType());
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+				ContentDisposition.attachment().filename(filename).build().toString());
+		writer.open(response.getOutputStream());
+		try {
+			if (steps) {
+				jobService.exportStepExecutionRecords(jobName, record -> write(writer, record, null));
+			} else {
+				jobService.exportJobExecutionRecords(jobName, parameters, (record, map) -> write(writer, record, map));
+			}
+		} catch (NoSuchJobException e) {
+			throw new IllegalStateException("The job " + jobName + " was checked before the export", e);
+		} catch (UncheckedIOException e) {
+			// the client has gone
+			throw e.getCause();
+		}
+		writer.flush();
+	}
+
+	private static void write(ExecutionExportWriter writer, Record record, Map<String, String> parameters) {
+		try {
+			writer.write(record, parameters);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.admin.domain.JobInfo;
+import org.springframework.batch.admin.domain.JobInstanceRecord;
+import org.springframework.batch.admin.domain.StepExecutionRecord;
+import org.springframework.batch.admin.service.ContinuationPage;
+import org.springframework.batch.admin.service.ExecutionChanges;
+import org.springframework.batch.admin.service.JobExecutionWatcher;
+import org.springframework.batch.admin.service.JobService;
+import org.springframework.batch.core.launch.NoSuchJobException;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Versioned JSON API for jobs, job instances, job executions and step
+ * executions. The resources are flat records read straight from the job
+ * repository, so listing them does not build the execution graphs the HTML
+ * pages use. Every list is a page with a continuation token (null on the last
+ * page) to pass back for the next one.
+ */
+@Controller
+@RequestMapping("/api/v1")
+public class JsonApiController {
+
+	private static final int MAX_PAGE_SIZE = 1000;
+
+	private static final long MAX_WAIT = 5 * 60 * 1000L;
+
+	@Autowired
+	private JobService jobService;
+
+	@Autowired(required = false)
+	private JobExecutionWatcher jobExecutionWatcher;
+
+	@GetMapping("/jobs")
+	public @ResponseBody ContinuationPage<JobInfo> jobs(@RequestParam(defaultValue = "0") int start,
+			@RequestParam(defaultValue = "20") int pageSize) {
+		int count = pageSize(pageSize);
+		return offsetPage(jobService.listJobSummaries(Math.max(start, 0), count + 1), start, count);
+	}
+
+	@GetMapping("/jobs/{jobName}/instances")
+	public @ResponseBody ContinuationPage<JobInstanceRecord> instances(@PathVariable("jobName") String jobName,
+			@RequestParam(defaultValue = "0") int start, @RequestParam(defaultValue = "20") int pageSize) {
+		int count = pageSize(pageSize);
+		try {
+			return offsetPage(jobService.listJobInstanceRecords(jobName, Math.max(start, 0), count + 1), start, count);
+		}
+		catch (NoSuchJobException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	@GetMapping("/executions")
+	public @ResponseBody ContinuationPage<JobExecutionRecord> executions(
+			@RequestParam(required = false) String jobName, @RequestParam(required = false) Long afterJobExecution,
+			@RequestParam(defaultValue = "20") int pageSize) {
+		try {
+			return jobService.listJobExecutionRecords(jobName, afterJobExecution, pageSize(pageSize));
+		}
+		catch (NoSuchJobException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	@GetMapping("/executions/{jobExecutionId}")
+	public @ResponseBody JobExecutionRecord execution(@PathVariable("jobExecutionId") Long jobExecutionId) {
+		try {
+			return jobService.getJobExecutionRecord(jobExecutionId);
+		}
+		catch (NoSuchJobExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	/**
+	 * Wait for a job execution to change from the version the client last
+	 * saw. The request does not hold a servlet thread while it waits, and all
+	 * the waiting requests share the polling of {@link JobExecutionWatcher}.
+	 * 
+	 * @return the job execution as soon as its version is different, or 304
+	 * (not modified) if it has not changed within the timeout
+	 */
+	@GetMapping("/executions/{jobExecutionId}/wait")
+	public DeferredResult<ResponseEntity<JobExecutionRecord>> waitForChange(
+			@PathVariable("jobExecutionId") Long jobExecutionId, @RequestParam("version") int version,
+			@RequestParam(defaultValue = "30000") long timeout) {
+		JobExecutionRecord current = execution(jobExecutionId);
+		DeferredResult<ResponseEntity<JobExecutionRecord>> result = new DeferredResult<ResponseEntity<JobExecutionRecord>>(
+				Math.max(1, Math.min(timeout, MAX_WAIT)), ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+		if (current.version() != version || jobExecutionWatcher == null) {
+			result.setResult(current.version() != version ? ResponseEntity.ok(current)
+					: ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+			return result;
+		}
+		AtomicReference<JobExecutionWatcher.Subscription> subscription = new AtomicReference<JobExecutionWatcher.Subscription>();
+		subscription.set(jobExecutionWatcher.subscribe(jobExecutionId, change -> {
+			if (change.jobExecution().version() != version && result.setResult(ResponseEntity.ok(change.jobExecution()))
+					&& subscription.get() != null) {
+				subscription.get().cancel();
+			}
+		}));
+		if (result.hasResult()) {
+			// the change was already known when subscribing
+			subscription.get().cancel();
+			return result;
+		}
+		result.onCompletion(subscription.get()::cancel);
+		result.onTimeout(subscription.get()::cancel);
+		result.onError(e -> subscription.get().cancel());
+		return result;
+	}
+
+	@GetMapping("/executions/{jobExecutionId}/steps")
+	public @ResponseBody ContinuationPage<StepExecutionRecord> steps(
+			@PathVariable("jobExecutionId") Long jobExecutionId, @RequestParam(defaultValue = "0") int start,
+			@RequestParam(defaultValue = "100") int pageSize) {
+		int count = pageSize(pageSize);
+		try {
+			return offsetPage(jobService.listStepExecutionRecords(jobExecutionId, Math.max(start, 0), count + 1),
+					start, count);
+		}
+		catch (NoSuchJobExecutionException e) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+		}
+	}
+
+	/**
+	 * The change feed: job and step executions updated since the cursor from
+	 * the previous call (or since the beginning without one).
+	 */
+	@GetMapping("/changes")
+	public @ResponseBody ExecutionChanges changes(@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "100") int pageSize) {
+		try {
+			return jobService.getExecutionChanges(cursor, pageSize(pageSize));
+		}
+		catch (IllegalArgumentException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+		}
+	}
+
+	private static int pageSize(int pageSize) {
+		return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+	}
+
+	/**
+	 * @param results up to one more than a page, so that a next page can be
+	 * detected without counting
+	 * @return the page, whose continuation token is the start of the next page
+	 */
+	private static <T> ContinuationPage<T> offsetPage(Collection<T> results, int start, int count) {
+		List<T> items = new ArrayList<T>(results);
+		if (items.size() <= count) {
+			return new ContinuationPage<T>(items, null);
+		}
+		return new ContinuationPage<T>(items.subList(0, count), (long) Math.max(start, 0) + count);
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.batch.admin.service.QueryCountingJdbcTemplate;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Interceptor that reports the number of queries the job service ran to handle
+ * a request, in the {@value #HEADER} response header and in the debug log.
+ * 
+ * @see QueryCountingJdbcTemplate
+ */
+public class QueryCountInterceptor implements HandlerInterceptor {
+
+	public static final String HEADER = "X-Batch-Admin-Query-Count";
+
+	private static Log logger = LogFactory.getLog(QueryCountInterceptor.class);
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		QueryCountingJdbcTemplate.reset();
+		return true;
+	}
+
+	@Override
+	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+			ModelAndView modelAndView) {
+		int count = QueryCountingJdbcTemplate.getCount();
+		if (!response.isCommitted()) {
+			response.setHeader(HEADER, String.valueOf(count));
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(count + " queries for " + request.getMethod() + " " + request.getRequestURI());
+		}
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+			Exception ex) {
+		QueryCountingJdbcTemplate.reset();
+	}
+
+}
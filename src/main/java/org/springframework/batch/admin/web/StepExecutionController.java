@@ -20,10 +20,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
 
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.batch.admin.domain.JobExecutionInfo;
+import org.springframework.batch.admin.domain.PartitionRollup;
 import org.springframework.batch.admin.domain.StepExecutionHistory;
 import org.springframework.batch.admin.domain.StepExecutionInfo;
 import org.springframework.batch.admin.domain.StepExecutionProgress;
@@ -32,6 +36,7 @@ import org.springframework.batch.admin.service.NoSuchStepExecutionException;
 import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.batch.item.ExecutionContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Controller;
@@ -40,6 +45,7 @@ import org.springframework.validation.Errors;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -143,29 +149,59 @@ public class StepExecutionController {
 
 	}
 
-	private StepExecutionHistory computeHistory(String jobName, String stepName) {
-		int total = jobService.countStepExecutionsForStep(jobName, stepName);
-		StepExecutionHistory stepExecutionHistory = new StepExecutionHistory(stepName);
-		for (int i = 0; i < total; i += 1000) {
-			for (StepExecution stepExecution : jobService.listStepExecutionsForStep(jobName, stepName, i, 1000)) {
-				stepExecutionHistory.append(stepExecution);
+	/**
+	 * Aggregates over the partitions of a partitioned step, computed in the
+	 * database, with the slowest partitions.
+	 */
+	@GetMapping("/jobs/executions/{jobExecutionId}/partitions/{stepName}")
+	public String partitions(Model model, @PathVariable("jobExecutionId") Long jobExecutionId,
+			@PathVariable("stepName") String stepName, @ModelAttribute Date date, Errors errors,
+			@RequestParam(name = "slowest", defaultValue = "10") int slowest) {
+
+		try {
+			PartitionRollup rollup = jobService.getPartitionRollup(jobExecutionId, stepName, slowest);
+			List<StepExecutionInfo> slowestPartitions = new ArrayList<StepExecutionInfo>();
+			for (StepExecution stepExecution : rollup.getSlowest()) {
+				slowestPartitions.add(new StepExecutionInfo(stepExecution, timeZone));
 			}
+			model.addAttribute(rollup);
+			model.addAttribute("slowestPartitions", slowestPartitions);
+			model.addAttribute("jobExecutionId", jobExecutionId);
+		} catch (NoSuchJobExecutionException e) {
+			errors.reject("no.such.job.execution", new Object[] { jobExecutionId },
+					"There is no such job execution (" + jobExecutionId + ")");
 		}
-		return stepExecutionHistory;
+
+		return "jobs/executions/step/partitions";
+
+	}
+
+	private StepExecutionHistory computeHistory(String jobName, String stepName) {
+		return jobService.getStepExecutionHistory(jobName, stepName);
 	}
 
 	@GetMapping("/jobs/executions/{jobExecutionId}/steps/{stepExecutionId}/execution-context")
 	public String getStepExecutionContext(Model model, @PathVariable("jobExecutionId") Long jobExecutionId,
-			@PathVariable("stepExecutionId") Long stepExecutionId, @ModelAttribute Date date, Errors errors) {
+			@PathVariable("stepExecutionId") Long stepExecutionId, @RequestParam(defaultValue = "false") boolean preview,
+			@ModelAttribute Date date, Errors errors) {
 		try {
 			StepExecution stepExecution = jobService.getStepExecution(jobExecutionId, stepExecutionId);
-			Map<String, Object> executionMap = new HashMap<String, Object>();
-
-			for (Map.Entry<String, Object> entry : stepExecution.getExecutionContext().entrySet()) {
-				executionMap.put(entry.getKey(), entry.getValue());
+			if (preview) {
+				// the short form only, as stored
+				model.addAttribute("stepExecutionContext",
+						jobService.getStepExecutionContextPreview(jobExecutionId, stepExecutionId));
+				model.addAttribute("preview", true);
 			}
+			else {
+				Map<String, Object> executionMap = new HashMap<String, Object>();
+
+				for (Map.Entry<String, Object> entry : jobService
+						.getStepExecutionContext(jobExecutionId, stepExecutionId).entrySet()) {
+					executionMap.put(entry.getKey(), entry.getValue());
+				}
 
-			model.addAttribute("stepExecutionContext", objectMapper.writeValueAsString(executionMap));
+				model.addAttribute("stepExecutionContext", objectMapper.writeValueAsString(executionMap));
+			}
 			model.addAttribute("stepExecutionId", stepExecutionId);
 			model.addAttribute("stepName", stepExecution.getStepName());
 			model.addAttribute("jobExecutionId", jobExecutionId);
@@ -182,4 +218,49 @@ public class StepExecutionController {
 
 		return "jobs/executions/step/execution-context";
 	}
+
+	/**
+	 * Stream the serialized execution context as plain text, cut short after
+	 * maxLength characters (with a note at the end if it was).
+	 */
+	@GetMapping(value = "/jobs/executions/{jobExecutionId}/steps/{stepExecutionId}/execution-context", params = "maxLength")
+	public void streamStepExecutionContext(@PathVariable("jobExecutionId") Long jobExecutionId,
+			@PathVariable("stepExecutionId") Long stepExecutionId, @RequestParam("maxLength") int maxLength,
+			HttpServletResponse response) throws IOException {
+		response.setContentType("text/plain;charset=UTF-8");
+		try {
+			if (jobService.writeStepExecutionContext(jobExecutionId, stepExecutionId, response.getWriter(),
+					Math.max(maxLength, 0))) {
+				response.getWriter().write("\n... (truncated after " + maxLength + " characters)");
+			}
+		} catch (NoSuchJobExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such job execution (" + jobExecutionId + ")");
+		} catch (NoSuchStepExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such step execution (" + stepExecutionId + ")");
+		}
+	}
+
+	/**
+	 * Stream a page of the execution context as JSON, without building the
+	 * document in memory first.
+	 */
+	@GetMapping("/jobs/executions/{jobExecutionId}/steps/{stepExecutionId}/execution-context.json")
+	public void getStepExecutionContextJson(@PathVariable("jobExecutionId") Long jobExecutionId,
+			@PathVariable("stepExecutionId") Long stepExecutionId, @RequestParam(defaultValue = "0") int startKey,
+			@RequestParam(defaultValue = "100") int pageSize, @RequestParam(defaultValue = "0") int depth,
+			HttpServletResponse response) throws IOException {
+		ExecutionContext context;
+		try {
+			context = jobService.getStepExecutionContext(jobExecutionId, stepExecutionId);
+		} catch (NoSuchJobExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such job execution (" + jobExecutionId + ")");
+			return;
+		} catch (NoSuchStepExecutionException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND, "There is no such step execution (" + stepExecutionId + ")");
+			return;
+		}
+		response.setContentType("application/json");
+		new ExecutionContextJsonWriter(objectMapper).write(context, response.getOutputStream(), Math.max(startKey, 0),
+				Math.max(pageSize, 0), Math.max(depth, 0));
+	}
 }
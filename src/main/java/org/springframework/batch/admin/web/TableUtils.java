@@ -34,4 +34,42 @@ public class TableUtils {
 		}
 	}
 
+	/**
+	 * Add pagination for a page whose total may be approximate or unknown. The
+	 * end of the page and the next link come from what was actually returned,
+	 * so they stay correct however far the total is out. An approximate total
+	 * is flagged with "approximate" + suffix + "s", and an unknown total (less
+	 * than zero) is left out of the model.
+	 * 
+	 * @param model the model to add to
+	 * @param total the total, possibly approximate, or negative if unknown
+	 * @param exact whether the total is exact
+	 * @param start the offset of the first item on the page
+	 * @param number the page size
+	 * @param returned the number of items actually on the page
+	 * @param hasNext whether there are more items after this page
+	 * @param suffix the suffix for the model keys
+	 */
+	public static void addPagination(Map<String, Object> model, int total, boolean exact, int start, int number,
+			int returned, boolean hasNext, String suffix) {
+		if (exact && total >= 0) {
+			addPagination(model, total, start, number, suffix);
+			return;
+		}
+		int end = start + returned;
+		if (total >= 0) {
+			model.put("total" + suffix + "s", total > end ? total : end);
+			model.put("approximate" + suffix + "s", true);
+		}
+		model.put("start" + suffix, start + 1);
+		model.put("end" + suffix, end);
+		if (hasNext) {
+			model.put("next" + suffix, end);
+		}
+		if (start > 0) {
+			int previous = start - number;
+			model.put("previous" + suffix, previous < 0 ? 0 : previous);
+		}
+	}
+
 }
@@ -97,20 +97,28 @@
 				<td>Step Executions Count</td>
 				<td><a href="${url}"/>${jobExecutionInfo.stepExecutionCount}</a></td>
 			</tr>
+			<#if stepExecutionCounts?? && stepExecutionCounts?size != 0>
+			<tr class="name-sublevel1-even">
+				<td>Step Execution Statuses</td>
+				<td><#list stepExecutionCounts?keys as status>${status}: ${stepExecutionCounts[status]}<#if status_has_next>, </#if></#list></td>
+			</tr>
+			</#if>
 		</table>
 	
 <#if stepExecutionInfos?? && stepExecutionInfos?size != 0>
 		<br/>
+		<#assign execution_url><@spring.url relativeUrl="${servletPath}/jobs/executions/${jobExecutionInfo.id?c}"/></#assign>
+		<#macro sortLink key label><a href="${execution_url}?sort=${key}&ascending=${(sort! == key && ascending!true)?then('false', 'true')}&pageSize=${pageSize!20}">${label}</a></#macro>
 		<table title="Step Execution Status"
 			class="bordered-table">
 			<tr>
-				<th>StepName</th>
-				<th>Reads</th>
-				<th>Writes</th>
-				<th>Commits</th>
-				<th>Rollbacks</th>
+				<th><@sortLink "name" "StepName"/></th>
+				<th><@sortLink "readCount" "Reads"/></th>
+				<th><@sortLink "writeCount" "Writes"/></th>
+				<th><@sortLink "commitCount" "Commits"/></th>
+				<th><@sortLink "rollbackCount" "Rollbacks"/></th>
 				<th>Duration</th>
-				<th>Status</th>
+				<th><@sortLink "status" "Status"/></th>
 			</tr>
 			<#list stepExecutionInfos as execution>
 				<#if execution_index % 2 == 0>
@@ -119,7 +127,9 @@
 					<#assign rowClass="name-sublevel1-odd" />
 				</#if>
 				<tr class="${rowClass}">
-					<td>${execution.name}</td>
+					<td>${execution.name}<#if execution.name?contains(":")>
+						<#assign partitions_url><@spring.url relativeUrl="${servletPath}/jobs/executions/${jobExecutionInfo.id?c}/partitions/${execution.name?keep_before(':')}"/></#assign>
+						(<a href="${partitions_url}">all partitions</a>)</#if></td>
 					<td>${execution.stepExecution.readCount}</td>
 					<td>${execution.stepExecution.writeCount}</td>
 					<td>${execution.stepExecution.commitCount}</td>
@@ -134,6 +144,14 @@
 				</tr>
 			</#list>
 		</table>
+		<#if startStepExecution??>
+			<ul class="controlLinks">
+				<li>Rows: ${startStepExecution}-${endStepExecution} of ${totalStepExecutions}</li>
+				<#if nextStepExecution??><li><a href="${execution_url}?startStepExecution=${nextStepExecution?c}&sort=${sort!'id'}&ascending=${(ascending!true)?c}&pageSize=${pageSize!20}">Next</a></li></#if>
+				<#if previousStepExecution??><li><a href="${execution_url}?startStepExecution=${previousStepExecution?c}&sort=${sort!'id'}&ascending=${(ascending!true)?c}&pageSize=${pageSize!20}">Previous</a></li></#if>
+				<li>Page Size: ${pageSize!20}</li>
+			</ul>
+		</#if>
 </#if>
 
 	<#else>
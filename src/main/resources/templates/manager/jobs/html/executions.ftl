@@ -21,6 +21,12 @@
 				<p>Stopped ${stoppedCount} Job executions.  <#if stoppedCount gt 0>You may need to wait 
 				for them to respond to the signal.</#if></p>
 			</#if>
+			<#if abandonedCount??>
+				<p>Abandoned ${abandonedCount} Job executions.</p>
+			</#if>
+			<#if restartedCount??>
+				<p>Restarted ${restartedCount} Job executions.</p>
+			</#if>
 			<input type="hidden" name="_method" value="DELETE"/>	
 			<input id="stop" type="submit" value="Stop&nbsp;All" name="stop" />
 		</form>
@@ -58,9 +64,13 @@
 		</table>
 		<#if startJobExecution??>
 			<ul class="controlLinks">
-				<#assign executions_url><@spring.url relativeUrl="${servletPath}/jobs/executions"/></#assign>
-				<li>Rows: ${startJobExecution}-${endJobExecution} of ${totalJobExecutions}</li> 
-				<#if nextJobExecution??><li><a href="${executions_url}?startJobExecution=${nextJobExecution?c}&pageSize=${pageSize!20}">Next</a></li></#if>
+				<#if jobInfo?? && !jobInfo.jobInstanceId??>
+					<#assign executions_url><@spring.url relativeUrl="${servletPath}/jobs/${jobInfo.name}/executions"/></#assign>
+				<#else>
+					<#assign executions_url><@spring.url relativeUrl="${servletPath}/jobs/executions"/></#assign>
+				</#if>
+				<li>Rows: ${startJobExecution}-${endJobExecution}<#if totalJobExecutions??> of <#if approximateJobExecutions??>about </#if>${totalJobExecutions}</#if></li> 
+				<#if nextJobExecution??><li><a href="${executions_url}?startJobExecution=${nextJobExecution?c}<#if nextJobExecutionId??>&afterJobExecution=${nextJobExecutionId?c}</#if>&pageSize=${pageSize!20}">Next</a></li></#if>
 				<#if previousJobExecution??><li><a href="${executions_url}?startJobExecution=${previousJobExecution?c}&pageSize=${pageSize!20}">Previous</a></li></#if>
 				<!-- TODO: enable pageSize editing -->
 				<li>Page Size: ${pageSize!20}</li>
@@ -10,6 +10,8 @@
 					<th>Name</th>
 					<th>Description</th>
 					<th>Execution&nbsp;Count</th>
+					<th>Last&nbsp;Status</th>
+					<th>Last&nbsp;Start</th>
 					<th>Launchable</th>
 					<th>Incrementable</th>
 				</tr>
@@ -24,6 +26,8 @@
 						<td><a href="${job_url}">${job.name}</a></td>
 						<td><@spring.messageText code="${job.name}.description" text="No description"/></td>
 						<td>${job.executionCount}</td>
+						<td><#if job.lastExecutionStatus??>${job.lastExecutionStatus}<#else>-</#if></td>
+						<td>${job.lastExecutionStart}</td>
 						<td><#if job.launchable??>${job.launchable?string}<#else>?</#if></td>
 						<td><#if job.incrementable??>${job.incrementable?string}<#else>?</#if></td>
 					</tr>
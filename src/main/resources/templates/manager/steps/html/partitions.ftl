@@ -0,0 +1,86 @@
+<#import "/spring.ftl" as spring />
+<div id="partitions">
+
+	<#if partitionRollup??>
+		<h2>Partitions of Step=${partitionRollup.stepName} in Job Execution=${jobExecutionId?c}</h2>
+
+		<p>${partitionRollup.partitionCount} partitions, ${partitionRollup.finishedCount} finished<#if partitionRollup.statusCounts?size != 0>
+			(<#list partitionRollup.statusCounts?keys as status>${status}: ${partitionRollup.statusCounts[status]}<#if status_has_next>, </#if></#list>)</#if>.</p>
+		<table title="Partition Rollup"
+			class="bordered-table">
+			<tr>
+				<th>Property</th>
+				<th>Total</th>
+				<th>Mean</th>
+			</tr>
+			<tr class="name-sublevel1-odd">
+				<td>Reads</td>
+				<td>${partitionRollup.readCount}</td>
+				<td>${partitionRollup.meanReadCount}</td>
+			</tr>
+			<tr class="name-sublevel1-even">
+				<td>Writes</td>
+				<td>${partitionRollup.writeCount}</td>
+				<td>${partitionRollup.meanWriteCount}</td>
+			</tr>
+			<tr class="name-sublevel1-odd">
+				<td>Skips</td>
+				<td>${partitionRollup.skipCount}</td>
+				<td>${partitionRollup.meanSkipCount}</td>
+			</tr>
+		</table>
+		<br/>
+		<table title="Partition Durations"
+			class="bordered-table">
+			<tr>
+				<th>Min (ms)</th>
+				<th>Mean (ms)</th>
+				<th>95th Percentile (ms)</th>
+				<th>Max (ms)</th>
+			</tr>
+			<tr class="name-sublevel1-odd">
+				<td>${partitionRollup.minDuration}</td>
+				<td>${partitionRollup.meanDuration}</td>
+				<td>${partitionRollup.p95Duration}</td>
+				<td>${partitionRollup.maxDuration}</td>
+			</tr>
+		</table>
+
+		<#if slowestPartitions?? && slowestPartitions?size != 0>
+			<h3>Slowest Partitions</h3>
+			<table title="Slowest Partitions"
+				class="bordered-table">
+				<tr>
+					<th>ID</th>
+					<th>Name</th>
+					<th>Duration</th>
+					<th>Status</th>
+					<th>Reads</th>
+					<th>Writes</th>
+					<th>Skips</th>
+				</tr>
+				<#list slowestPartitions as execution>
+					<#if execution_index % 2 == 0>
+						<#assign rowClass="name-sublevel1-even" />
+					<#else>
+						<#assign rowClass="name-sublevel1-odd" />
+					</#if>
+					<tr class="${rowClass}">
+						<#assign execution_url><@spring.url relativeUrl="${servletPath}/jobs/executions/${jobExecutionId?c}/steps/${execution.id?c}"/></#assign>
+						<td><a href="${execution_url}">${execution.id}</a></td>
+						<td>${execution.name}</td>
+						<td>${execution.duration}</td>
+						<td>${execution.stepExecution.status}</td>
+						<td>${execution.stepExecution.readCount}</td>
+						<td>${execution.stepExecution.writeCount}</td>
+						<td>${execution.stepExecution.skipCount}</td>
+					</tr>
+				</#list>
+			</table>
+		</#if>
+
+	<#else>
+		<p>There are no partitions to display.</p>
+	</#if>
+
+</div><!-- partitions -->
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+
+/**
+ * Checks that the jobs page shows the last start as the executions page shows
+ * the same run, whatever the time zone.
+ */
+class JobInfoTests {
+
+	@Test
+	void lastExecutionStartMatchesTheExecutionList() {
+		LocalDateTime startTime = LocalDateTime.of(2024, 3, 1, 10, 15, 30);
+		TimeZone timeZone = TimeZone.getTimeZone("Pacific/Auckland");
+		JobExecution jobExecution = new JobExecution(new JobInstance(1L, "job"), 1L, new JobParameters());
+		jobExecution.setStartTime(startTime);
+		JobExecutionInfo execution = new JobExecutionInfo(jobExecution, 0, timeZone);
+
+		JobInfo job = new JobInfo(new JobInfo("job", 1, true, false, BatchStatus.COMPLETED, startTime), timeZone);
+		assertEquals(execution.getStartDate() + " " + execution.getStartTime(), job.getLastExecutionStart());
+		assertEquals(timeZone, job.getTimeZone());
+	}
+
+}
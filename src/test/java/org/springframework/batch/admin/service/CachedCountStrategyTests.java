@@ -0,0 +1,85 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Checks that the cached counts stay bounded however many keys are asked
+ * for, and that the estimate survives ids beyond the range of an int.
+ */
+class CachedCountStrategyTests {
+
+	@Test
+	void newKeysAreNotCachedBeyondTheMaximum() {
+		CachedCountStrategy strategy = new CachedCountStrategy(60 * 60 * 1000L);
+		strategy.setMaxSize(2);
+		int[] loads = new int[1];
+		for (int i = 0; i < 5; i++) {
+			assertEquals(i, strategy.count("key" + i, () -> loads[0]++, null));
+		}
+		assertEquals(2, strategy.getSize());
+		// the cached ones are still used, the others counted again
+		assertEquals(0, strategy.count("key0", () -> loads[0]++, null));
+		assertEquals(5, strategy.count("key4", () -> loads[0]++, null));
+	}
+
+	@Test
+	void expiredCountsAreSweptOut() throws Exception {
+		CachedCountStrategy strategy = new CachedCountStrategy(10);
+		for (int i = 0; i < 5; i++) {
+			strategy.count("key" + i, () -> 1, null);
+		}
+		assertEquals(5, strategy.getSize());
+		Thread.sleep(30);
+		strategy.count("other", () -> 1, null);
+		assertEquals(1, strategy.getSize());
+	}
+
+	@Test
+	void estimateIsClampedForLargeIds() throws Exception {
+		EmbeddedDatabase dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+				.generateUniqueName(true).addScript("org/springframework/batch/core/schema-h2.sql").build();
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+			jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+					+ "VALUES (1, 0, 'job', 'key')");
+			for (long id : new long[] { 1L, 3_000_000_000L }) {
+				jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+						+ "CREATE_TIME, STATUS) VALUES (?, 0, 1, ?, 'COMPLETED')", id,
+						Timestamp.valueOf(LocalDateTime.now()));
+			}
+			JdbcSearchableJobExecutionDao dao = new JdbcSearchableJobExecutionDao();
+			dao.setDataSource(dataSource);
+			dao.setCountStrategy(new EstimatedCountStrategy(60 * 60 * 1000L));
+			dao.afterPropertiesSet();
+			assertEquals(Integer.MAX_VALUE, dao.countJobExecutions());
+		}
+		finally {
+			dataSource.shutdown();
+		}
+	}
+
+}
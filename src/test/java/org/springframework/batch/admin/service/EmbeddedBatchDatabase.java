@@ -0,0 +1,138 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.support.MapJobRegistry;
+import org.springframework.batch.core.configuration.support.ReferenceJobFactory;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.explore.support.JobExplorerFactoryBean;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.job.builder.SimpleJobBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.core.repository.ExecutionContextSerializer;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.repository.dao.Jackson2ExecutionContextStringSerializer;
+import org.springframework.batch.core.repository.support.JobRepositoryFactoryBean;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.core.step.tasklet.Tasklet;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * A job repository on an embedded H2 database, with a registry for the jobs
+ * that are built on it and a factory for job services over it.
+ */
+class EmbeddedBatchDatabase {
+
+	final EmbeddedDatabase dataSource;
+
+	final DataSourceTransactionManager transactionManager;
+
+	final JobRepository jobRepository;
+
+	final JobExplorer jobExplorer;
+
+	final MapJobRegistry jobRegistry = new MapJobRegistry();
+
+	EmbeddedBatchDatabase() throws Exception {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("org/springframework/batch/core/schema-h2.sql").build();
+		transactionManager = new DataSourceTransactionManager(dataSource);
+		ExecutionContextSerializer serializer = new Jackson2ExecutionContextStringSerializer();
+
+		JobRepositoryFactoryBean repositoryFactory = new JobRepositoryFactoryBean();
+		repositoryFactory.setDataSource(dataSource);
+		repositoryFactory.setTransactionManager(transactionManager);
+		repositoryFactory.setSerializer(serializer);
+		repositoryFactory.afterPropertiesSet();
+		jobRepository = repositoryFactory.getObject();
+
+		JobExplorerFactoryBean explorerFactory = new JobExplorerFactoryBean();
+		explorerFactory.setDataSource(dataSource);
+		explorerFactory.setTransactionManager(transactionManager);
+		explorerFactory.setSerializer(serializer);
+		explorerFactory.afterPropertiesSet();
+		jobExplorer = explorerFactory.getObject();
+	}
+
+	/**
+	 * Build and register a job with one tasklet step per name, all running
+	 * the same tasklet.
+	 */
+	Job job(String name, Tasklet tasklet, String... stepNames) throws Exception {
+		SimpleJobBuilder builder = null;
+		for (String stepName : stepNames) {
+			Step step = new StepBuilder(stepName, jobRepository).tasklet(tasklet, transactionManager).build();
+			builder = builder == null ? new JobBuilder(name, jobRepository).start(step) : builder.next(step);
+		}
+		Job job = builder.build();
+		jobRegistry.register(new ReferenceJobFactory(job));
+		return job;
+	}
+
+	/**
+	 * A job whose steps finish at once.
+	 */
+	Job job(String name, String... stepNames) throws Exception {
+		return job(name, (contribution, context) -> RepeatStatus.FINISHED, stepNames);
+	}
+
+	TaskExecutorJobLauncher launcher(TaskExecutor taskExecutor) throws Exception {
+		TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+		jobLauncher.setJobRepository(jobRepository);
+		jobLauncher.setTaskExecutor(taskExecutor);
+		jobLauncher.afterPropertiesSet();
+		return jobLauncher;
+	}
+
+	TaskExecutorJobLauncher launcher() throws Exception {
+		return launcher(new SyncTaskExecutor());
+	}
+
+	/**
+	 * @param factory a factory with any extra settings (the repository ones
+	 * are added here)
+	 */
+	SimpleJobService jobService(SimpleJobServiceFactoryBean factory) throws Exception {
+		factory.setDataSource(dataSource);
+		factory.setJobRepository(jobRepository);
+		factory.setJobLocator(jobRegistry);
+		factory.setJobExplorer(jobExplorer);
+		factory.setTransactionManager(transactionManager);
+		factory.setConversionService(new DefaultConversionService());
+		factory.afterPropertiesSet();
+		return (SimpleJobService) factory.getObject();
+	}
+
+	SimpleJobService jobService(TaskExecutorJobLauncher jobLauncher) throws Exception {
+		SimpleJobServiceFactoryBean factory = new SimpleJobServiceFactoryBean();
+		factory.setJobLauncher(jobLauncher);
+		return jobService(factory);
+	}
+
+	void shutdown() {
+		dataSource.shutdown();
+	}
+
+}
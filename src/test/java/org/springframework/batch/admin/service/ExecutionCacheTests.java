@@ -0,0 +1,135 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the copies, the size and weight bounds and the counters of the
+ * execution cache, with string builders standing in for executions (mutable,
+ * and weighing their length).
+ */
+class ExecutionCacheTests {
+
+	private ExecutionCache<StringBuilder> cache(int maxSize, long maxWeight) {
+		return new ExecutionCache<StringBuilder>(maxSize, maxWeight, StringBuilder::length, StringBuilder::new);
+	}
+
+	@Test
+	void putStoresACopy() {
+		ExecutionCache<StringBuilder> cache = cache(10, 100);
+		StringBuilder value = new StringBuilder("a");
+		cache.put(1L, value);
+		value.append("changed");
+		assertEquals("a", cache.get(1L).toString());
+	}
+
+	@Test
+	void getReturnsANewCopyEachTime() {
+		ExecutionCache<StringBuilder> cache = cache(10, 100);
+		cache.put(1L, new StringBuilder("a"));
+		StringBuilder first = cache.get(1L);
+		first.append("changed");
+		StringBuilder second = cache.get(1L);
+		assertNotSame(first, second);
+		assertEquals("a", second.toString());
+	}
+
+	@Test
+	void leastRecentlyUsedIsEvictedBeyondMaxSize() {
+		ExecutionCache<StringBuilder> cache = cache(2, 100);
+		cache.put(1L, new StringBuilder("a"));
+		cache.put(2L, new StringBuilder("b"));
+		cache.get(1L);
+		cache.put(3L, new StringBuilder("c"));
+		assertNull(cache.get(2L));
+		assertEquals("a", cache.get(1L).toString());
+		assertEquals("c", cache.get(3L).toString());
+		assertEquals(2, cache.getSize());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	void entriesAreEvictedBeyondMaxWeight() {
+		ExecutionCache<StringBuilder> cache = cache(10, 10);
+		cache.put(1L, new StringBuilder("aaaa"));
+		cache.put(2L, new StringBuilder("bbbb"));
+		assertEquals(8, cache.getWeight());
+		cache.put(3L, new StringBuilder("cccc"));
+		assertNull(cache.get(1L));
+		assertEquals(2, cache.getSize());
+		assertEquals(8, cache.getWeight());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	void entryHeavierThanTheCacheIsNotAdded() {
+		ExecutionCache<StringBuilder> cache = cache(10, 3);
+		cache.put(1L, new StringBuilder("aaaa"));
+		assertEquals(0, cache.getSize());
+		assertEquals(0, cache.getWeight());
+	}
+
+	@Test
+	void replacingAnEntryReplacesItsWeight() {
+		ExecutionCache<StringBuilder> cache = cache(10, 100);
+		cache.put(1L, new StringBuilder("aaaa"));
+		cache.put(1L, new StringBuilder("aa"));
+		assertEquals(1, cache.getSize());
+		assertEquals(2, cache.getWeight());
+	}
+
+	@Test
+	void zeroSizeDisablesTheCache() {
+		ExecutionCache<StringBuilder> cache = cache(0, 100);
+		cache.put(1L, new StringBuilder("a"));
+		assertNull(cache.get(1L));
+		assertEquals(0, cache.getSize());
+	}
+
+	@Test
+	void explicitEvictionsAreNotCounted() {
+		ExecutionCache<StringBuilder> cache = cache(10, 100);
+		cache.put(1L, new StringBuilder("aa"));
+		cache.put(2L, new StringBuilder("bb"));
+		cache.put(3L, new StringBuilder("cc"));
+		cache.evict(1L);
+		assertEquals(1, cache.evictIf(value -> value.charAt(0) == 'b'));
+		assertEquals(1, cache.getSize());
+		assertEquals(2, cache.getWeight());
+		assertEquals(0, cache.getEvictionCount());
+	}
+
+	@Test
+	void hitsAndMissesAreCounted() {
+		ExecutionCache<StringBuilder> cache = cache(10, 100);
+		cache.get(1L);
+		cache.put(1L, new StringBuilder("a"));
+		cache.get(1L);
+		cache.get(1L);
+		cache.get(2L);
+		assertEquals(2, cache.getHitCount());
+		assertEquals(2, cache.getMissCount());
+		assertEquals(2L, cache.getStatistics().get("hits"));
+		assertEquals(2L, cache.getStatistics().get("misses"));
+		assertEquals(0L, cache.getStatistics().get("evictions"));
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Checks that every page of the step executions of a job execution, for each
+ * sort, is the matching slice of the whole sorted list (ties and missing start
+ * and end times included).
+ */
+class JdbcSearchableStepExecutionDaoTests {
+
+	private static final int STEPS = 23;
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	private static final Map<String, Comparator<Row>> SORTS = Map.of("id", Comparator.comparing(Row::id), "name",
+			Comparator.comparing(Row::name), "status", Comparator.comparing(Row::status), "startTime",
+			byTime(Row::startTime), "endTime", byTime(Row::endTime), "readCount",
+			Comparator.comparing(Row::readCount), "writeCount", Comparator.comparing(Row::writeCount),
+			"commitCount", Comparator.comparing(Row::commitCount), "rollbackCount",
+			Comparator.comparing(Row::rollbackCount));
+
+	private static EmbeddedDatabase dataSource;
+
+	private static JdbcSearchableStepExecutionDao dao;
+
+	private static final List<Row> rows = new ArrayList<Row>();
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("org/springframework/batch/core/schema-h2.sql").build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (1, 0, 'job', 'key')");
+		for (long jobExecutionId = 1; jobExecutionId <= 2; jobExecutionId++) {
+			jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+					+ "CREATE_TIME, STATUS) VALUES (?, 0, 1, ?, 'STARTED')", jobExecutionId, Timestamp.valueOf(BASE));
+		}
+		String[] statuses = { "COMPLETED", "FAILED", "STARTED" };
+		for (long id = 1; id <= STEPS; id++) {
+			LocalDateTime createTime = BASE.plusSeconds(id);
+			LocalDateTime startTime = id % 7 == 0 ? null : BASE.plusMinutes(id % 6);
+			LocalDateTime endTime = id % 5 == 0 ? null : BASE.plusMinutes(10 + id % 4);
+			Row row = new Row(id, "step" + id % 4, statuses[(int) (id % 3)], createTime, startTime, endTime, id % 5,
+					id % 3, id % 6, id % 2);
+			rows.add(row);
+			insert(jdbcTemplate, row, 1L);
+		}
+		// another execution that must not show up
+		insert(jdbcTemplate, new Row(STEPS + 1L, "other", "COMPLETED", BASE, BASE, BASE, 0, 0, 0, 0), 2L);
+
+		dao = new JdbcSearchableStepExecutionDao();
+		dao.setDataSource(dataSource);
+		dao.afterPropertiesSet();
+	}
+
+	@AfterAll
+	static void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	void everyPageIsASliceOfTheSortedList() {
+		for (Map.Entry<String, Comparator<Row>> sort : SORTS.entrySet()) {
+			for (boolean ascending : new boolean[] { true, false }) {
+				Comparator<Row> comparator = ascending ? sort.getValue() : sort.getValue().reversed();
+				List<Long> expected = rows.stream().sorted(comparator.thenComparing(ascending
+						? Comparator.comparing(Row::id) : Comparator.comparing(Row::id).reversed())).map(Row::id)
+						.toList();
+				for (int start = 0; start <= STEPS + 1; start++) {
+					List<Long> page = ids(dao.getStepExecutions(new JobExecution(1L), sort.getKey(), ascending,
+							start, 4));
+					assertEquals(expected.subList(Math.min(start, STEPS), Math.min(start + 4, STEPS)), page,
+							sort.getKey() + (ascending ? " ascending" : " descending") + " from " + start);
+				}
+			}
+		}
+	}
+
+	@Test
+	void stepExecutionsAreAddedToTheJobExecution() {
+		JobExecution jobExecution = new JobExecution(1L);
+		List<StepExecution> page = dao.getStepExecutions(jobExecution, "name", true, 4, 4);
+		assertEquals(4, jobExecution.getStepExecutions().size());
+		for (StepExecution stepExecution : page) {
+			assertEquals(jobExecution, stepExecution.getJobExecution());
+		}
+	}
+
+	@Test
+	void unknownSort() {
+		assertThrows(IllegalArgumentException.class,
+				() -> dao.getStepExecutions(new JobExecution(1L), "exitCode", true, 0, 4));
+	}
+
+	/**
+	 * Step executions without the time come last in ascending order, in order
+	 * of creation.
+	 */
+	private static Comparator<Row> byTime(Function<Row, LocalDateTime> time) {
+		return Comparator.comparing((Row row) -> time.apply(row) == null)
+				.thenComparing(row -> time.apply(row) == null ? row.createTime() : time.apply(row));
+	}
+
+	private static void insert(JdbcTemplate jdbcTemplate, Row row, Long jobExecutionId) {
+		jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+				+ "JOB_EXECUTION_ID, CREATE_TIME, START_TIME, END_TIME, STATUS, COMMIT_COUNT, READ_COUNT, "
+				+ "FILTER_COUNT, WRITE_COUNT, READ_SKIP_COUNT, WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, "
+				+ "ROLLBACK_COUNT, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+				+ "VALUES (?, 0, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, 0, 0, 0, ?, 'EXECUTING', '', ?)", row.id(), row.name(),
+				jobExecutionId, timestamp(row.createTime()), timestamp(row.startTime()), timestamp(row.endTime()),
+				row.status(), row.commitCount(), row.readCount(), row.writeCount(), row.rollbackCount(),
+				timestamp(row.createTime()));
+	}
+
+	private static Timestamp timestamp(LocalDateTime time) {
+		return time == null ? null : Timestamp.valueOf(time);
+	}
+
+	private static List<Long> ids(List<StepExecution> stepExecutions) {
+		return stepExecutions.stream().map(StepExecution::getId).toList();
+	}
+
+	private record Row(Long id, String name, String status, LocalDateTime createTime, LocalDateTime startTime,
+			LocalDateTime endTime, long readCount, long writeCount, long commitCount, long rollbackCount) {
+	}
+
+}
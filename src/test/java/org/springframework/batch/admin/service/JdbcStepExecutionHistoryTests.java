@@ -0,0 +1,203 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.admin.domain.CumulativeHistory;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+/**
+ * Checks that the step execution history aggregated in SQL (sums of squares
+ * and durations included) is the one {@link StepExecutionHistory#append}
+ * builds from the same rows, and that the streaming fallback for databases
+ * without a duration expression gives the same result.
+ */
+class JdbcStepExecutionHistoryTests {
+
+	private static final int STEPS = 40;
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+	/**
+	 * Big enough for the square to overflow a BIGINT.
+	 */
+	private static final long HUGE = 4_000_000_000L;
+
+	private static EmbeddedDatabase dataSource;
+
+	private static JdbcSearchableStepExecutionDao aggregating;
+
+	private static JdbcSearchableStepExecutionDao streaming;
+
+	private static final List<StepExecution> stepExecutions = new ArrayList<StepExecution>();
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		dataSource = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true)
+				.addScript("org/springframework/batch/core/schema-h2.sql").build();
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		JobExecution[] jobExecutions = { jobExecution(jdbcTemplate, 1L, "job"), jobExecution(jdbcTemplate, 2L, "other") };
+		for (long id = 1; id <= STEPS; id++) {
+			StepExecution stepExecution = new StepExecution(id % 5 == 0 ? "step2" : "step",
+					jobExecutions[id % 7 == 0 ? 1 : 0], id);
+			// sub-millisecond parts, so that the SQL has to truncate as Duration.toMillis() does
+			stepExecution.setStartTime(id % 11 == 0 ? null : BASE.plusMinutes(id).plusNanos(id * 123_000));
+			stepExecution.setEndTime(id % 6 == 0 ? null : BASE.plusMinutes(id).plusSeconds(id * 7 % 50)
+					.plusNanos(id * 789_000));
+			stepExecution.setCommitCount(id % 4);
+			stepExecution.setRollbackCount(id % 3);
+			stepExecution.setReadCount(id == 13 ? HUGE : id % 9 == 0 ? 0 : id * 17);
+			stepExecution.setWriteCount(id == 13 ? HUGE : id * 13);
+			stepExecution.setFilterCount(id % 5);
+			stepExecution.setReadSkipCount(id % 2);
+			stepExecution.setWriteSkipCount(id % 3);
+			stepExecution.setProcessSkipCount(id % 4);
+			insert(jdbcTemplate, stepExecution);
+			stepExecutions.add(stepExecution);
+		}
+
+		aggregating = new JdbcSearchableStepExecutionDao();
+		aggregating.setDataSource(dataSource);
+		aggregating.afterPropertiesSet();
+		streaming = new JdbcSearchableStepExecutionDao();
+		streaming.setDataSource(dataSource);
+		// no duration expression for this type, so the rows are streamed
+		streaming.setDatabaseType("ORACLE");
+		streaming.afterPropertiesSet();
+	}
+
+	@AfterAll
+	static void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	void aggregatesMatchAppendedRows() {
+		StepExecutionHistory expected = appended("job", "step", -1L, Long.MAX_VALUE);
+		assertTrue(expected.getCount() > 10, "enough finished executions");
+		assertHistory(expected, aggregating.getStepExecutionHistory("job", "step"));
+	}
+
+	@Test
+	void aggregatesMatchAppendedRowsInARange() {
+		assertHistory(appended("job", "step", 10L, 30L), aggregating.getStepExecutionHistory("job", "step", 10L, 30L));
+	}
+
+	@Test
+	void aggregatesMatchAppendedRowsForPatterns() {
+		assertHistory(appended("*", "step*", -1L, Long.MAX_VALUE), aggregating.getStepExecutionHistory("*", "step*"));
+	}
+
+	@Test
+	void streamingFallbackMatchesAppendedRows() {
+		assertHistory(appended("job", "step", -1L, Long.MAX_VALUE), streaming.getStepExecutionHistory("job", "step"));
+		assertHistory(appended("*", "step*", 10L, 30L), streaming.getStepExecutionHistory("*", "step*", 10L, 30L));
+	}
+
+	/**
+	 * The history built the way it was before the aggregates: appending every
+	 * finished execution that matches.
+	 */
+	private static StepExecutionHistory appended(String jobName, String stepName, long after, long max) {
+		StepExecutionHistory history = new StepExecutionHistory(stepName);
+		for (StepExecution stepExecution : stepExecutions) {
+			if (stepExecution.getId() > after && stepExecution.getId() <= max
+					&& matches(jobName, stepExecution.getJobExecution().getJobInstance().getJobName())
+					&& matches(stepName, stepExecution.getStepName()) && stepExecution.getStartTime() != null) {
+				history.append(stepExecution);
+			}
+		}
+		return history;
+	}
+
+	private static boolean matches(String pattern, String name) {
+		return name.matches(pattern.replace("*", ".*"));
+	}
+
+	private static void assertHistory(StepExecutionHistory expected, StepExecutionHistory actual) {
+		assertEquals(expected.getCount(), actual.getCount(), "count");
+		assertCumulative(expected, actual, "commitCount", StepExecutionHistory::getCommitCount);
+		assertCumulative(expected, actual, "rollbackCount", StepExecutionHistory::getRollbackCount);
+		assertCumulative(expected, actual, "readCount", StepExecutionHistory::getReadCount);
+		assertCumulative(expected, actual, "writeCount", StepExecutionHistory::getWriteCount);
+		assertCumulative(expected, actual, "filterCount", StepExecutionHistory::getFilterCount);
+		assertCumulative(expected, actual, "readSkipCount", StepExecutionHistory::getReadSkipCount);
+		assertCumulative(expected, actual, "writeSkipCount", StepExecutionHistory::getWriteSkipCount);
+		assertCumulative(expected, actual, "processSkipCount", StepExecutionHistory::getProcessSkipCount);
+		assertCumulative(expected, actual, "duration", StepExecutionHistory::getDuration);
+		assertCumulative(expected, actual, "durationPerRead", StepExecutionHistory::getDurationPerRead);
+	}
+
+	private static void assertCumulative(StepExecutionHistory expected, StepExecutionHistory actual, String name,
+			Function<StepExecutionHistory, CumulativeHistory> property) {
+		CumulativeHistory left = property.apply(expected);
+		CumulativeHistory right = property.apply(actual);
+		assertEquals(left.getCount(), right.getCount(), name + " count");
+		assertEquals(left.getSum(), right.getSum(), name + " sum");
+		assertEquals(left.getSumSquares(), right.getSumSquares(), Math.abs(left.getSumSquares()) * 1e-12,
+				name + " sum of squares");
+		assertEquals(left.getMin(), right.getMin(), name + " min");
+		assertEquals(left.getMax(), right.getMax(), name + " max");
+		assertEquals(left.getStandardDeviation(), right.getStandardDeviation(),
+				Math.max(1e-9, left.getStandardDeviation() * 1e-9), name + " standard deviation");
+	}
+
+	private static JobExecution jobExecution(JdbcTemplate jdbcTemplate, Long id, String jobName) {
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (?, 0, ?, ?)", id, jobName, "key" + id);
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+				+ "CREATE_TIME, STATUS) VALUES (?, 0, ?, ?, 'COMPLETED')", id, id, Timestamp.valueOf(BASE));
+		return new JobExecution(new JobInstance(id, jobName), id, new JobParameters());
+	}
+
+	private static void insert(JdbcTemplate jdbcTemplate, StepExecution stepExecution) {
+		jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+				+ "JOB_EXECUTION_ID, CREATE_TIME, START_TIME, END_TIME, STATUS, COMMIT_COUNT, READ_COUNT, "
+				+ "FILTER_COUNT, WRITE_COUNT, READ_SKIP_COUNT, WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, "
+				+ "ROLLBACK_COUNT, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+				+ "VALUES (?, 0, ?, ?, ?, ?, ?, 'COMPLETED', ?, ?, ?, ?, ?, ?, ?, ?, 'COMPLETED', '', ?)",
+				stepExecution.getId(), stepExecution.getStepName(), stepExecution.getJobExecutionId(),
+				Timestamp.valueOf(BASE), timestamp(stepExecution.getStartTime()),
+				timestamp(stepExecution.getEndTime()), stepExecution.getCommitCount(), stepExecution.getReadCount(),
+				stepExecution.getFilterCount(), stepExecution.getWriteCount(), stepExecution.getReadSkipCount(),
+				stepExecution.getWriteSkipCount(), stepExecution.getProcessSkipCount(),
+				stepExecution.getRollbackCount(), Timestamp.valueOf(BASE));
+	}
+
+	private static Timestamp timestamp(LocalDateTime time) {
+		return time == null ? null : Timestamp.valueOf(time);
+	}
+
+}
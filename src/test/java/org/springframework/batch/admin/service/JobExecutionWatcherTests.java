@@ -0,0 +1,160 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.admin.domain.JobExecutionChange;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that the watcher only reads the steps that were updated since its
+ * last poll, and that a subscriber that blocks does not hold up the others.
+ */
+class JobExecutionWatcherTests {
+
+	private static final LocalDateTime BASE = LocalDateTime.now().minusDays(1);
+
+	private EmbeddedBatchDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private JobExecutionWatcher watcher;
+
+	private final BlockingQueue<Integer> stepRowsRead = new LinkedBlockingQueue<Integer>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		jdbcTemplate = new JdbcTemplate(database.dataSource);
+		JobService target = database.jobService(database.launcher());
+		// counts the step rows each poll reads
+		JobService jobService = (JobService) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { JobService.class }, (proxy, method, args) -> {
+					try {
+						Object result = method.invoke(target, args);
+						if (method.getName().equals("getStepExecutionRecords")) {
+							stepRowsRead.add(((Collection<?>) result).size());
+						}
+						return result;
+					}
+					catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+		watcher = new JobExecutionWatcher(jobService);
+		// polled by hand
+		watcher.setPollInterval(60 * 60 * 1000L);
+
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (1, 0, 'job', 'key')");
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+				+ "CREATE_TIME, START_TIME, STATUS, EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+				+ "VALUES (1, 1, 1, ?, ?, 'STARTED', 'UNKNOWN', '', ?)", Timestamp.valueOf(BASE),
+				Timestamp.valueOf(BASE), Timestamp.valueOf(BASE));
+		for (long id = 1; id <= 3; id++) {
+			jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+					+ "JOB_EXECUTION_ID, CREATE_TIME, START_TIME, STATUS, COMMIT_COUNT, READ_COUNT, FILTER_COUNT, "
+					+ "WRITE_COUNT, READ_SKIP_COUNT, WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, ROLLBACK_COUNT, "
+					+ "EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+					+ "VALUES (?, 1, ?, 1, ?, ?, 'STARTED', 0, 0, 0, 0, 0, 0, 0, 0, 'EXECUTING', '', ?)", id,
+					"step" + id, Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), Timestamp.valueOf(BASE));
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		watcher.destroy();
+		database.shutdown();
+	}
+
+	@Test
+	void onlyUpdatedStepsAreRead() throws Exception {
+		BlockingQueue<JobExecutionChange> changes = new LinkedBlockingQueue<JobExecutionChange>();
+		watcher.subscribe(1L, changes::add);
+
+		watcher.poll();
+		assertEquals(3, stepRowsRead.poll());
+		assertEquals(3, next(changes).stepExecutions().size());
+
+		watcher.poll();
+		assertEquals(0, stepRowsRead.poll());
+
+		jdbcTemplate.update("UPDATE BATCH_STEP_EXECUTION set VERSION = 2, READ_COUNT = 10, LAST_UPDATED = ? "
+				+ "where STEP_EXECUTION_ID = 2", Timestamp.valueOf(LocalDateTime.now()));
+		watcher.poll();
+		assertEquals(1, stepRowsRead.poll());
+		JobExecutionChange change = next(changes);
+		assertEquals(1, change.stepExecutions().size());
+		assertEquals(10, change.stepExecutions().get(0).readCount());
+		assertTrue(changes.isEmpty());
+	}
+
+	@Test
+	void blockedSubscriberDoesNotHoldUpTheOthers() throws Exception {
+		watcher.setMaxBacklog(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch blocked = new CountDownLatch(1);
+		JobExecutionWatcher.Subscription slow = watcher.subscribe(1L, change -> {
+			blocked.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		BlockingQueue<JobExecutionChange> changes = new LinkedBlockingQueue<JobExecutionChange>();
+		watcher.subscribe(1L, changes::add);
+
+		watcher.poll();
+		assertNotNull(next(changes));
+		assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+		for (int version = 2; version <= 3; version++) {
+			jdbcTemplate.update("UPDATE BATCH_JOB_EXECUTION set VERSION = ?, LAST_UPDATED = ? "
+					+ "where JOB_EXECUTION_ID = 1", version, Timestamp.valueOf(LocalDateTime.now()));
+			watcher.poll();
+			assertEquals(version, next(changes).jobExecution().version());
+		}
+		// one change waiting is allowed, the second is too many
+		assertTrue(slow.isCancelled());
+		assertEquals(1, watcher.getSubscriberCount());
+		release.countDown();
+	}
+
+	private static JobExecutionChange next(BlockingQueue<JobExecutionChange> changes) throws InterruptedException {
+		JobExecutionChange change = changes.poll(10, TimeUnit.SECONDS);
+		assertNotNull(change, "no change delivered");
+		return change;
+	}
+
+}
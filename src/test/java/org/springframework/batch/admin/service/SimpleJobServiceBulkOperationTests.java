@@ -0,0 +1,92 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.admin.service.BulkOperationResult.Outcome;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+/**
+ * Checks that the bulk operations without ids only read the executions they
+ * can act on.
+ */
+class SimpleJobServiceBulkOperationTests {
+
+	private EmbeddedBatchDatabase database;
+
+	private SimpleJobService jobService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		database.job("quick", "step");
+		database.job("failing", (contribution, context) -> {
+			throw new IllegalStateException("planned");
+		}, "step");
+		jobService = database.jobService(database.launcher());
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void abandonAllOnlyReadsExecutionsThatCanBeAbandoned() throws Exception {
+		JobExecution complete = jobService.launch("quick", new JobParameters());
+		JobExecution first = jobService.launch("failing", parameters(1L));
+		JobExecution second = jobService.launch("failing", parameters(2L));
+		ExecutionFilter filter = new ExecutionFilter();
+		filter.setCreatedBefore(LocalDateTime.now().plusMinutes(1));
+
+		BulkOperationResult result = jobService.abandonAll(filter);
+		assertEquals(Map.of(first.getId(), Outcome.UPDATED, second.getId(), Outcome.UPDATED), result.getOutcomes());
+		assertEquals(BatchStatus.COMPLETED, jobService.getJobExecution(complete.getId()).getStatus());
+		assertEquals(BatchStatus.ABANDONED, jobService.getJobExecution(first.getId()).getStatus());
+
+		filter.setStatuses(List.of(BatchStatus.COMPLETED));
+		assertEquals(Map.of(), jobService.abandonAll(filter).getOutcomes());
+	}
+
+	@Test
+	void restartAllOnlyReadsTheLatestExecutionOfEachInstance() throws Exception {
+		JobExecution first = jobService.launch("failing", parameters(1L));
+		JobExecution latest = jobService.restart(first.getId());
+		assertEquals(BatchStatus.FAILED, latest.getStatus());
+		ExecutionFilter filter = new ExecutionFilter();
+		filter.setJobName("failing");
+		filter.setStatuses(List.of(BatchStatus.FAILED));
+
+		BulkOperationResult result = jobService.restartAll(filter);
+		assertEquals(Map.of(latest.getId(), Outcome.RESTARTED), result.getOutcomes());
+	}
+
+	private static JobParameters parameters(long run) {
+		return new JobParametersBuilder().addLong("run", run).toJobParameters();
+	}
+
+}
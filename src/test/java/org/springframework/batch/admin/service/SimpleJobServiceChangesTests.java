@@ -0,0 +1,101 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that the change feed holds back changes newer than its safety lag,
+ * without moving the cursor past them.
+ */
+class SimpleJobServiceChangesTests {
+
+	private EmbeddedBatchDatabase database;
+
+	private SimpleJobService jobService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		database.job("quick", "step");
+		jobService = database.jobService(database.launcher());
+		jobService.setChangeSafetyLag(60 * 60 * 1000L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void recentChangesAreHeldBack() throws Exception {
+		jobService.launch("quick", new JobParameters());
+		ExecutionChanges changes = jobService.getExecutionChanges(null, 10);
+		assertTrue(changes.getJobExecutions().isEmpty());
+		assertTrue(changes.getStepExecutions().isEmpty());
+
+		jobService.setChangeSafetyLag(0);
+		changes = jobService.getExecutionChanges(changes.getCursor(), 10);
+		assertEquals(1, changes.getJobExecutions().size());
+		assertEquals(1, changes.getStepExecutions().size());
+	}
+
+	@Test
+	void cursorDoesNotPassAChangeThatIsHeldBack() throws Exception {
+		JobExecution first = jobService.launch("quick",
+				new JobParametersBuilder().addLong("run", 1L).toJobParameters());
+		backdate(first, 2);
+		ExecutionChanges changes = jobService.getExecutionChanges(null, 10);
+		assertEquals(first.getId(), changes.getJobExecutions().get(0).id());
+
+		// the cursor stays behind a change that is held back, so it still
+		// comes back once it has settled
+		JobExecution second = jobService.launch("quick",
+				new JobParametersBuilder().addLong("run", 2L).toJobParameters());
+		assertTrue(jobService.getExecutionChanges(changes.getCursor(), 10).getJobExecutions().isEmpty());
+		backdate(second, 1);
+		changes = jobService.getExecutionChanges(changes.getCursor(), 10);
+		assertEquals(1, changes.getJobExecutions().size());
+		assertEquals(second.getId(), changes.getJobExecutions().get(0).id());
+		assertEquals(1, changes.getStepExecutions().size());
+	}
+
+	/**
+	 * Move the last update of a job execution and its steps some hours back,
+	 * as if that much time had passed since.
+	 */
+	private void backdate(JobExecution jobExecution, int hours) {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(database.dataSource);
+		Timestamp lastUpdated = Timestamp.valueOf(LocalDateTime.now().minusHours(hours));
+		jdbcTemplate.update("UPDATE BATCH_JOB_EXECUTION set LAST_UPDATED = ? where JOB_EXECUTION_ID = ?", lastUpdated,
+				jobExecution.getId());
+		jdbcTemplate.update("UPDATE BATCH_STEP_EXECUTION set LAST_UPDATED = ? where JOB_EXECUTION_ID = ?",
+				lastUpdated, jobExecution.getId());
+	}
+
+}
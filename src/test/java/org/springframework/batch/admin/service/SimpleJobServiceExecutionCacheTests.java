@@ -0,0 +1,94 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+
+/**
+ * Checks that the cached copies of finished executions do not outlive a change
+ * to them, including the copy of the job execution each cached step execution
+ * holds.
+ */
+class SimpleJobServiceExecutionCacheTests {
+
+	private EmbeddedBatchDatabase database;
+
+	private SimpleJobService jobService;
+
+	private TaskExecutorJobLauncher jobLauncher;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		database.job("failing", (contribution, context) -> {
+			throw new IllegalStateException("planned");
+		}, "step");
+		jobLauncher = database.launcher();
+		jobService = database.jobService(jobLauncher);
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void abandonEvictsTheStepExecutions() throws Exception {
+		StepExecution cached = failedStep(1L);
+		jobService.abandon(cached.getJobExecutionId());
+		assertEquals(BatchStatus.ABANDONED, jobService.getJobExecution(cached.getJobExecutionId()).getStatus());
+		assertEquals(BatchStatus.ABANDONED,
+				jobService.getStepExecution(cached.getJobExecutionId(), cached.getId()).getJobExecution().getStatus());
+	}
+
+	@Test
+	void bulkAbandonEvictsTheStepExecutions() throws Exception {
+		StepExecution first = failedStep(1L);
+		StepExecution second = failedStep(2L);
+		jobService.abandonAll(ExecutionFilter.forIds(List.of(first.getJobExecutionId(), second.getJobExecutionId())));
+		for (StepExecution cached : List.of(first, second)) {
+			assertEquals(BatchStatus.ABANDONED, jobService.getStepExecution(cached.getJobExecutionId(), cached.getId())
+					.getJobExecution().getStatus());
+		}
+	}
+
+	/**
+	 * Run the failing job and read its step execution, so that it is cached.
+	 */
+	private StepExecution failedStep(long run) throws Exception {
+		JobExecution jobExecution = jobService.launch("failing",
+				new JobParametersBuilder().addLong("run", run).toJobParameters());
+		Long stepExecutionId = jobExecution.getStepExecutions().iterator().next().getId();
+		StepExecution stepExecution = jobService.getStepExecution(jobExecution.getId(), stepExecutionId);
+		assertEquals(BatchStatus.FAILED, stepExecution.getJobExecution().getStatus());
+		long hits = jobService.getStepExecutionCache().getHitCount();
+		jobService.getStepExecution(jobExecution.getId(), stepExecutionId);
+		assertEquals(hits + 1, jobService.getStepExecutionCache().getHitCount());
+		return stepExecution;
+	}
+
+}
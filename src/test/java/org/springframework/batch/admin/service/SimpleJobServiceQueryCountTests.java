@@ -0,0 +1,207 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.NoSuchJobExecutionException;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+
+/**
+ * Checks that the number of queries needed to serve a page does not grow with
+ * the size of the page (no query per row).
+ */
+class SimpleJobServiceQueryCountTests {
+
+	private static final int INSTANCES = 30;
+
+	/**
+	 * The start of a deep page, which still has room for 20 executions.
+	 */
+	private static final int DEEP = 8;
+
+	private static EmbeddedBatchDatabase database;
+
+	private static JobService jobService;
+
+	@BeforeAll
+	static void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		TaskExecutorJobLauncher jobLauncher = database.launcher();
+		Job job = database.job("job", "step1", "step2");
+		for (int i = 0; i < INSTANCES; i++) {
+			jobLauncher.run(job,
+					new JobParametersBuilder().addLong("run", (long) i).addString("name", "run" + i).toJobParameters());
+		}
+		jobService = database.jobService(jobLauncher);
+	}
+
+	@AfterAll
+	static void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void listJobInstancesWithExecutionsUsesConstantQueries() throws Exception {
+		int small = countQueries(() -> assertEquals(2, jobService.listJobInstancesWithExecutions("job", 0, 2).size()));
+		int large = countQueries(() -> {
+			Map<JobInstance, Collection<JobExecution>> page = jobService.listJobInstancesWithExecutions("job", 0, 20);
+			assertEquals(20, page.size());
+			for (Collection<JobExecution> jobExecutions : page.values()) {
+				assertEquals(1, jobExecutions.size());
+				JobExecution jobExecution = jobExecutions.iterator().next();
+				assertEquals(2, jobExecution.getStepExecutions().size());
+				assertEquals(2, jobExecution.getJobParameters().getParameters().size());
+			}
+		});
+		assertTrue(small > 0, "queries are counted");
+		assertEquals(small, large, "queries for a page of 2 and a page of 20 instances");
+	}
+
+	@Test
+	void deepPageUsesSameQueriesAsFirstPage() throws Exception {
+		int first = countQueries(() -> jobService.listJobInstancesWithExecutions("job", 0, 10));
+		int deep = countQueries(() -> jobService.listJobInstancesWithExecutions("job", 20, 10));
+		assertEquals(first, deep);
+	}
+
+	@Test
+	void listJobExecutionsUsesConstantQueries() throws Exception {
+		assertConstantQueries("the first page", count -> jobService.listJobExecutions(0, count));
+		assertConstantQueries("a deep page", count -> jobService.listJobExecutions(DEEP, count));
+	}
+
+	@Test
+	void listJobExecutionsAfterUsesConstantQueries() throws Exception {
+		Long token = jobExecutionIds().get(DEEP - 1);
+		assertConstantQueries("the first page", count -> jobService.listJobExecutionsAfter(null, count).getItems());
+		assertConstantQueries("a later page", count -> jobService.listJobExecutionsAfter(token, count).getItems());
+	}
+
+	@Test
+	void listJobExecutionsForJobUsesConstantQueries() throws Exception {
+		assertConstantQueries("the first page", count -> jobService.listJobExecutionsForJob("job", 0, count));
+		assertConstantQueries("a deep page", count -> jobService.listJobExecutionsForJob("job", DEEP, count));
+	}
+
+	@Test
+	void listJobExecutionsForJobAfterUsesConstantQueries() throws Exception {
+		Long token = jobExecutionIds().get(DEEP - 1);
+		assertConstantQueries("the first page",
+				count -> jobService.listJobExecutionsForJobAfter("job", null, count).getItems());
+		assertConstantQueries("a later page",
+				count -> jobService.listJobExecutionsForJobAfter("job", token, count).getItems());
+	}
+
+	/**
+	 * The export streams its rows through a connection callback, which must
+	 * be counted once like any other query.
+	 */
+	@Test
+	void streamedExportIsCountedOnce() throws Exception {
+		int[] rows = new int[1];
+		assertEquals(1, countQueries(() -> jobService.exportStepExecutionRecords(null, record -> rows[0]++)));
+		assertEquals(2 * INSTANCES, rows[0]);
+	}
+
+	/**
+	 * The previews and the streamed contexts check that the execution exists
+	 * with one query for its status (none when it is cached), instead of
+	 * loading it with all its steps.
+	 */
+	@Test
+	void contextPreviewsCheckExistenceWithOneQuery() throws Exception {
+		SimpleJobService simpleJobService = (SimpleJobService) jobService;
+		Long jobExecutionId = jobExecutionIds().get(0);
+		Long stepExecutionId = jobService.getJobExecution(jobExecutionId).getStepExecutions().iterator().next()
+				.getId();
+
+		simpleJobService.getJobExecutionCache().evict(jobExecutionId);
+		assertEquals(2, countQueries(() -> jobService.getJobExecutionContextPreview(jobExecutionId)));
+		assertEquals(2, countQueries(
+				() -> jobService.writeJobExecutionContext(jobExecutionId, new StringWriter(), 100)));
+
+		simpleJobService.getStepExecutionCache().evict(stepExecutionId);
+		assertEquals(2, countQueries(() -> jobService.getStepExecutionContextPreview(jobExecutionId, stepExecutionId)));
+		assertEquals(2, countQueries(
+				() -> jobService.writeStepExecutionContext(jobExecutionId, stepExecutionId, new StringWriter(), 100)));
+
+		assertThrows(NoSuchStepExecutionException.class,
+				() -> jobService.getStepExecutionContextPreview(jobExecutionId, -1L));
+		assertThrows(NoSuchJobExecutionException.class,
+				() -> jobService.getStepExecutionContextPreview(-1L, stepExecutionId));
+	}
+
+	/**
+	 * Check that a page of 2 and a page of 20 executions, with their
+	 * parameters, take the same number of queries.
+	 */
+	private static void assertConstantQueries(String page, Page list) throws Exception {
+		int small = countQueries(() -> assertLoaded(list.get(2), 2));
+		int large = countQueries(() -> assertLoaded(list.get(20), 20));
+		assertTrue(small > 0, "queries are counted");
+		assertEquals(small, large, "queries for " + page + " of 2 and of 20 executions");
+	}
+
+	private static void assertLoaded(Collection<JobExecution> jobExecutions, int count) {
+		assertEquals(count, jobExecutions.size());
+		for (JobExecution jobExecution : jobExecutions) {
+			assertEquals(2, jobExecution.getJobParameters().getParameters().size());
+		}
+	}
+
+	/**
+	 * @return the ids of all the executions, newest first
+	 */
+	private static List<Long> jobExecutionIds() {
+		return jobService.listJobExecutions(0, INSTANCES).stream().map(JobExecution::getId).toList();
+	}
+
+	private static int countQueries(Action action) throws Exception {
+		QueryCountingJdbcTemplate.reset();
+		action.run();
+		int count = QueryCountingJdbcTemplate.getCount();
+		QueryCountingJdbcTemplate.reset();
+		return count;
+	}
+
+	private interface Action {
+
+		void run() throws Exception;
+
+	}
+
+	private interface Page {
+
+		Collection<JobExecution> get(int count) throws Exception;
+
+	}
+
+}
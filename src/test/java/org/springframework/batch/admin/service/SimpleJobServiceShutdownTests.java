@@ -0,0 +1,117 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+/**
+ * Checks that a shutdown stops, waits for and reports every execution launched
+ * here, including those still queued for a thread of the task executor.
+ */
+class SimpleJobServiceShutdownTests {
+
+	private EmbeddedBatchDatabase database;
+
+	private ThreadPoolTaskExecutor taskExecutor;
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private final ListAppender<ILoggingEvent> log = new ListAppender<ILoggingEvent>();
+
+	private SimpleJobService jobService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		database.job("blocking", (contribution, context) -> {
+			release.await(10, TimeUnit.SECONDS);
+			return RepeatStatus.FINISHED;
+		}, "step");
+		taskExecutor = new ThreadPoolTaskExecutor();
+		taskExecutor.setCorePoolSize(1);
+		taskExecutor.setMaxPoolSize(1);
+		taskExecutor.setWaitForTasksToCompleteOnShutdown(true);
+		taskExecutor.setAwaitTerminationSeconds(10);
+		taskExecutor.initialize();
+		SimpleJobServiceFactoryBean factory = new SimpleJobServiceFactoryBean();
+		factory.setJobLauncher(database.launcher(taskExecutor));
+		jobService = database.jobService(factory);
+		jobService.setShutdownTimeout(200);
+		log.start();
+		Logger logger = (Logger) LoggerFactory.getLogger(SimpleJobService.class);
+		logger.addAppender(log);
+		// the report is expected, so keep it off the console
+		logger.setAdditive(false);
+	}
+
+	@AfterEach
+	void tearDown() {
+		Logger logger = (Logger) LoggerFactory.getLogger(SimpleJobService.class);
+		logger.detachAppender(log);
+		logger.setAdditive(true);
+		release.countDown();
+		taskExecutor.shutdown();
+		database.shutdown();
+	}
+
+	@Test
+	void queuedLaunchIsTrackedStoppedAndReported() throws Exception {
+		JobExecution running = jobService.launch("blocking", new JobParametersBuilder().addLong("run", 1L)
+				.toJobParameters());
+		JobExecution queued = jobService.launch("blocking", new JobParametersBuilder().addLong("run", 2L)
+				.toJobParameters());
+		assertEquals(Set.of(running.getId(), queued.getId()), jobService.getActiveExecutions().getIds());
+		assertEquals(BatchStatus.STARTING, database.jobExplorer.getJobExecution(queued.getId()).getStatus());
+
+		jobService.destroy();
+
+		assertEquals(BatchStatus.STOPPED, database.jobExplorer.getJobExecution(queued.getId()).getStatus());
+		assertTrue(jobService.getActiveExecutions().getIds().contains(queued.getId()));
+		String report = log.list.stream().filter(event -> event.getMessage().startsWith("Timed out"))
+				.map(ILoggingEvent::getFormattedMessage).findFirst().orElse("");
+		assertTrue(report.contains(queued.getId() + " (blocking)"), report);
+	}
+
+	@Test
+	void synchronousLaunchIsNotLeftRegistered() throws Exception {
+		SimpleJobServiceFactoryBean factory = new SimpleJobServiceFactoryBean();
+		factory.setJobLauncher(database.launcher());
+		SimpleJobService jobService = database.jobService(factory);
+		database.job("quick", "step");
+		jobService.launch("quick", new JobParametersBuilder().toJobParameters());
+		assertTrue(jobService.getActiveExecutions().isEmpty());
+	}
+
+}
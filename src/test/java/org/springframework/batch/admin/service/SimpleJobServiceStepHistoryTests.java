@@ -0,0 +1,185 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.batch.admin.domain.StepExecutionHistory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks how the step execution history snapshot moves forward, with the
+ * snapshots kept in memory and in the database: the watermark stops at a
+ * running step (the finished executions after it are returned, not saved),
+ * and passes a stale one, which is folded in once it finishes.
+ */
+class SimpleJobServiceStepHistoryTests {
+
+	private static final LocalDateTime BASE = LocalDateTime.now().minusDays(1);
+
+	private EmbeddedBatchDatabase database;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private StepExecutionHistoryStore store;
+
+	private SimpleJobService jobService;
+
+	void setUp(boolean persistent) throws Exception {
+		database = new EmbeddedBatchDatabase();
+		jdbcTemplate = new JdbcTemplate(database.dataSource);
+		SimpleJobServiceFactoryBean factory = new SimpleJobServiceFactoryBean() {
+			@Override
+			protected StepExecutionHistoryStore createStepExecutionHistoryStore() throws Exception {
+				store = super.createStepExecutionHistoryStore();
+				return store;
+			}
+		};
+		factory.setJobLauncher(database.launcher());
+		if (persistent) {
+			jdbcTemplate.execute("CREATE TABLE BATCH_STEP_EXECUTION_HISTORY (JOB_NAME VARCHAR(100) NOT NULL, "
+					+ "STEP_NAME VARCHAR(100) NOT NULL, HIGH_WATER_MARK BIGINT NOT NULL, "
+					+ "HISTORY VARCHAR(2500) NOT NULL, LAST_UPDATED TIMESTAMP, "
+					+ "constraint STEP_EXECUTION_HISTORY_PK primary key (JOB_NAME, STEP_NAME))");
+			factory.setPersistStepExecutionHistory(true);
+		}
+		jobService = database.jobService(factory);
+		if (!persistent) {
+			store = new MapStepExecutionHistoryStore();
+			jobService.setStepExecutionHistoryStore(store);
+		}
+		jobService.setUnfinishedStepTimeout(60 * 60 * 1000L);
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_INSTANCE (JOB_INSTANCE_ID, VERSION, JOB_NAME, JOB_KEY) "
+				+ "VALUES (1, 0, 'job', 'key')");
+		jdbcTemplate.update("INSERT INTO BATCH_JOB_EXECUTION (JOB_EXECUTION_ID, VERSION, JOB_INSTANCE_ID, "
+				+ "CREATE_TIME, STATUS) VALUES (1, 0, 1, ?, 'STARTED')", Timestamp.valueOf(BASE));
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void watermarkStopsAtARunningStep(boolean persistent) throws Exception {
+		setUp(persistent);
+		finished(1, 10);
+		running(2, LocalDateTime.now());
+		finished(3, 30);
+
+		// the execution after the running one counts, but is not saved
+		assertHistory(2, 40, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(1, 1, Collections.<Long>emptySet());
+		assertHistory(2, 40, jobService.getStepExecutionHistory("job", "step"));
+
+		finish(2, 20);
+		assertHistory(3, 60, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(3, 3, Collections.<Long>emptySet());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void staleStepIsFoldedInWhenItFinishes(boolean persistent) throws Exception {
+		setUp(persistent);
+		finished(1, 10);
+		running(2, LocalDateTime.now().minusHours(2));
+		finished(3, 30);
+
+		assertHistory(2, 40, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(3, 2, Set.of(2L));
+		assertHistory(2, 40, jobService.getStepExecutionHistory("job", "step"));
+
+		finish(2, 20);
+		assertHistory(3, 60, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(3, 3, Collections.<Long>emptySet());
+		// and only once
+		assertHistory(3, 60, jobService.getStepExecutionHistory("job", "step"));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void staleStepThatNeverEndsIsDropped(boolean persistent) throws Exception {
+		setUp(persistent);
+		finished(1, 10);
+		running(2, LocalDateTime.now().minusHours(2));
+
+		assertHistory(1, 10, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(2, 1, Set.of(2L));
+
+		jdbcTemplate.update("UPDATE BATCH_STEP_EXECUTION set STATUS = 'ABANDONED' where STEP_EXECUTION_ID = 2");
+		assertHistory(1, 10, jobService.getStepExecutionHistory("job", "step"));
+		assertSnapshot(2, 1, Collections.<Long>emptySet());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void storeKeepsTheMostRecentSnapshot(boolean persistent) throws Exception {
+		setUp(persistent);
+		StepExecutionHistory history = new StepExecutionHistory("step");
+		store.saveSnapshot(new StepExecutionHistorySnapshot("job", "step", history, 5, Set.of(2L, 4L)));
+		store.saveSnapshot(new StepExecutionHistorySnapshot("job", "step", history, 4));
+		assertSnapshot(5, 0, Set.of(2L, 4L));
+
+		store.saveSnapshot(new StepExecutionHistorySnapshot("job", "step", history, 5, Set.of(4L)));
+		assertSnapshot(5, 0, Set.of(4L));
+		store.saveSnapshot(new StepExecutionHistorySnapshot("job", "step", history, 5, Set.of(2L, 4L)));
+		assertSnapshot(5, 0, Set.of(4L));
+
+		store.saveSnapshot(new StepExecutionHistorySnapshot("job", "step", history, 6, Set.of(2L, 4L)));
+		assertSnapshot(6, 0, Set.of(2L, 4L));
+	}
+
+	private void assertHistory(int count, double reads, StepExecutionHistory history) {
+		assertEquals(count, history.getCount(), "count");
+		assertEquals(reads, history.getReadCount().getSum(), "reads");
+	}
+
+	private void assertSnapshot(long highWaterMark, int count, Set<Long> pending) {
+		StepExecutionHistorySnapshot snapshot = store.getSnapshot("job", "step");
+		assertEquals(highWaterMark, snapshot.getHighWaterMark(), "high water mark");
+		assertEquals(count, snapshot.getHistory().getCount(), "saved count");
+		assertEquals(pending, snapshot.getPendingStepExecutionIds(), "pending");
+	}
+
+	private void finished(long id, long reads) {
+		running(id, BASE);
+		finish(id, reads);
+	}
+
+	private void running(long id, LocalDateTime lastUpdated) {
+		jdbcTemplate.update("INSERT INTO BATCH_STEP_EXECUTION (STEP_EXECUTION_ID, VERSION, STEP_NAME, "
+				+ "JOB_EXECUTION_ID, CREATE_TIME, START_TIME, STATUS, COMMIT_COUNT, READ_COUNT, FILTER_COUNT, "
+				+ "WRITE_COUNT, READ_SKIP_COUNT, WRITE_SKIP_COUNT, PROCESS_SKIP_COUNT, ROLLBACK_COUNT, "
+				+ "EXIT_CODE, EXIT_MESSAGE, LAST_UPDATED) "
+				+ "VALUES (?, 0, 'step', 1, ?, ?, 'STARTED', 0, 0, 0, 0, 0, 0, 0, 0, 'EXECUTING', '', ?)", id,
+				Timestamp.valueOf(BASE), Timestamp.valueOf(BASE), Timestamp.valueOf(lastUpdated));
+	}
+
+	private void finish(long id, long reads) {
+		jdbcTemplate.update("UPDATE BATCH_STEP_EXECUTION set STATUS = 'COMPLETED', END_TIME = ?, READ_COUNT = ? "
+				+ "where STEP_EXECUTION_ID = ?", Timestamp.valueOf(BASE.plusMinutes(1)), reads, id);
+	}
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.item.database.Order;
+import org.springframework.batch.item.database.PagingQueryProvider;
+import org.springframework.batch.item.database.support.SqlPagingQueryProviderFactoryBean;
+
+/**
+ * Per-call latency of
+ * {@link JdbcSearchableStepExecutionDao#findStepExecutions(String, String, int, int)}
+ * with the prebuilt paging query providers, against the same call preceded by
+ * what it used to do first: build a {@link SqlPagingQueryProviderFactoryBean}
+ * that looks up the database type in the DataSource meta data. Run it with
+ * 
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.springframework.batch.admin.service.StepExecutionPagingBenchmark"
+ * </pre>
+ * 
+ * The embedded H2 database makes the meta data lookup about as cheap as it
+ * gets; with a pooled DataSource in front of a remote database it also costs
+ * a connection checkout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepExecutionPagingBenchmark {
+
+	private static final int RUNS = 50;
+
+	private EmbeddedBatchDatabase database;
+
+	private JdbcSearchableStepExecutionDao dao;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		Job job = database.job("job", "step");
+		TaskExecutorJobLauncher jobLauncher = database.launcher();
+		for (long run = 0; run < RUNS; run++) {
+			jobLauncher.run(job, new JobParametersBuilder().addLong("run", run).toJobParameters());
+		}
+		dao = new JdbcSearchableStepExecutionDao();
+		dao.setDataSource(database.dataSource);
+		dao.afterPropertiesSet();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		database.shutdown();
+	}
+
+	@Benchmark
+	public Collection<StepExecution> prebuiltProvider() {
+		return dao.findStepExecutions("job", "step", 0, 20);
+	}
+
+	@Benchmark
+	public Collection<StepExecution> factoryBeanPerCall() throws Exception {
+		PagingQueryProvider queryProvider = createProvider("JOB_NAME = ? AND STEP_NAME = ?");
+		if (queryProvider.generateFirstPageQuery(20) == null) {
+			throw new IllegalStateException("No query");
+		}
+		return dao.findStepExecutions("job", "step", 0, 20);
+	}
+
+	/**
+	 * The extra cost on its own, which the query can hide in the noise.
+	 */
+	@Benchmark
+	public PagingQueryProvider factoryBeanOnly() throws Exception {
+		return createProvider("JOB_NAME = ? AND STEP_NAME = ?");
+	}
+
+	/**
+	 * What each call did before the providers were prebuilt.
+	 */
+	private PagingQueryProvider createProvider(String whereClause) throws Exception {
+		SqlPagingQueryProviderFactoryBean factory = new SqlPagingQueryProviderFactoryBean();
+		factory.setDataSource(database.dataSource);
+		factory.setFromClause("BATCH_STEP_EXECUTION S, BATCH_JOB_EXECUTION J, BATCH_JOB_INSTANCE I");
+		factory.setSelectClause("S.STEP_EXECUTION_ID, S.STEP_NAME, S.START_TIME, S.END_TIME, S.STATUS");
+		factory.setSortKeys(Map.of("STEP_EXECUTION_ID", Order.DESCENDING));
+		factory.setWhereClause(whereClause
+				+ " AND S.JOB_EXECUTION_ID = J.JOB_EXECUTION_ID AND J.JOB_INSTANCE_ID = I.JOB_INSTANCE_ID");
+		return factory.getObject();
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(StepExecutionPagingBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
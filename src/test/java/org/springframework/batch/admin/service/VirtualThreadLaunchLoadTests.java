@@ -0,0 +1,165 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
+import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Launches 500 lightweight jobs that mostly wait (as on JDBC or HTTP) on the
+ * default pool of platform threads and on virtual threads, and reports the
+ * launch throughput and the latency from launch to start and to end of each.
+ * The pool has the default 6 threads; the virtual threads are limited to
+ * {@link #VIRTUAL_LIMIT}, the kind of limit that is affordable for jobs that
+ * wait.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadLaunchLoadTests {
+
+	private static final int JOBS = 500;
+
+	private static final int POOL_SIZE = 6;
+
+	private static final int VIRTUAL_LIMIT = 100;
+
+	private static final long WAIT_MILLIS = 20;
+
+	private EmbeddedBatchDatabase database;
+
+	private final AtomicInteger running = new AtomicInteger();
+
+	private final AtomicInteger maxRunning = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		database = new EmbeddedBatchDatabase();
+		database.job("waiting", (contribution, context) -> {
+			maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+			try {
+				Thread.sleep(WAIT_MILLIS);
+			}
+			finally {
+				running.decrementAndGet();
+			}
+			return RepeatStatus.FINISHED;
+		}, "step");
+	}
+
+	@AfterEach
+	void tearDown() {
+		database.shutdown();
+	}
+
+	@Test
+	void virtualThreadsAgainstThePlatformPool() throws Exception {
+		ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+		pool.setCorePoolSize(POOL_SIZE);
+		pool.setMaxPoolSize(POOL_SIZE);
+		pool.setQueueCapacity(JOBS);
+		pool.initialize();
+		Result platform;
+		try {
+			platform = run(pool, 0);
+		}
+		finally {
+			pool.shutdown();
+		}
+		assertEquals(POOL_SIZE, maxRunning.get());
+
+		maxRunning.set(0);
+		Result virtual = run(new VirtualThreadTaskExecutor("load-", VIRTUAL_LIMIT), JOBS);
+		assertTrue(maxRunning.get() <= VIRTUAL_LIMIT, "at most " + VIRTUAL_LIMIT + " jobs at once");
+
+		System.out.println("Launching " + JOBS + " jobs waiting " + WAIT_MILLIS + "ms each:");
+		System.out.println("  platform pool (" + POOL_SIZE + " threads): " + platform);
+		System.out.println("  virtual threads (limit " + VIRTUAL_LIMIT + "): " + virtual);
+	}
+
+	/**
+	 * Launch the jobs one after another, as fast as the launcher returns, and
+	 * wait for them all to end.
+	 */
+	private Result run(TaskExecutor taskExecutor, int firstRun) throws Exception {
+		CountDownLatch finished = new CountDownLatch(JOBS);
+		TaskExecutorJobLauncher jobLauncher = database.launcher(task -> taskExecutor.execute(() -> {
+			try {
+				task.run();
+			}
+			finally {
+				finished.countDown();
+			}
+		}));
+		List<JobExecution> jobExecutions = new ArrayList<JobExecution>();
+		long started = System.nanoTime();
+		for (int i = 0; i < JOBS; i++) {
+			jobExecutions.add(jobLauncher.run(database.jobRegistry.getJob("waiting"),
+					new JobParametersBuilder().addLong("run", (long) firstRun + i).toJobParameters()));
+		}
+		long launched = System.nanoTime();
+		assertTrue(finished.await(2, TimeUnit.MINUTES), "all jobs ended in time");
+		long ended = System.nanoTime();
+
+		List<Long> toStart = new ArrayList<Long>();
+		List<Long> toEnd = new ArrayList<Long>();
+		for (JobExecution jobExecution : jobExecutions) {
+			assertEquals(BatchStatus.COMPLETED, jobExecution.getStatus());
+			LocalDateTime created = jobExecution.getCreateTime();
+			toStart.add(Duration.between(created, jobExecution.getStartTime()).toMillis());
+			toEnd.add(Duration.between(created, jobExecution.getEndTime()).toMillis());
+		}
+		toStart.sort(null);
+		toEnd.sort(null);
+		return new Result(launched - started, ended - started, toStart, toEnd);
+	}
+
+	private record Result(long launchNanos, long totalNanos, List<Long> toStart, List<Long> toEnd) {
+
+		@Override
+		public String toString() {
+			return String.format(
+					"%.0f launches/s, %.0f jobs/s, launch to start p50=%dms p99=%dms, launch to end p50=%dms p99=%dms",
+					JOBS * 1e9 / launchNanos, JOBS * 1e9 / totalNanos, percentile(toStart, 50),
+					percentile(toStart, 99), percentile(toEnd, 50), percentile(toEnd, 99));
+		}
+
+		private static long percentile(List<Long> sorted, int percent) {
+			return sorted.get(Math.min(sorted.size() - 1, sorted.size() * percent / 100));
+		}
+
+	}
+
+}
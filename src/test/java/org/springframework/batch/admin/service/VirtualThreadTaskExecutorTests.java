@@ -0,0 +1,82 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the concurrency limit with platform threads, so that it runs on any
+ * JDK: tasks over the limit wait for a permit and start as others finish.
+ */
+class VirtualThreadTaskExecutorTests {
+
+	private static final int LIMIT = 2;
+
+	private static final int TASKS = 5;
+
+	@Test
+	void tasksOverTheLimitWaitForAPermit() throws Exception {
+		VirtualThreadTaskExecutor executor = new VirtualThreadTaskExecutor(Executors.defaultThreadFactory(), LIMIT);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(TASKS);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		for (int i = 0; i < TASKS; i++) {
+			executor.execute(() -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try {
+					release.await();
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				finally {
+					running.decrementAndGet();
+					finished.countDown();
+				}
+			});
+		}
+		awaitUntil(() -> executor.getWaitingCount() == TASKS - LIMIT);
+		assertEquals(LIMIT, executor.getActiveCount());
+		assertEquals(TASKS - LIMIT, executor.getWaitingCount());
+		assertEquals(LIMIT, running.get());
+
+		release.countDown();
+		assertTrue(finished.await(5, TimeUnit.SECONDS), "all tasks finished");
+		assertEquals(LIMIT, maxRunning.get());
+		// the permit is released just after the task counts down
+		awaitUntil(() -> executor.getActiveCount() == 0);
+		assertEquals(0, executor.getActiveCount());
+		assertEquals(0, executor.getWaitingCount());
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.ui.ModelMap;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Checks that the bulk operations refuse a request without criteria, which
+ * would otherwise act on the whole execution history.
+ */
+class JobExecutionControllerTests {
+
+	private final JobExecutionController controller = new JobExecutionController();
+
+	@Test
+	void abandonAllWithoutCriteriaIsRejected() {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> controller.abandonAll(new ModelMap(), null, 0, 20, null, null, null, null));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+
+	@Test
+	void restartAllWithoutCriteriaIsRejected() {
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> controller.restartAll(new ModelMap(), null, 0, 20, null, null, null, null));
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+
+}
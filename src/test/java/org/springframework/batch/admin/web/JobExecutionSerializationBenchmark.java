@@ -0,0 +1,115 @@
+/*
+ * Copyright 2009-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.batch.admin.web;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.batch.admin.domain.JobExecutionInfo;
+import org.springframework.batch.admin.domain.JobExecutionRecord;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobParametersBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Serialization cost per 1,000 rows of the JSON API's
+ * {@link JobExecutionRecord} against the {@link JobExecutionInfo} (and the
+ * {@link JobExecution} it carries) behind the HTML execution list, with
+ * Jackson and the JSR-310 module. The sizes of the two documents are printed
+ * at setup. Run it with
+ * 
+ * <pre>
+ * mvn test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     -Dexec.args="-cp %classpath org.springframework.batch.admin.web.JobExecutionSerializationBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JobExecutionSerializationBenchmark {
+
+	private static final int ROWS = 1000;
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	private final List<JobExecutionRecord> records = new ArrayList<JobExecutionRecord>();
+
+	private final List<JobExecutionInfo> infos = new ArrayList<JobExecutionInfo>();
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+		for (long id = 1; id <= ROWS; id++) {
+			LocalDateTime createTime = base.plusMinutes(id);
+			JobInstance jobInstance = new JobInstance(id, "job");
+			JobExecution jobExecution = new JobExecution(jobInstance, id,
+					new JobParametersBuilder().addLong("run", id).addString("input", "file-" + id + ".csv")
+							.toJobParameters());
+			jobExecution.setVersion(2);
+			jobExecution.setStatus(BatchStatus.COMPLETED);
+			jobExecution.setExitStatus(ExitStatus.COMPLETED);
+			jobExecution.setCreateTime(createTime);
+			jobExecution.setStartTime(createTime.plusSeconds(1));
+			jobExecution.setEndTime(createTime.plusSeconds(30));
+			jobExecution.setLastUpdated(createTime.plusSeconds(30));
+			jobExecution.getExecutionContext().putLong("read.count", id * 10);
+			records.add(new JobExecutionRecord(id, id, "job", BatchStatus.COMPLETED, "COMPLETED", createTime,
+					jobExecution.getStartTime(), jobExecution.getEndTime(), jobExecution.getLastUpdated(), 2));
+			infos.add(new JobExecutionInfo(jobExecution, 1, TimeZone.getDefault()));
+		}
+		System.out.printf("%n%d records: %d bytes, %d infos: %d bytes%n", ROWS, records().length, ROWS,
+				infos().length);
+	}
+
+	@Benchmark
+	public byte[] records() throws Exception {
+		return objectMapper.writeValueAsBytes(records);
+	}
+
+	@Benchmark
+	public byte[] infos() throws Exception {
+		return objectMapper.writeValueAsBytes(infos);
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder().include(JobExecutionSerializationBenchmark.class.getSimpleName()).build())
+				.run();
+	}
+
+}